@@ -0,0 +1,75 @@
+package dev.edvinmichovic.meetingmanagement.benchmark;
+
+import dev.edvinmichovic.meetingmanagement.model.Category;
+import dev.edvinmichovic.meetingmanagement.model.Meeting;
+import dev.edvinmichovic.meetingmanagement.model.Type;
+import dev.edvinmichovic.meetingmanagement.repository.MeetingRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the columnar scan of MeetingRepository#findAll with the former stream pipeline over the meetings' list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FindAllScanBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    @Param({"none", "description", "responsiblePerson", "categoryAndType", "betweenDates", "minAttendees", "all"})
+    public String filter;
+
+    private MeetingRepository repository;
+    private List<Meeting> meetingList;
+
+    private String description;
+    private String responsiblePerson;
+    private String category;
+    private String type;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Integer minAttendees;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = MeetingDataset.repository(size, 20, 42);
+        meetingList = repository.findAll(null, null, null, null, null, null, null);
+
+        boolean all = filter.equals("all");
+        description = all || filter.equals("description") ? "jAvA" : null;
+        responsiblePerson = all || filter.equals("responsiblePerson") ? "Person 7" : null;
+        category = all || filter.equals("categoryAndType") ? "Hub" : null;
+        type = all || filter.equals("categoryAndType") ? "Live" : null;
+        startDate = all || filter.equals("betweenDates") ? LocalDate.of(2023, 6, 1) : null;
+        endDate = all || filter.equals("betweenDates") ? LocalDate.of(2023, 12, 31) : null;
+        minAttendees = all || filter.equals("minAttendees") ? 15 : null;
+    }
+
+    @Benchmark
+    public List<Meeting> columnar() {
+        return repository.findAll(description, responsiblePerson, category, type, startDate, endDate, minAttendees);
+    }
+
+    @Benchmark
+    public List<Meeting> stream() {
+        return meetingList.stream()
+                .filter(meeting -> description == null || meeting.description().toLowerCase().contains(description.toLowerCase()))
+                .filter(meeting -> responsiblePerson == null || meeting.responsiblePerson().equals(responsiblePerson))
+                .filter(meeting -> category == null || meeting.meetingCategory().equals(Category.valueOf(category)))
+                .filter(meeting -> type == null || meeting.meetingType().equals(Type.valueOf(type)))
+                .filter(meeting -> startDate == null || meeting.startDate().isAfter(startDate.atStartOfDay()))
+                .filter(meeting -> endDate == null || meeting.endDate().isBefore(endDate.atTime(23, 59)))
+                .filter(meeting -> minAttendees == null || meeting.participants().size() >= minAttendees)
+                .collect(Collectors.toList());
+    }
+
+}
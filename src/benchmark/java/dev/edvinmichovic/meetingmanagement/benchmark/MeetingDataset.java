@@ -0,0 +1,96 @@
+package dev.edvinmichovic.meetingmanagement.benchmark;
+
+import dev.edvinmichovic.meetingmanagement.config.MeetingProperties;
+import dev.edvinmichovic.meetingmanagement.dto.MeetingDTO;
+import dev.edvinmichovic.meetingmanagement.repository.MeetingRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * MeetingDataset generates synthetic, reproducible meetings for the benchmarks.
+ * Person names are drawn from a fixed set of people and are created as new String instances,
+ * the same way they arrive from JSON.
+ */
+public final class MeetingDataset {
+
+    public static final LocalDateTime FIRST_START = LocalDateTime.of(2023, 1, 1, 8, 0);
+    public static final int PEOPLE = 500;
+
+    private static final String[] CATEGORIES = {"CodeMonkey", "Hub", "Short", "TeamBuilding"};
+    private static final String[] TYPES = {"Live", "InPerson"};
+    private static final String[] TOPICS = {"Java", "Spring", "Planning", "Retrospective", "Architecture", "Hiring", "Budget"};
+
+    private MeetingDataset() {
+    }
+
+    public static String meetingName(int index) {
+        return String.format("Meeting %07d", index);
+    }
+
+    public static String person(int index) {
+        return new String("Person " + (index % PEOPLE));
+    }
+
+    /**
+     * Method generates the meetings.
+     *
+     * @param size            - number of meetings.
+     * @param maxParticipants - maximal number of participants of a meeting (besides the responsible person).
+     * @param seed            - seed of the random generator.
+     */
+    public static List<MeetingDTO> meetings(int size, int maxParticipants, long seed) {
+        return meetings(size, maxParticipants, seed, FIRST_START);
+    }
+
+    /**
+     * Method generates the meetings starting within two years from the given date
+     * (e.g. in the future, so that they pass the validation of POST/meetings).
+     *
+     * @param size            - number of meetings.
+     * @param maxParticipants - maximal number of participants of a meeting (besides the responsible person).
+     * @param seed            - seed of the random generator.
+     * @param firstStart      - the earliest start of the meetings.
+     */
+    public static List<MeetingDTO> meetings(int size, int maxParticipants, long seed, LocalDateTime firstStart) {
+        Random random = new Random(seed);
+        List<MeetingDTO> meetings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            LocalDateTime start = firstStart.plusMinutes(random.nextInt(2 * 365 * 24 * 60));
+            HashMap<String, LocalDateTime> participants = new HashMap<>();
+            int participantCount = maxParticipants == 0 ? 0 : random.nextInt(maxParticipants + 1);
+            for (int p = 0; p < participantCount; p++) {
+                participants.put(person(random.nextInt(PEOPLE)), start.minusDays(1));
+            }
+            meetings.add(new MeetingDTO(meetingName(i),
+                    person(random.nextInt(PEOPLE)),
+                    TOPICS[random.nextInt(TOPICS.length)] + " meeting #" + i,
+                    CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    TYPES[random.nextInt(TYPES.length)],
+                    start,
+                    start.plusMinutes(30 + random.nextInt(150)),
+                    participants));
+        }
+        return meetings;
+    }
+
+    /**
+     * Method creates the repository (without loading the default JSON file) filled with the generated meetings.
+     */
+    public static MeetingRepository repository(int size, int maxParticipants, long seed) {
+        return repository(new MeetingProperties(), size, maxParticipants, seed);
+    }
+
+    /**
+     * Method creates the repository with the given configuration, filled with the generated meetings.
+     */
+    public static MeetingRepository repository(MeetingProperties properties, int size, int maxParticipants, long seed) {
+        MeetingRepository repository = new MeetingRepository(properties);
+        repository.saveAll(meetings(size, maxParticipants, seed));
+        return repository;
+    }
+
+}
@@ -0,0 +1,50 @@
+package dev.edvinmichovic.meetingmanagement.benchmark;
+
+import dev.edvinmichovic.meetingmanagement.config.MeetingProperties;
+import dev.edvinmichovic.meetingmanagement.model.Meeting;
+import dev.edvinmichovic.meetingmanagement.repository.MeetingRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how the parallel scan of MeetingRepository#findAll scales with the number of threads of the scan pool.
+ * The threshold is 0, so every scan is split into chunks (parallelism 1 scans sequentially).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelScanBenchmark {
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private MeetingRepository repository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MeetingProperties properties = new MeetingProperties();
+        properties.getScan().setParallelThreshold(0);
+        properties.getScan().setParallelism(parallelism);
+        repository = MeetingDataset.repository(properties, size, 20, 42);
+    }
+
+    @Benchmark
+    public List<Meeting> selective() {
+        return repository.findAll("java", null, "Hub", null, LocalDate.of(2023, 6, 1), null, 5);
+    }
+
+    @Benchmark
+    public List<Meeting> description() {
+        return repository.findAll("retro", null, null, null, null, null, null);
+    }
+
+}
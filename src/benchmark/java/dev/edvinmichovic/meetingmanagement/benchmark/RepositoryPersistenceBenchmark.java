@@ -0,0 +1,56 @@
+package dev.edvinmichovic.meetingmanagement.benchmark;
+
+import dev.edvinmichovic.meetingmanagement.repository.MeetingRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON persistence of MeetingRepository: writeToJsonFile of the whole store,
+ * and reading the written file into an empty repository (parsing and saving all meetings).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RepositoryPersistenceBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private MeetingRepository repository;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        repository = MeetingDataset.repository(size, 5, 42);
+        file = Files.createTempFile("meetings-benchmark", ".json");
+        repository.writeToJsonFile(file.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void writeToJsonFile() {
+        repository.writeToJsonFile(file.toString());
+    }
+
+    @Benchmark
+    public MeetingRepository readFromJson() throws IOException {
+        MeetingRepository emptyRepository = new MeetingRepository();
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            emptyRepository.readFromJson(inputStream);
+        }
+        return emptyRepository;
+    }
+
+}
@@ -0,0 +1,85 @@
+package dev.edvinmichovic.meetingmanagement.benchmark;
+
+import dev.edvinmichovic.meetingmanagement.model.Meeting;
+import dev.edvinmichovic.meetingmanagement.repository.MeetingRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read paths of MeetingRepository: findAll with the combinations of filters, findByName, and completeNames
+ * (top 10 names starting with the prefix of 10 meetings, the same way as the meeting picker of the UI).
+ * The filters parameter is a "+"-separated combination of description, responsiblePerson, category, type,
+ * startDate, endDate and minAttendees (or "none"), so any combination can be run with -p filters=...
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RepositoryReadBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private MeetingRepository repository;
+    private String existingName;
+    private String namePrefix;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = MeetingDataset.repository(size, 5, 42);
+        existingName = MeetingDataset.meetingName(size / 2);
+        namePrefix = existingName.substring(0, existingName.length() - 1).toLowerCase();
+    }
+
+    @State(Scope.Benchmark)
+    public static class Filters {
+
+        @Param({"none", "description", "responsiblePerson", "category", "type", "startDate", "endDate", "minAttendees",
+                "category+type", "startDate+endDate", "description+responsiblePerson",
+                "description+responsiblePerson+category+type+startDate+endDate+minAttendees"})
+        public String filters;
+
+        private String description;
+        private String responsiblePerson;
+        private String category;
+        private String type;
+        private LocalDate startDate;
+        private LocalDate endDate;
+        private Integer minAttendees;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Set<String> enabled = Set.of(filters.split("\\+"));
+            description = enabled.contains("description") ? "jAvA" : null;
+            responsiblePerson = enabled.contains("responsiblePerson") ? "Person 7" : null;
+            category = enabled.contains("category") ? "Hub" : null;
+            type = enabled.contains("type") ? "Live" : null;
+            startDate = enabled.contains("startDate") ? LocalDate.of(2023, 6, 1) : null;
+            endDate = enabled.contains("endDate") ? LocalDate.of(2023, 12, 31) : null;
+            minAttendees = enabled.contains("minAttendees") ? 4 : null;
+        }
+    }
+
+    @Benchmark
+    public List<Meeting> findAll(Filters f) {
+        return repository.findAll(f.description, f.responsiblePerson, f.category, f.type, f.startDate, f.endDate, f.minAttendees);
+    }
+
+    @Benchmark
+    public Optional<Meeting> findByName() {
+        return repository.findByName(existingName);
+    }
+
+    @Benchmark
+    public List<String> completeNames() {
+        return repository.completeNames(namePrefix, 10);
+    }
+
+}
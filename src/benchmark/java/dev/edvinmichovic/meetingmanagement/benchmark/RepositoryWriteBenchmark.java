@@ -0,0 +1,107 @@
+package dev.edvinmichovic.meetingmanagement.benchmark;
+
+import dev.edvinmichovic.meetingmanagement.dto.MeetingDTO;
+import dev.edvinmichovic.meetingmanagement.repository.MeetingRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write paths of MeetingRepository: save of a new meeting, save overwriting an existing meeting,
+ * and addParticipant/removeParticipant of a meeting with the given number of participants.
+ * The participant benchmarks restore the participant before every invocation (not measured), so that every
+ * invocation adds (or removes) the participant for real.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RepositoryWriteBenchmark {
+
+    private static final String TARGET = "Benchmark meeting";
+    private static final String GUEST = "Benchmark guest";
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private MeetingRepository repository;
+    private MeetingDTO overwrite;
+    private int nextName;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = MeetingDataset.repository(size, 5, 42);
+        nextName = size;
+        overwrite = MeetingDataset.meetings(1, 5, 7).get(0);
+        repository.save(overwrite);
+    }
+
+    /**
+     * The meeting changed by the participant benchmarks, with the given number of participants.
+     */
+    @State(Scope.Benchmark)
+    public static class Target {
+
+        @Param({"10", "100", "1000"})
+        public int participants;
+
+        @Setup(Level.Trial)
+        public void setUp(RepositoryWriteBenchmark benchmark) {
+            HashMap<String, LocalDateTime> targetParticipants = new HashMap<>();
+            for (int i = 0; i < participants; i++) {
+                targetParticipants.put("Participant " + i, MeetingDataset.FIRST_START);
+            }
+            benchmark.repository.save(meeting(TARGET, targetParticipants));
+        }
+    }
+
+    private static MeetingDTO meeting(String name, HashMap<String, LocalDateTime> participants) {
+        return new MeetingDTO(name, "Person 1", "Benchmark meeting", "Hub", "Live",
+                MeetingDataset.FIRST_START, MeetingDataset.FIRST_START.plusHours(1), participants);
+    }
+
+    @State(Scope.Thread)
+    public static class GuestAbsent {
+
+        @Setup(Level.Invocation)
+        public void removeGuest(RepositoryWriteBenchmark benchmark, Target target) {
+            benchmark.repository.removeParticipant(TARGET, List.of(GUEST));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class GuestPresent {
+
+        @Setup(Level.Invocation)
+        public void addGuest(RepositoryWriteBenchmark benchmark, Target target) {
+            benchmark.repository.addParticipant(TARGET, new ArrayList<>(List.of(GUEST)));
+        }
+    }
+
+    @Benchmark
+    public void saveNew() {
+        repository.save(meeting(MeetingDataset.meetingName(nextName++), new HashMap<>()));
+    }
+
+    @Benchmark
+    public void saveOverwrite() {
+        repository.save(overwrite);
+    }
+
+    @Benchmark
+    public List<String> addParticipant(GuestAbsent guestAbsent) {
+        return repository.addParticipant(TARGET, new ArrayList<>(List.of(GUEST)));
+    }
+
+    @Benchmark
+    public void removeParticipant(GuestPresent guestPresent) {
+        repository.removeParticipant(TARGET, List.of(GUEST));
+    }
+
+}
@@ -0,0 +1,59 @@
+package dev.edvinmichovic.meetingmanagement.benchmark;
+
+import dev.edvinmichovic.meetingmanagement.config.MeetingProperties;
+import dev.edvinmichovic.meetingmanagement.dto.MeetingDTO;
+import dev.edvinmichovic.meetingmanagement.repository.MeetingRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scaling of the write throughput with the number of the store's shards (meetings.store.shards):
+ * concurrent saves overwriting random existing meetings, and findAll fanning out across the shards.
+ * Every shard has its own writer and copies only its own meetings per batch, so with more shards the writes
+ * are applied in parallel, and every batch copies a smaller snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Threads(8)
+public class ShardedWriteBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int shards;
+
+    @Param({"100000"})
+    public int size;
+
+    private MeetingRepository repository;
+    private List<MeetingDTO> meetings;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MeetingProperties properties = new MeetingProperties();
+        properties.getStore().setShards(shards);
+        meetings = MeetingDataset.meetings(size, 5, 42);
+        repository = new MeetingRepository(properties);
+        repository.saveAll(meetings);
+    }
+
+    @Benchmark
+    public void saveOverwrite() {
+        MeetingDTO meeting = meetings.get(ThreadLocalRandom.current().nextInt(size));
+        repository.save(new MeetingDTO(meeting.name(), meeting.responsiblePerson(), meeting.description(),
+                meeting.meetingCategory(), meeting.meetingType(), meeting.startDate(), meeting.endDate(), new HashMap<>()));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int findAllByCategory() {
+        return repository.findAll(null, null, "Hub", null, null, null, null).size();
+    }
+
+}
@@ -0,0 +1,66 @@
+package dev.edvinmichovic.meetingmanagement.benchmark;
+
+import dev.edvinmichovic.meetingmanagement.MeetingManagementApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the request handling on the fixed Tomcat pool of platform threads with the virtual-thread mode.
+ * The application is started on a random port, and more concurrent clients than Tomcat threads call GET /meetings.
+ * With platform threads the concurrency is limited by server.tomcat.threads.max, and the remaining requests wait
+ * in the accept queue, which shows up in the tail latency (sample mode reports p50/p99/p99.9).
+ * The benchmark only reads, so the meetings.json file written at shutdown is left as it was.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Threads(200)
+@Fork(1)
+public class VirtualThreadsLoadBenchmark {
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"20"})
+    public int tomcatMaxThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(MeetingManagementApplication.class)
+                .properties("server.port=0",
+                        "logging.level.root=WARN",
+                        "meetings.virtual-threads.enabled=" + virtualThreads,
+                        "server.tomcat.threads.max=" + tomcatMaxThreads,
+                        "server.tomcat.max-connections=10000",
+                        "server.tomcat.accept-count=10000")
+                .run();
+        String port = context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/meetings?description=java")).GET().build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int findAll() throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+}
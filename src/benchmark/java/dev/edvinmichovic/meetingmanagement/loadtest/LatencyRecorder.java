@@ -0,0 +1,88 @@
+package dev.edvinmichovic.meetingmanagement.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * LatencyRecorder collects the latencies and the statuses of one operation, recorded by one client.
+ * Every latency is kept, so the percentiles of the report are exact - the recorders of the clients are merged
+ * after the test. The recorder is not thread-safe, every client has its own.
+ */
+final class LatencyRecorder {
+
+    private long[] latencies = new long[1024];
+    private int count;
+    private long clientErrors;
+    private long serverErrors;
+    private long failures;
+
+    /**
+     * Method records the request.
+     *
+     * @param latencyNanos - the latency of the request.
+     * @param status       - the HTTP status of the response, or 0 if the request failed (e.g. connection refused).
+     */
+    void record(long latencyNanos, int status) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        if (status == 0) {
+            failures++;
+        } else if (status >= 500) {
+            serverErrors++;
+        } else if (status >= 400) {
+            clientErrors++;
+        }
+    }
+
+    void merge(LatencyRecorder other) {
+        for (int i = 0; i < other.count; i++) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, Math.max(count * 2, count + other.count));
+            }
+            latencies[count++] = other.latencies[i];
+        }
+        clientErrors += other.clientErrors;
+        serverErrors += other.serverErrors;
+        failures += other.failures;
+    }
+
+    /**
+     * Method summarizes the recorded requests.
+     *
+     * @param operation     - the name of the operation.
+     * @param durationNanos - the duration of the measurement, used for the throughput.
+     */
+    Summary summarize(String operation, long durationNanos) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return new Summary(operation,
+                count,
+                count * 1_000_000_000.0 / durationNanos,
+                percentile(sorted, 0.50),
+                percentile(sorted, 0.99),
+                percentile(sorted, 0.999),
+                count == 0 ? 0 : sorted[count - 1],
+                clientErrors,
+                serverErrors,
+                failures);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)];
+    }
+
+    /**
+     * Summary of the operation - the throughput (requests per second) and the latencies (in nanoseconds).
+     * Client errors (4xx) are counted separately from the server errors (5xx) and failed requests,
+     * as e.g. replayed flows legitimately get 404 or 409 when the clients change the same meeting.
+     */
+    record Summary(String operation, long requests, double throughput, long p50, long p99, long p999, long max,
+                   long clientErrors, long serverErrors, long failures) {
+    }
+
+}
@@ -0,0 +1,230 @@
+package dev.edvinmichovic.meetingmanagement.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * LoadTest runs the mixed read/write scenario against the running application and reports
+ * the throughput and the p50/p99/p99.9 latency of every operation. It needs nothing but the JDK and the application:
+ * <ol>
+ *     <li>the generated dataset of meetings is created through POST/meetings,</li>
+ *     <li>the clients send the operations of the scenario for the warm-up, and then for the measured duration,</li>
+ *     <li>the dataset and the meetings created by the clients are deleted (unless cleanup=false),</li>
+ *     <li>the report is printed, and appended to the CSV file of the scenario (report.file), if set,
+ *     so the runs of the releases can be compared.</li>
+ * </ol>
+ * With the rate of the scenario set, every client sends its requests on a fixed schedule, and the latency is measured
+ * from the time the request was scheduled to be sent - a slow response delays the following requests,
+ * and the delay is included in their latency, instead of being hidden by sending fewer requests.
+ * Usage: LoadTest [scenario.properties] [key=value ...]
+ * The process exits with 1 if any request failed or got a server error (5xx).
+ */
+public final class LoadTest {
+
+    private static final Path DEFAULT_SCENARIO = Path.of("src/benchmark/resources/loadtest/mixed.properties");
+
+    private final Scenario scenario;
+    private final Workload workload;
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    LoadTest(Scenario scenario) throws IOException {
+        this.scenario = scenario;
+        List<RequestsHttpFile.Step> replay = scenario.mix().containsKey("replay")
+                ? RequestsHttpFile.read(scenario.requestsFile(), scenario.target())
+                : List.of();
+        this.workload = new Workload(scenario, replay);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path file = args.length > 0 && !args[0].contains("=") ? Path.of(args[0]) : DEFAULT_SCENARIO;
+        String[] overrides = Arrays.stream(args).filter(arg -> arg.contains("=")).toArray(String[]::new);
+        List<LatencyRecorder.Summary> summaries = new LoadTest(Scenario.load(file, overrides)).run(System.out);
+        boolean failed = summaries.stream().anyMatch(summary -> summary.serverErrors() + summary.failures() > 0);
+        System.exit(failed ? 1 : 0);
+    }
+
+    /**
+     * Method creates the dataset, runs the warm-up and the measurement, and reports the results.
+     *
+     * @param out - the stream the progress and the report are printed to.
+     * @return - returns the summaries of the operations, the last one is the total of all operations.
+     */
+    List<LatencyRecorder.Summary> run(PrintStream out) throws Exception {
+        out.printf("Target %s, %d clients, %s, warm-up %ds, duration %ds, mix %s%n", scenario.target(), scenario.clients(),
+                scenario.rate() > 0 ? scenario.rate() + " requests/s" : "closed loop",
+                scenario.warmup().toSeconds(), scenario.duration().toSeconds(), scenario.mix());
+
+        long datasetStart = System.nanoTime();
+        int datasetErrors = sendAll(workload.datasetRequests());
+        out.printf("Created %d meetings in %d ms (%d errors)%n", scenario.meetings(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - datasetStart), datasetErrors);
+
+        long start = System.nanoTime();
+        long measurementStart = start + scenario.warmup().toNanos();
+        long end = measurementStart + scenario.duration().toNanos();
+        List<Map<String, LatencyRecorder>> recorders = new ArrayList<>();
+        List<Workload.Client> workloadClients = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int id = 0; id < scenario.clients(); id++) {
+                Map<String, LatencyRecorder> clientRecorders = new HashMap<>();
+                recorders.add(clientRecorders);
+                Workload.Client workloadClient = workload.new Client(id);
+                workloadClients.add(workloadClient);
+                long offset = scenario.rate() > 0 ? id * intervalNanos() / scenario.clients() : 0;
+                clients.execute(() -> runClient(workloadClient, clientRecorders, start + offset, measurementStart, end));
+            }
+        }
+
+        if (scenario.cleanup()) {
+            List<HttpRequest> cleanup = workload.cleanupRequests(workloadClients);
+            int cleanupErrors = sendAll(cleanup);
+            out.printf("Deleted %d meetings (%d not found)%n", cleanup.size() - cleanupErrors, cleanupErrors);
+        }
+
+        Map<String, LatencyRecorder> merged = new TreeMap<>();
+        LatencyRecorder total = new LatencyRecorder();
+        for (Map<String, LatencyRecorder> clientRecorders : recorders) {
+            clientRecorders.forEach((operation, recorder) -> {
+                merged.computeIfAbsent(operation, o -> new LatencyRecorder()).merge(recorder);
+                total.merge(recorder);
+            });
+        }
+        List<LatencyRecorder.Summary> summaries = new ArrayList<>();
+        merged.forEach((operation, recorder) -> summaries.add(recorder.summarize(operation, scenario.duration().toNanos())));
+        summaries.add(total.summarize("total", scenario.duration().toNanos()));
+
+        print(summaries, out);
+        if (scenario.reportFile() != null) {
+            appendCsv(summaries, scenario.reportFile());
+            out.println("Report appended to " + scenario.reportFile());
+        }
+        return summaries;
+    }
+
+    /**
+     * Method sends the requests concurrently (by the number of clients), and returns the number of unsuccessful ones.
+     */
+    private int sendAll(List<HttpRequest> requests) throws InterruptedException {
+        int errors = 0;
+        try (ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, scenario.clients()))) {
+            List<Future<Integer>> statuses = new ArrayList<>();
+            for (HttpRequest request : requests) {
+                statuses.add(executor.submit(() -> send(request)));
+            }
+            for (Future<Integer> status : statuses) {
+                try {
+                    if (status.get() / 100 != 2) {
+                        errors++;
+                    }
+                } catch (ExecutionException e) {
+                    errors++;
+                }
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Loop of one client: the requests started before the end of the warm-up are not recorded.
+     */
+    private void runClient(Workload.Client workloadClient, Map<String, LatencyRecorder> recorders,
+                           long firstSend, long measurementStart, long end) {
+        long interval = intervalNanos();
+        long scheduled = firstSend;
+        while (true) {
+            if (interval > 0) {
+                long now;
+                while ((now = System.nanoTime()) < scheduled) {
+                    LockSupport.parkNanos(scheduled - now);
+                }
+            } else {
+                scheduled = System.nanoTime();
+            }
+            if (scheduled >= end) {
+                return;
+            }
+            long callStart = scheduled;
+            for (Workload.Call call : workloadClient.next()) {
+                int status = send(call.request());
+                long callEnd = System.nanoTime();
+                if (scheduled >= measurementStart) {
+                    recorders.computeIfAbsent(call.operation(), o -> new LatencyRecorder()).record(callEnd - callStart, status);
+                }
+                callStart = callEnd;
+            }
+            scheduled += interval;
+        }
+    }
+
+    /**
+     * Interval between the requests of one client for the rate of the scenario, 0 for the closed loop.
+     */
+    private long intervalNanos() {
+        return scenario.rate() > 0 ? TimeUnit.SECONDS.toNanos(1) * scenario.clients() / scenario.rate() : 0;
+    }
+
+    private int send(HttpRequest request) {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+
+    private static void print(List<LatencyRecorder.Summary> summaries, PrintStream out) {
+        out.printf("%-50s %10s %10s %10s %10s %10s %10s %6s %6s %6s%n",
+                "operation", "requests", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "4xx", "5xx", "failed");
+        for (LatencyRecorder.Summary summary : summaries) {
+            out.printf(Locale.ROOT, "%-50s %10d %10.1f %10.3f %10.3f %10.3f %10.3f %6d %6d %6d%n",
+                    abbreviate(summary.operation(), 50), summary.requests(), summary.throughput(),
+                    millis(summary.p50()), millis(summary.p99()), millis(summary.p999()), millis(summary.max()),
+                    summary.clientErrors(), summary.serverErrors(), summary.failures());
+        }
+    }
+
+    private void appendCsv(List<LatencyRecorder.Summary> summaries, Path file) throws IOException {
+        boolean header = Files.notExists(file) || Files.size(file) == 0;
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        String timestamp = Instant.now().toString();
+        try (Writer writer = Files.newBufferedWriter(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (header) {
+                writer.write("label,timestamp,operation,requests,throughput,p50_ms,p99_ms,p999_ms,max_ms,client_errors,server_errors,failures\n");
+            }
+            for (LatencyRecorder.Summary summary : summaries) {
+                writer.write(String.format(Locale.ROOT, "%s,%s,\"%s\",%d,%.1f,%.3f,%.3f,%.3f,%.3f,%d,%d,%d%n",
+                        scenario.label(), timestamp, summary.operation(), summary.requests(), summary.throughput(),
+                        millis(summary.p50()), millis(summary.p99()), millis(summary.p999()), millis(summary.max()),
+                        summary.clientErrors(), summary.serverErrors(), summary.failures()));
+            }
+        }
+    }
+
+    private static String abbreviate(String operation, int length) {
+        return operation.length() <= length ? operation : operation.substring(0, length - 3) + "...";
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+}
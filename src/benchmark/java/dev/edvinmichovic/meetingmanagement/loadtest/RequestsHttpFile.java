@@ -0,0 +1,103 @@
+package dev.edvinmichovic.meetingmanagement.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RequestsHttpFile parses the requests of an .http file (the format of Requests.http), so the documented
+ * flows can be replayed as a part of the load test. Requests are separated by "###" lines (the rest of the line
+ * is the title of the request), followed by the request line, the headers, an empty line and the body.
+ * The scheme and the host of the requests are replaced with the target of the load test.
+ */
+final class RequestsHttpFile {
+
+    /**
+     * One request of the file.
+     *
+     * @param title   - the title of the request (the text after "###").
+     * @param method  - the HTTP method.
+     * @param uri     - the URI of the request, rebased to the target.
+     * @param headers - the headers of the request.
+     * @param body    - the body of the request, empty if there is none.
+     */
+    record Step(String title, String method, URI uri, Map<String, String> headers, String body) {
+
+        HttpRequest toRequest() {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                    .method(method, body.isEmpty() ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+            headers.forEach(builder::header);
+            return builder.build();
+        }
+    }
+
+    private RequestsHttpFile() {
+    }
+
+    /**
+     * Method reads the requests of the file in the order of the file.
+     *
+     * @param file   - the .http file.
+     * @param target - the base URL the requests are sent to.
+     */
+    static List<Step> read(Path file, URI target) throws IOException {
+        List<Step> steps = new ArrayList<>();
+        List<String> block = new ArrayList<>();
+        String title = null;
+        for (String line : Files.readAllLines(file)) {
+            if (line.startsWith("###")) {
+                if (title != null) {
+                    parse(title, block, target, steps);
+                }
+                title = line.substring(3).trim();
+                block.clear();
+            } else {
+                block.add(line);
+            }
+        }
+        if (title != null) {
+            parse(title, block, target, steps);
+        }
+        return steps;
+    }
+
+    private static void parse(String title, List<String> block, URI target, List<Step> steps) {
+        int line = 0;
+        while (line < block.size() && block.get(line).isBlank()) {
+            line++;
+        }
+        if (line == block.size()) {
+            return;
+        }
+        String requestLine = block.get(line++).trim();
+        int separator = requestLine.indexOf(' ');
+        String method = requestLine.substring(0, separator);
+        String url = requestLine.substring(separator + 1).trim();
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        while (line < block.size() && !block.get(line).isBlank()) {
+            String header = block.get(line++);
+            int colon = header.indexOf(':');
+            headers.put(header.substring(0, colon).trim(), header.substring(colon + 1).trim());
+        }
+        String body = String.join("\n", block.subList(line, block.size())).trim();
+        steps.add(new Step(title, method, rebase(url, target), headers, body));
+    }
+
+    /**
+     * Method replaces the scheme and the host of the URL with the target, and encodes the spaces of the path and the query
+     * (the .http files contain them as they are, e.g. "/meetings/My third meeting").
+     */
+    private static URI rebase(String url, URI target) {
+        URI uri = URI.create(url.replace(" ", "%20"));
+        String pathAndQuery = uri.getRawPath() + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery());
+        return target.resolve(pathAndQuery);
+    }
+
+}
@@ -0,0 +1,96 @@
+package dev.edvinmichovic.meetingmanagement.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Scenario is the configuration of the load test, read from a .properties file
+ * (see src/benchmark/resources/loadtest/*.properties). Every property can be overridden
+ * on the command line as key=value.
+ *
+ * @param target          - base URL of the running application, e.g. http://localhost:8080.
+ * @param clients         - number of concurrent clients.
+ * @param rate            - total requests per second spread over the clients, 0 means every client sends
+ *                        the next request as soon as it gets the response (closed loop).
+ * @param warmup          - duration of the warm-up, not included in the report.
+ * @param duration        - duration of the measurement.
+ * @param meetings        - number of generated meetings created before the test.
+ * @param maxParticipants - maximal number of participants of a generated meeting.
+ * @param seed            - seed of the generated dataset and of the operations' choice.
+ * @param mix             - weights of the operations (findAll, findByName, create, addParticipant,
+ *                        removeParticipant, delete, replay).
+ * @param requestsFile    - the .http file replayed by the replay operation.
+ * @param cleanup         - whether the dataset and the created meetings are deleted after the test.
+ * @param reportFile      - CSV file the report is written to (appended), or null.
+ * @param label           - label of the run in the CSV report, e.g. the release.
+ */
+record Scenario(URI target,
+                int clients,
+                int rate,
+                Duration warmup,
+                Duration duration,
+                int meetings,
+                int maxParticipants,
+                long seed,
+                Map<String, Integer> mix,
+                Path requestsFile,
+                boolean cleanup,
+                Path reportFile,
+                String label) {
+
+    static final String[] OPERATIONS = {"findAll", "findByName", "create", "addParticipant", "removeParticipant", "delete", "replay"};
+
+    /**
+     * Method reads the scenario from the file, applying the key=value overrides.
+     *
+     * @param file      - the .properties file of the scenario.
+     * @param overrides - the key=value overrides.
+     */
+    static Scenario load(Path file, String... overrides) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            properties.load(inputStream);
+        }
+        for (String override : overrides) {
+            int separator = override.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Override should be in the key=value format: " + override);
+            }
+            properties.setProperty(override.substring(0, separator).trim(), override.substring(separator + 1).trim());
+        }
+
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String operation : OPERATIONS) {
+            int weight = Integer.parseInt(properties.getProperty("mix." + operation, "0"));
+            if (weight > 0) {
+                mix.put(operation, weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Scenario should have at least one mix.<operation> weight.");
+        }
+
+        String reportFile = properties.getProperty("report.file", "");
+        return new Scenario(URI.create(properties.getProperty("target", "http://localhost:8080")),
+                Integer.parseInt(properties.getProperty("clients", "16")),
+                Integer.parseInt(properties.getProperty("rate", "0")),
+                Duration.ofSeconds(Long.parseLong(properties.getProperty("warmup.seconds", "10"))),
+                Duration.ofSeconds(Long.parseLong(properties.getProperty("duration.seconds", "60"))),
+                Integer.parseInt(properties.getProperty("dataset.meetings", "1000")),
+                Integer.parseInt(properties.getProperty("dataset.max-participants", "20")),
+                Long.parseLong(properties.getProperty("seed", "42")),
+                mix,
+                Path.of(properties.getProperty("requests.file", "Requests.http")),
+                Boolean.parseBoolean(properties.getProperty("cleanup", "true")),
+                reportFile.isBlank() ? null : Path.of(reportFile),
+                properties.getProperty("report.label", "local"));
+    }
+
+}
@@ -0,0 +1,217 @@
+package dev.edvinmichovic.meetingmanagement.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import dev.edvinmichovic.meetingmanagement.benchmark.MeetingDataset;
+import dev.edvinmichovic.meetingmanagement.dto.MeetingDTO;
+
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Workload generates the requests of the load test: the dataset of meetings created before the test,
+ * and the mixed operations sent by the clients, chosen randomly by the weights of the scenario.
+ * Generated meetings are named "Load test Meeting NNNNNNN", so they do not clash with the existing meetings.
+ * Every client has its own Client state - meetings it created and participants it added are removed by the same client,
+ * so the dataset stays about the same size during the test.
+ */
+final class Workload {
+
+    private static final String NAME_PREFIX = "Load test ";
+    private static final String[] CATEGORIES = {"CodeMonkey", "Hub", "Short", "TeamBuilding"};
+    private static final String[] TYPES = {"Live", "InPerson"};
+    private static final String[] TOPICS = {"java", "spring", "planning", "retrospective", "architecture", "hiring", "budget"};
+
+    /**
+     * One HTTP call of an operation, the operation names the latencies in the report.
+     */
+    record Call(String operation, HttpRequest request) {
+    }
+
+    private final Scenario scenario;
+    private final List<MeetingDTO> dataset;
+    private final List<RequestsHttpFile.Step> replay;
+    private final String[] operations;
+    private final int[] cumulativeWeights;
+    private final LocalDateTime firstStart;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    Workload(Scenario scenario, List<RequestsHttpFile.Step> replay) {
+        this.scenario = scenario;
+        this.replay = replay;
+        this.firstStart = LocalDateTime.now().plusDays(1).withSecond(0).withNano(0);
+        this.dataset = MeetingDataset.meetings(scenario.meetings(), scenario.maxParticipants(), scenario.seed(), firstStart).stream()
+                .map(meeting -> rename(meeting, NAME_PREFIX + meeting.name()))
+                .toList();
+        this.operations = scenario.mix().keySet().toArray(String[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += scenario.mix().get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    /**
+     * Method returns the requests creating the generated dataset.
+     */
+    List<HttpRequest> datasetRequests() {
+        return dataset.stream().map(this::create).toList();
+    }
+
+    /**
+     * Method returns the requests deleting the generated dataset, and the meetings created by the clients,
+     * so the meetings persisted by the application at its shutdown are left as they were before the test.
+     */
+    List<HttpRequest> cleanupRequests(List<Client> clients) {
+        List<HttpRequest> requests = new ArrayList<>(dataset.stream().map(Workload.this::delete).toList());
+        clients.forEach(client -> client.createdMeetings.forEach(meeting -> requests.add(delete(meeting))));
+        return requests;
+    }
+
+    /**
+     * State of one client.
+     */
+    final class Client {
+
+        private final int id;
+        private final Random random;
+        private final Deque<MeetingDTO> createdMeetings = new ArrayDeque<>();
+        private final Deque<String[]> addedParticipants = new ArrayDeque<>();
+        private long sequence;
+
+        Client(int id) {
+            this.id = id;
+            this.random = new Random(scenario.seed() + id);
+        }
+
+        /**
+         * Method chooses the next operation, and returns its calls (one, or all steps of the replayed file).
+         */
+        List<Call> next() {
+            int choice = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            int index = 0;
+            while (cumulativeWeights[index] <= choice) {
+                index++;
+            }
+            return switch (operations[index]) {
+                case "findAll" -> List.of(new Call("findAll", findAll()));
+                case "findByName" -> List.of(new Call("findByName", get(path(randomMeeting()))));
+                case "create" -> List.of(new Call("create", createNew()));
+                case "addParticipant" -> List.of(new Call("addParticipant", addParticipant()));
+                case "removeParticipant" -> List.of(new Call("removeParticipant", removeParticipant()));
+                case "delete" -> createdMeetings.isEmpty()
+                        ? List.of(new Call("create", createNew()))
+                        : List.of(new Call("delete", delete(createdMeetings.poll())));
+                case "replay" -> replay.stream().map(step -> new Call("replay: " + step.title(), step.toRequest())).toList();
+                default -> throw new IllegalStateException("Unknown operation " + operations[index]);
+            };
+        }
+
+        private HttpRequest findAll() {
+            StringJoiner query = new StringJoiner("&");
+            if (random.nextInt(3) == 0) {
+                query.add("description=" + TOPICS[random.nextInt(TOPICS.length)]);
+            }
+            if (random.nextInt(3) == 0) {
+                query.add("responsiblePerson=" + encode(MeetingDataset.person(random.nextInt(MeetingDataset.PEOPLE))));
+            }
+            if (random.nextInt(3) == 0) {
+                query.add("category=" + CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            }
+            if (random.nextInt(3) == 0) {
+                query.add("type=" + TYPES[random.nextInt(TYPES.length)]);
+            }
+            if (random.nextInt(3) == 0) {
+                LocalDate from = firstStart.toLocalDate().plusDays(random.nextInt(2 * 365));
+                query.add("startDate=" + from);
+                query.add("endDate=" + from.plusDays(1 + random.nextInt(30)));
+            }
+            if (random.nextInt(3) == 0) {
+                query.add("minAttendees=" + random.nextInt(scenario.maxParticipants() + 1));
+            }
+            return get(query.length() == 0 ? "" : "?" + query);
+        }
+
+        private HttpRequest createNew() {
+            MeetingDTO template = dataset.isEmpty()
+                    ? MeetingDataset.meetings(1, 0, sequence, firstStart).get(0)
+                    : dataset.get(random.nextInt(dataset.size()));
+            MeetingDTO meeting = rename(template, NAME_PREFIX + "client " + id + " meeting " + sequence++);
+            createdMeetings.add(meeting);
+            return create(meeting);
+        }
+
+        private HttpRequest addParticipant() {
+            String meeting = randomMeeting();
+            String guest = "Guest " + id + "-" + sequence++;
+            addedParticipants.add(new String[]{meeting, guest});
+            return json(path(meeting) + "/addParticipant", "PUT", List.of(guest));
+        }
+
+        private HttpRequest removeParticipant() {
+            String[] added = addedParticipants.poll();
+            if (added == null) {
+                added = new String[]{randomMeeting(), "Guest " + id + "-none"};
+            }
+            return json(path(added[0]) + "/removeParticipant", "DELETE", List.of(added[1]));
+        }
+
+        private String randomMeeting() {
+            return dataset.isEmpty() ? NAME_PREFIX + "missing" : dataset.get(random.nextInt(dataset.size())).name();
+        }
+    }
+
+    private HttpRequest create(MeetingDTO meeting) {
+        return json("", "POST", meeting);
+    }
+
+    private HttpRequest delete(MeetingDTO meeting) {
+        return HttpRequest.newBuilder(uri(path(meeting.name()) + "?responsiblePerson=" + encode(meeting.responsiblePerson())))
+                .DELETE()
+                .build();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private HttpRequest json(String path, String method, Object body) {
+        try {
+            return HttpRequest.newBuilder(uri(path))
+                    .header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private URI uri(String path) {
+        return scenario.target().resolve("/meetings" + path);
+    }
+
+    private static String path(String name) {
+        return "/" + encode(name).replace("+", "%20");
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static MeetingDTO rename(MeetingDTO meeting, String name) {
+        return new MeetingDTO(name, meeting.responsiblePerson(), meeting.description(), meeting.meetingCategory(), meeting.meetingType(),
+                meeting.startDate(), meeting.endDate(), meeting.participants());
+    }
+
+}
@@ -0,0 +1,29 @@
+package dev.edvinmichovic.meetingmanagement.config;
+
+import dev.edvinmichovic.meetingmanagement.controller.AdmissionControl;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Opt-in admission control (meetings.admission.enabled=true).
+ * The requests of the meetings' end-points are admitted within the budgets of the reads and the writes (see AdmissionControl).
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "meetings.admission", name = "enabled", havingValue = "true")
+public class AdmissionConfiguration implements WebMvcConfigurer {
+
+    private final AdmissionControl admissionControl;
+
+    public AdmissionConfiguration(MeetingProperties properties, MeterRegistry meterRegistry) {
+        this.admissionControl = new AdmissionControl(properties, meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(admissionControl).addPathPatterns("/meetings", "/meetings/**");
+    }
+
+}
@@ -0,0 +1,560 @@
+package dev.edvinmichovic.meetingmanagement.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * MeetingProperties holds the configuration of the meetings' store (application.properties, prefix "meetings").
+ * Default values are used when the store is created without Spring, e.g. in tests and benchmarks.
+ */
+@ConfigurationProperties(prefix = "meetings")
+public class MeetingProperties {
+
+    private final Store store = new Store();
+    private final Scan scan = new Scan();
+    private final Writer writer = new Writer();
+    private final VirtualThreads virtualThreads = new VirtualThreads();
+    private final Feed feed = new Feed();
+    private final Watch watch = new Watch();
+    private final Replication replication = new Replication();
+    private final Archive archive = new Archive();
+    private final Admission admission = new Admission();
+    private final Load load = new Load();
+
+    public Store getStore() {
+        return store;
+    }
+
+    public Scan getScan() {
+        return scan;
+    }
+
+    public Writer getWriter() {
+        return writer;
+    }
+
+    public VirtualThreads getVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public Feed getFeed() {
+        return feed;
+    }
+
+    public Watch getWatch() {
+        return watch;
+    }
+
+    public Replication getReplication() {
+        return replication;
+    }
+
+    public Archive getArchive() {
+        return archive;
+    }
+
+    public Admission getAdmission() {
+        return admission;
+    }
+
+    public Load getLoad() {
+        return load;
+    }
+
+    /**
+     * Configuration of the partitioning of the store.
+     */
+    public static class Store {
+
+        /**
+         * Number of shards the meetings are partitioned into by their names. Every shard has its own writer.
+         */
+        private int shards = 1;
+
+        public int getShards() {
+            return shards;
+        }
+
+        public void setShards(int shards) {
+            this.shards = shards;
+        }
+    }
+
+    /**
+     * Configuration of the findAll scans.
+     */
+    public static class Scan {
+
+        /**
+         * Minimal number of meetings, from which the scan is split into chunks and executed in parallel.
+         */
+        private int parallelThreshold = 50_000;
+
+        /**
+         * Number of threads of the dedicated scan pool. 0 means the number of available processors.
+         */
+        private int parallelism = 0;
+
+        public int getParallelThreshold() {
+            return parallelThreshold;
+        }
+
+        public void setParallelThreshold(int parallelThreshold) {
+            this.parallelThreshold = parallelThreshold;
+        }
+
+        public int getParallelism() {
+            return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+
+    /**
+     * Configuration of the single writer of the store.
+     */
+    public static class Writer {
+
+        /**
+         * Maximal number of queued mutations applied and published as one snapshot.
+         */
+        private int maxBatchSize = 1_000;
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+    }
+
+    /**
+     * Configuration of the virtual-thread mode (see VirtualThreadsConfiguration).
+     */
+    public static class VirtualThreads {
+
+        /**
+         * Whether the requests and the store's writer are executed on virtual threads.
+         */
+        private boolean enabled = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * Configuration of the change feed (GET /meetings/changes).
+     */
+    public static class Feed {
+
+        /**
+         * Number of the recent events kept in memory, a subscriber can resume from any of them.
+         */
+        private int bufferSize = 10_000;
+
+        /**
+         * What happens to a subscriber that falls behind by more than the buffer: it is sent a "gap" event and either
+         * continues from the oldest event kept (SKIP), or is disconnected (DISCONNECT).
+         */
+        private SlowConsumerPolicy slowConsumerPolicy = SlowConsumerPolicy.SKIP;
+
+        /**
+         * Maximal number of concurrent subscribers, further subscriptions are rejected with 503.
+         */
+        private int maxSubscribers = 10_000;
+
+        /**
+         * Interval of the heartbeat comments sent to an idle subscriber, detecting the closed connections.
+         */
+        private Duration heartbeat = Duration.ofSeconds(15);
+
+        /**
+         * Time after which the subscription is closed, and the client reconnects with the Last-Event-ID (0 - never).
+         */
+        private Duration timeout = Duration.ofMinutes(30);
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public SlowConsumerPolicy getSlowConsumerPolicy() {
+            return slowConsumerPolicy;
+        }
+
+        public void setSlowConsumerPolicy(SlowConsumerPolicy slowConsumerPolicy) {
+            this.slowConsumerPolicy = slowConsumerPolicy;
+        }
+
+        public int getMaxSubscribers() {
+            return maxSubscribers;
+        }
+
+        public void setMaxSubscribers(int maxSubscribers) {
+            this.maxSubscribers = maxSubscribers;
+        }
+
+        public Duration getHeartbeat() {
+            return heartbeat;
+        }
+
+        public void setHeartbeat(Duration heartbeat) {
+            this.heartbeat = heartbeat;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public enum SlowConsumerPolicy {
+            SKIP,
+            DISCONNECT
+        }
+    }
+
+    /**
+     * Configuration of the long-poll watches of single meetings (GET /meetings/{name}/watch).
+     */
+    public static class Watch {
+
+        /**
+         * Time the watch waits for a change, if the request does not give the timeout.
+         */
+        private Duration defaultTimeout = Duration.ofSeconds(30);
+
+        /**
+         * Maximal time the watch waits for a change.
+         */
+        private Duration maxTimeout = Duration.ofMinutes(5);
+
+        public Duration getDefaultTimeout() {
+            return defaultTimeout;
+        }
+
+        public void setDefaultTimeout(Duration defaultTimeout) {
+            this.defaultTimeout = defaultTimeout;
+        }
+
+        public Duration getMaxTimeout() {
+            return maxTimeout;
+        }
+
+        public void setMaxTimeout(Duration maxTimeout) {
+            this.maxTimeout = maxTimeout;
+        }
+    }
+
+    /**
+     * Configuration of the replication through the change log file (see ChangeLogWriter and ChangeLogReplica).
+     */
+    public static class Replication {
+
+        /**
+         * PRIMARY accepts the changes and, if the log is set, writes them to the change log.
+         * REPLICA loads the meetings from the change log of the primary, follows it, and serves only the reads.
+         */
+        private Role role = Role.PRIMARY;
+
+        /**
+         * Path of the change log file, shared by the primary and its replicas. Empty - the primary does not write the log.
+         */
+        private String log = "";
+
+        /**
+         * Interval in which the replica checks the change log for the new changes.
+         */
+        private Duration pollInterval = Duration.ofMillis(200);
+
+        /**
+         * Size from which the primary compacts the change log into the current meetings.
+         */
+        private DataSize maxLogSize = DataSize.ofMegabytes(64);
+
+        public Role getRole() {
+            return role;
+        }
+
+        public void setRole(Role role) {
+            this.role = role;
+        }
+
+        public String getLog() {
+            return log;
+        }
+
+        public void setLog(String log) {
+            this.log = log;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public DataSize getMaxLogSize() {
+            return maxLogSize;
+        }
+
+        public void setMaxLogSize(DataSize maxLogSize) {
+            this.maxLogSize = maxLogSize;
+        }
+
+        public enum Role {
+            PRIMARY,
+            REPLICA
+        }
+    }
+
+    /**
+     * Configuration of the archive of the finished meetings (see MeetingArchive).
+     */
+    public static class Archive {
+
+        /**
+         * Opt-in: the primary moves the finished meetings into the archive, and the queries reaching into history read it.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Directory of the archive's segments. A replica pointed at the primary's directory reads the same history.
+         */
+        private String directory = "archive";
+
+        /**
+         * Time from the end of the meeting after which the meeting is archived.
+         */
+        private Duration age = Duration.ofDays(30);
+
+        /**
+         * Interval in which the primary looks for the meetings to archive.
+         */
+        private Duration interval = Duration.ofHours(1);
+
+        /**
+         * Maximal number of meetings of one segment.
+         */
+        private int segmentSize = 10000;
+
+        /**
+         * Number of the segments kept loaded in memory after a query has read them.
+         */
+        private int cachedSegments = 4;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public Duration getAge() {
+            return age;
+        }
+
+        public void setAge(Duration age) {
+            this.age = age;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+
+        public int getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(int segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+        public int getCachedSegments() {
+            return cachedSegments;
+        }
+
+        public void setCachedSegments(int cachedSegments) {
+            this.cachedSegments = cachedSegments;
+        }
+    }
+
+    /**
+     * Configuration of the admission control of the requests (see AdmissionControl).
+     * The reads (GET) and the writes (the other methods) have separate budgets, so a burst of writes cannot take the capacity of the reads.
+     */
+    public static class Admission {
+
+        /**
+         * Opt-in: the requests of /meetings are admitted within the budgets of the reads and the writes.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Budget of the reads (GET requests).
+         */
+        private final Budget reads = new Budget(64, 1000, Duration.ofSeconds(1));
+
+        /**
+         * Budget of the writes (POST, PUT and DELETE requests).
+         */
+        private final Budget writes = new Budget(8, 100, Duration.ofMillis(500));
+
+        /**
+         * Time after which the rejected client is asked to retry (Retry-After header).
+         */
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Budget getReads() {
+            return reads;
+        }
+
+        public Budget getWrites() {
+            return writes;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+
+        public static class Budget {
+
+            /**
+             * Maximal number of the requests handled at once.
+             */
+            private int maxConcurrent;
+
+            /**
+             * Maximal number of the requests waiting for their turn. Over it, the requests are rejected at once with 429.
+             * The requests are queued only in the virtual-thread mode, otherwise the queue is not used (see AdmissionControl).
+             */
+            private int maxQueue;
+
+            /**
+             * Maximal time a request waits for its turn, then it is rejected with 503.
+             */
+            private Duration maxWait;
+
+            public Budget(int maxConcurrent, int maxQueue, Duration maxWait) {
+                this.maxConcurrent = maxConcurrent;
+                this.maxQueue = maxQueue;
+                this.maxWait = maxWait;
+            }
+
+            public int getMaxConcurrent() {
+                return maxConcurrent;
+            }
+
+            public void setMaxConcurrent(int maxConcurrent) {
+                this.maxConcurrent = maxConcurrent;
+            }
+
+            public int getMaxQueue() {
+                return maxQueue;
+            }
+
+            public void setMaxQueue(int maxQueue) {
+                this.maxQueue = maxQueue;
+            }
+
+            public Duration getMaxWait() {
+                return maxWait;
+            }
+
+            public void setMaxWait(Duration maxWait) {
+                this.maxWait = maxWait;
+            }
+        }
+    }
+
+    /**
+     * Configuration of the loading of the meetings from the JSON file as the application starts.
+     */
+    public static class Load {
+
+        /**
+         * Opt-in: the application starts at once, and the meetings are loaded in the background.
+         * Until they are loaded, the reads are answered with 503 and the readiness is down, the writes wait for the end of the load.
+         */
+        private boolean async = false;
+
+        /**
+         * Number of the meetings parsed and saved at once (loading meetings.json, and POST /meetings/import),
+         * so the data is never held in memory as a whole. Every batch publishes one snapshot of the store,
+         * which copies the meetings of the shard, so the larger batches load faster.
+         */
+        private int batchSize = 10000;
+
+        /**
+         * Maximal time a write waits for the end of the load, then it is rejected with 503.
+         */
+        private Duration maxWriteWait = Duration.ofSeconds(30);
+
+        public boolean isAsync() {
+            return async;
+        }
+
+        public void setAsync(boolean async) {
+            this.async = async;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getMaxWriteWait() {
+            return maxWriteWait;
+        }
+
+        public void setMaxWriteWait(Duration maxWriteWait) {
+            this.maxWriteWait = maxWriteWait;
+        }
+    }
+
+}
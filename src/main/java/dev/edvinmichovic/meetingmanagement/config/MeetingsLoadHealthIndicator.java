@@ -0,0 +1,38 @@
+package dev.edvinmichovic.meetingmanagement.config;
+
+import dev.edvinmichovic.meetingmanagement.repository.MeetingRepository;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Health of the loading of the meetings (see meetings.load.*), part of the readiness group (/actuator/health/readiness).
+ * While the meetings are loaded in the background, the instance is OUT_OF_SERVICE, so a load balancer does not route
+ * the traffic to it yet - the details report the meetings loaded so far. If the loading failed, the instance is DOWN:
+ * it holds only a part of the meetings (refuses the changes, and does not save them on shutdown), so it should not serve
+ * until the meetings are reloaded (POST /meetings/reload) or it is restarted.
+ */
+@Component("meetingsLoad")
+public class MeetingsLoadHealthIndicator implements HealthIndicator {
+
+    private final MeetingRepository meetingRepository;
+
+    public MeetingsLoadHealthIndicator(MeetingRepository meetingRepository) {
+        this.meetingRepository = meetingRepository;
+    }
+
+    @Override
+    public Health health() {
+        MeetingRepository.LoadStatus status = meetingRepository.loadStatus();
+        Health.Builder health = switch (status.state()) {
+            case LOADING -> Health.outOfService();
+            case FAILED -> Health.down();
+            case LOADED -> Health.up();
+        };
+        return health.withDetail("state", status.state())
+                .withDetail("meetings", status.meetings())
+                .withDetail("elapsed", status.elapsed().toString())
+                .build();
+    }
+
+}
@@ -0,0 +1,172 @@
+package dev.edvinmichovic.meetingmanagement.controller;
+
+import dev.edvinmichovic.meetingmanagement.config.MeetingProperties;
+import dev.edvinmichovic.meetingmanagement.exceptions.RetryLaterException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AdmissionControl admits the requests of MeetingController within the budgets of the reads (GET, HEAD) and of the writes
+ * (the other methods), see meetings.admission.*. Every budget allows a number of requests handled at once; the following
+ * requests wait for their turn in a bounded queue, for a bounded time. A request that finds the queue full is rejected at once
+ * with 429 Too Many Requests, and a request that has waited too long with 503 Service Unavailable - both with the Retry-After
+ * header. So a burst of writes queues (and is rejected) within its own budget, and the reads keep their capacity.
+ * An asynchronous request (e.g. the change feed, a watch) gives its turn back when its handling goes asynchronous,
+ * so the waiting for the changes does not take the budget.
+ * A queued request blocks the thread handling it, so the requests are queued only in the virtual-thread mode
+ * (meetings.virtual-threads.enabled) - otherwise the waiting requests would hold the threads of the Tomcat pool, and the
+ * pool, not the budgets, would limit the requests. Without the virtual threads, the requests over the budget are rejected at once.
+ * The turns are given in the order of the requests - a new request does not take the turn of the queued ones.
+ */
+public class AdmissionControl implements AsyncHandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControl.class);
+
+    private static final String ADMITTED = AdmissionControl.class.getName() + ".admitted";
+
+    private final Lane reads;
+    private final Lane writes;
+    private final Duration retryAfter;
+
+    public AdmissionControl(MeetingProperties properties, MeterRegistry meterRegistry) {
+        MeetingProperties.Admission admission = properties.getAdmission();
+        boolean queueing = properties.getVirtualThreads().isEnabled();
+        if (!queueing && (admission.getReads().getMaxQueue() > 0 || admission.getWrites().getMaxQueue() > 0)) {
+            log.warn("The requests over the admission budgets are rejected at once, their queues require meetings.virtual-threads.enabled=true");
+        }
+        this.reads = new Lane("read", admission.getReads(), queueing, meterRegistry);
+        this.writes = new Lane("write", admission.getWrites(), queueing, meterRegistry);
+        this.retryAfter = admission.getRetryAfter();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // the dispatch completing an asynchronous request was already admitted
+        if (request.getDispatcherType() != DispatcherType.REQUEST || request.getAttribute(ADMITTED) != null) {
+            return true;
+        }
+        Lane lane = isRead(request) ? reads : writes;
+        lane.acquire(retryAfter);
+        request.setAttribute(ADMITTED, lane);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        release(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        release(request);
+    }
+
+    private static void release(HttpServletRequest request) {
+        if (request.getAttribute(ADMITTED) instanceof Lane lane) {
+            // the attribute is kept with another value, so the asynchronous dispatch is not admitted again
+            request.setAttribute(ADMITTED, Boolean.TRUE);
+            lane.release();
+        }
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        return HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+    }
+
+    /**
+     * Budget of the reads or of the writes.
+     */
+    private static final class Lane {
+
+        private final String kind;
+        private final Semaphore permits;
+        private final int maxConcurrent;
+        private final int maxQueue;
+        private final Duration maxWait;
+        private final AtomicInteger queued = new AtomicInteger();
+        private final Counter queueFull;
+        private final Counter timedOut;
+        private final Timer waits;
+
+        private Lane(String kind, MeetingProperties.Admission.Budget budget, boolean queueing, MeterRegistry registry) {
+            this.kind = kind;
+            this.maxConcurrent = budget.getMaxConcurrent();
+            this.maxQueue = queueing ? budget.getMaxQueue() : 0;
+            this.maxWait = budget.getMaxWait();
+            this.permits = new Semaphore(maxConcurrent, true);
+            Gauge.builder("meetings.admission.active", this, lane -> lane.maxConcurrent - lane.permits.availablePermits())
+                    .description("Requests handled within the budget")
+                    .tag("kind", kind)
+                    .register(registry);
+            Gauge.builder("meetings.admission.queued", queued, AtomicInteger::get)
+                    .description("Requests waiting for their turn")
+                    .tag("kind", kind)
+                    .register(registry);
+            this.queueFull = rejections(registry, kind, "queue_full");
+            this.timedOut = rejections(registry, kind, "timeout");
+            this.waits = Timer.builder("meetings.admission.wait")
+                    .description("Time the admitted requests waited for their turn")
+                    .tag("kind", kind)
+                    .register(registry);
+        }
+
+        private static Counter rejections(MeterRegistry registry, String kind, String reason) {
+            return Counter.builder("meetings.admission.rejected")
+                    .description("Requests rejected by the admission control")
+                    .tag("kind", kind)
+                    .tag("reason", reason)
+                    .register(registry);
+        }
+
+        private void acquire(Duration retryAfter) {
+            try {
+                // unlike tryAcquire(), the timed one honours the fairness - a free permit is not taken before the queued requests
+                if (permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RetryLaterException(HttpStatus.SERVICE_UNAVAILABLE, "The request was interrupted while waiting for its turn.", retryAfter);
+            }
+            if (queued.incrementAndGet() > maxQueue) {
+                queued.decrementAndGet();
+                queueFull.increment();
+                throw new RetryLaterException(HttpStatus.TOO_MANY_REQUESTS, "Too many " + kind + "s at the moment, please retry later.", retryAfter);
+            }
+            long start = System.nanoTime();
+            try {
+                if (!permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                    timedOut.increment();
+                    throw new RetryLaterException(HttpStatus.SERVICE_UNAVAILABLE, "The service is overloaded by " + kind + "s, please retry later.",
+                            retryAfter);
+                }
+                waits.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RetryLaterException(HttpStatus.SERVICE_UNAVAILABLE, "The request was interrupted while waiting for its turn.", retryAfter);
+            } finally {
+                queued.decrementAndGet();
+            }
+        }
+
+        private void release() {
+            permits.release();
+        }
+    }
+
+}
@@ -0,0 +1,168 @@
+package dev.edvinmichovic.meetingmanagement.controller;
+
+import dev.edvinmichovic.meetingmanagement.config.MeetingProperties;
+import dev.edvinmichovic.meetingmanagement.model.Meeting;
+import dev.edvinmichovic.meetingmanagement.model.MeetingEvent;
+import dev.edvinmichovic.meetingmanagement.repository.ChangeFeed;
+import dev.edvinmichovic.meetingmanagement.repository.MeetingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChangeFeedSubscriptions streams the change feed to the subscribers of GET /meetings/changes as Server-Sent Events.
+ * Every subscriber is served by its own virtual thread, which reads the events following its position from the feed,
+ * sends them (the id of the event is the feed's epoch and its sequence number), and waits for the next ones - so thousands
+ * of subscribers cost a parked virtual thread each, and nothing is queued per subscriber.
+ * A slow subscriber blocks only its own thread. If it falls behind by more than the feed's buffer, it is sent a "gap" event
+ * and, depending on meetings.feed.slow-consumer-policy, continues from the oldest event kept, or is disconnected.
+ * Either way, the subscriber has missed some changes, and should reload the meetings.
+ * A subscriber resuming after the event of another epoch (e.g. from before a restart, when the sequence numbers started again)
+ * is resynchronized instead: it is sent all meetings of the store, and then the changes following them.
+ */
+@Component
+public class ChangeFeedSubscriptions implements DisposableBean {
+
+    private static final int BATCH_SIZE = 256;
+
+    private final MeetingRepository repository;
+    private final MeetingProperties.Feed properties;
+    private final Set<Thread> subscribers = ConcurrentHashMap.newKeySet();
+    private final Counter skipped;
+    private final Counter disconnected;
+
+    public ChangeFeedSubscriptions(MeetingRepository repository, MeetingProperties properties, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.properties = properties.getFeed();
+        Gauge.builder("meetings.feed.subscribers", subscribers, Set::size)
+                .description("Subscribers of the change feed")
+                .register(meterRegistry);
+        this.skipped = Counter.builder("meetings.feed.gaps")
+                .description("Subscribers that fell behind the change feed's buffer")
+                .tag("policy", "skip")
+                .register(meterRegistry);
+        this.disconnected = Counter.builder("meetings.feed.gaps")
+                .description("Subscribers that fell behind the change feed's buffer")
+                .tag("policy", "disconnect")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Method subscribes to the events following the given event.
+     *
+     * @param after - id of the last event received by the client (see ChangeFeed.id), or null to receive only the new events.
+     * @return - returns the emitter of the events.
+     * @throws ResponseStatusException - 400 if the id is not valid, 503 if there are too many subscribers.
+     */
+    public SseEmitter subscribe(String after) {
+        if (subscribers.size() >= properties.getMaxSubscribers()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many subscribers of the change feed.");
+        }
+        ChangeFeed feed = repository.changes();
+        long sequence;
+        try {
+            sequence = after != null ? feed.sequenceOf(after) : feed.lastSequence();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        // the sequence number is read before the meetings, so the changes made meanwhile are sent again rather than missed
+        Resync resync = sequence < 0 ? new Resync(feed.lastSequence(), repository.snapshot()) : null;
+        long position = resync != null ? resync.position() : sequence;
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().isZero() ? -1L : properties.getTimeout().toMillis());
+        Thread subscriber = Thread.ofVirtual().name("meeting-feed-subscriber").unstarted(() -> stream(feed, emitter, position, resync));
+        subscribers.add(subscriber);
+        emitter.onCompletion(subscriber::interrupt);
+        emitter.onTimeout(subscriber::interrupt);
+        emitter.onError(e -> subscriber.interrupt());
+        subscriber.start();
+        return emitter;
+    }
+
+    /**
+     * Method sends the meetings of the resynchronization: the "resync" event, every meeting as a "SNAPSHOT" event,
+     * and the "resynced" event, whose id is the position the changes are streamed from.
+     */
+    private void resync(ChangeFeed feed, SseEmitter emitter, Resync resync) throws IOException {
+        emitter.send(SseEmitter.event()
+                .name("resync")
+                .data(Map.of("epoch", feed.epoch(), "lastSequence", resync.position(), "meetings", resync.meetings().size())));
+        for (Meeting meeting : resync.meetings()) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            emitter.send(SseEmitter.event().name("SNAPSHOT").data(meeting));
+        }
+        emitter.send(SseEmitter.event()
+                .id(feed.id(resync.position()))
+                .name("resynced")
+                .data(Map.of("epoch", feed.epoch(), "lastSequence", resync.position())));
+    }
+
+    private void stream(ChangeFeed feed, SseEmitter emitter, long position, Resync resync) {
+        try {
+            if (resync != null) {
+                resync(feed, emitter, resync);
+            }
+            while (!Thread.currentThread().isInterrupted()) {
+                ChangeFeed.Page page = feed.read(position, BATCH_SIZE);
+                if (page.gap()) {
+                    long oldest = page.events().isEmpty() ? page.lastSequence() + 1 : page.events().get(0).sequence();
+                    emitter.send(SseEmitter.event()
+                            .name("gap")
+                            .data(Map.of("missedFrom", position + 1, "lastSequence", page.lastSequence())));
+                    if (properties.getSlowConsumerPolicy() == MeetingProperties.Feed.SlowConsumerPolicy.DISCONNECT) {
+                        disconnected.increment();
+                        emitter.complete();
+                        return;
+                    }
+                    skipped.increment();
+                    position = oldest - 1;
+                }
+                for (MeetingEvent event : page.events()) {
+                    emitter.send(SseEmitter.event()
+                            .id(feed.id(event.sequence()))
+                            .name(event.type().name())
+                            .data(event));
+                    position = event.sequence();
+                }
+                if (page.events().isEmpty() && !page.gap()
+                        && !feed.await(position, properties.getHeartbeat().toMillis(), TimeUnit.MILLISECONDS)) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // the client has disconnected, or the emitter has completed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            subscribers.remove(Thread.currentThread());
+        }
+    }
+
+    /**
+     * Meetings of the store sent to the subscriber resuming after the event of another epoch.
+     *
+     * @param position - sequence number of the last event before the meetings were read.
+     * @param meetings - the meetings of the store.
+     */
+    private record Resync(long position, List<Meeting> meetings) {
+    }
+
+    @Override
+    public void destroy() {
+        subscribers.forEach(Thread::interrupt);
+    }
+
+}
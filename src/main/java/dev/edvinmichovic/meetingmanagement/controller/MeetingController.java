@@ -2,19 +2,33 @@ package dev.edvinmichovic.meetingmanagement.controller;
 
 import dev.edvinmichovic.meetingmanagement.dto.MeetingDTO;
 import dev.edvinmichovic.meetingmanagement.model.Meeting;
+import dev.edvinmichovic.meetingmanagement.model.MeetingStatistics;
 import dev.edvinmichovic.meetingmanagement.repository.MeetingRepository;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Pattern;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
 
 @RestController
 @RequestMapping("/meetings")
@@ -22,9 +36,14 @@ import java.util.List;
 public class MeetingController {
 
     private final MeetingRepository repository;
+    private final ChangeFeedSubscriptions changeFeedSubscriptions;
+    private final MeetingWatches meetingWatches;
 
-    public MeetingController(MeetingRepository repository) {
+    public MeetingController(MeetingRepository repository, ChangeFeedSubscriptions changeFeedSubscriptions,
+                             MeetingWatches meetingWatches) {
         this.repository = repository;
+        this.changeFeedSubscriptions = changeFeedSubscriptions;
+        this.meetingWatches = meetingWatches;
     }
 
     /**
@@ -55,16 +74,112 @@ public class MeetingController {
         return repository.findAll(description, responsiblePerson, category, type, startDate, endDate, minAttendees);
     }
 
+    /**
+     * GET http://localhost:8080/meetings/stats
+     * Endpoint returns the aggregate statistics of the meetings:
+     * number of meetings per category, per type and per month of the start date, and the average number of attendees.
+     * The statistics are maintained as the meetings change, so the request does not go through the meetings' list.
+     */
+    @GetMapping("/stats")
+    public MeetingStatistics statistics() {
+        return repository.statistics();
+    }
+
+    /**
+     * GET http://localhost:8080/meetings/names?prefix={prefix}&limit={limit}
+     * Endpoint completes the name of the meeting: returns at most limit (by default 10) names starting with the prefix,
+     * ignoring the case, in alphabetical order. The names are looked up in the prefix index of the names,
+     * so the time of the request does not depend on the number of the meetings.
+     */
+    @GetMapping("/names")
+    public List<String> completeNames(@RequestParam(defaultValue = "") String prefix,
+                                      @Min(value = 1, message = "Limit of the names should be at least 1.")
+                                      @Max(value = 100, message = "Limit of the names should be at most 100.")
+                                      @RequestParam(defaultValue = "10") int limit) {
+        return repository.completeNames(prefix, limit);
+    }
+
+    /**
+     * GET http://localhost:8080/meetings/export?format={json|ndjson}
+     * Endpoint exports all meetings of the latest snapshot of the store, followed by the archived meetings (if the archive is enabled),
+     * as the JSON array (by default, the format of meetings.json),
+     * or as one meeting per line (ndjson). The meetings are written to the response as they are serialized, in chunks,
+     * and compressed with gzip if the client accepts it (Accept-Encoding: gzip). The snapshot never changes,
+     * so the export is consistent, and the changes of the meetings go on meanwhile.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "json")
+                                                        @Pattern(regexp = "^(json|ndjson)$",
+                                                                message = "For the export format only json or ndjson values are accepted.")
+                                                        String format,
+                                                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Iterable<Meeting> meetings = repository.exportSnapshot();
+        boolean ndjson = format.equals("ndjson");
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"meetings." + format + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(outputStream -> {
+            if (gzip) {
+                try (GZIPOutputStream compressed = new GZIPOutputStream(outputStream, 64 * 1024)) {
+                    repository.export(meetings, compressed, ndjson);
+                }
+            } else {
+                repository.export(meetings, outputStream, ndjson);
+            }
+        });
+    }
+
+    /**
+     * GET http://localhost:8080/meetings/changes?since={id}
+     * Endpoint streams the changes of the meetings as Server-Sent Events - one event per created, updated or deleted meeting,
+     * and per change of the participants. The id of the event is the epoch of the feed and its sequence number,
+     * the name is the type of the change.
+     * The stream resumes after the event given by the since parameter, or by the Last-Event-ID header
+     * (sent by EventSource when it reconnects). Without them, only the new changes are streamed.
+     * If the event is of another epoch (e.g. from before a restart), all meetings are sent first (see ChangeFeedSubscriptions).
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(@RequestParam(required = false) String since,
+                              @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return changeFeedSubscriptions.subscribe(since != null ? since : lastEventId);
+    }
+
     /**
      * GET http://localhost:8080/meetings/{name}
      * Endpoint allows to find the meetings by its name.
      * Of course, if the meeting exists.
      * In case if meeting is not found, the following message will be sent.
+     * The version of the meeting is returned in the ETag header.
      */
     @GetMapping("/{name}")
-    public Meeting findByName(@PathVariable String name) {
-        return repository.findByName(name)
+    public ResponseEntity<Meeting> findByName(@PathVariable String name) {
+        Meeting meeting = repository.findByName(name)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Meeting with that name was not found."));
+        return ResponseEntity.ok().eTag(String.valueOf(meeting.version())).body(meeting);
+    }
+
+    /**
+     * GET http://localhost:8080/meetings/{name}/watch?version={version}&timeout={seconds}
+     * Endpoint waits until the meeting changes from the given version (or from the If-None-Match header, the ETag of the meeting),
+     * and returns the changed meeting with its version in the ETag header. If the meeting is already of another version,
+     * it is returned at once. Without the version, the endpoint waits for the next change.
+     * If the meeting does not change within the timeout (by default 30 seconds), 304 Not Modified is returned,
+     * and if it is deleted, or does not exist, 404 is returned. The request holds no server thread while it waits.
+     */
+    @GetMapping("/{name}/watch")
+    public DeferredResult<ResponseEntity<Meeting>> watch(@PathVariable String name,
+                                                         @RequestParam(required = false) Long version,
+                                                         @Min(value = 1, message = "Timeout of the watch should be at least 1 second.")
+                                                         @RequestParam(required = false) Long timeout,
+                                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return meetingWatches.watch(name,
+                version != null ? version : version(ifNoneMatch, HttpHeaders.IF_NONE_MATCH),
+                timeout != null ? Duration.ofSeconds(timeout) : null);
     }
 
     /**
@@ -72,22 +187,62 @@ public class MeetingController {
      * In the body of the POST request such variables are necessary:
      * name, responsiblePerson, meetingCategory, meetingType, startDate.
      * startDate and endDate should be Present or Future.
+     * If the If-Match header is provided, the meeting is overwritten only if it is still of that version.
      */
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping("")
-    public void create(@Valid @RequestBody MeetingDTO meetingDTO) {
-        repository.save(meetingDTO);
+    public void create(@Valid @RequestBody MeetingDTO meetingDTO,
+                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        repository.save(meetingDTO, expectedVersion(ifMatch));
+    }
+
+    /**
+     * POST http://localhost:8080/meetings/import
+     * Endpoint imports the meetings, e.g. exported by another instance: the JSON array of the meetings (Content-Type: application/json),
+     * or one meeting per line (Content-Type: application/x-ndjson), compressed with gzip if sent with Content-Encoding: gzip.
+     * The upload is parsed as it arrives and saved in batches, so it can be of any size. The meetings are not validated
+     * as the created ones (they can be finished already), the meetings with the names already present are overwritten.
+     * Returns the number of the imported meetings and the rate of the import.
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public MeetingRepository.ImportResult importMeetings(InputStream body,
+                                                         @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding)
+            throws IOException {
+        if (contentEncoding == null || !contentEncoding.trim().equalsIgnoreCase("gzip")) {
+            return repository.importMeetings(body);
+        }
+        InputStream decompressed;
+        try {
+            decompressed = new GZIPInputStream(body, 64 * 1024);
+        } catch (ZipException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The upload is not compressed with gzip.");
+        }
+        try (decompressed) {
+            return repository.importMeetings(decompressed);
+        }
+    }
+
+    /**
+     * POST http://localhost:8080/meetings/reload
+     * Endpoint loads the meetings.json file again after its loading failed (e.g. the file was unreadable at the start),
+     * so the instance accepts the changes and is ready again without a restart. Returns the progress of the loading.
+     */
+    @PostMapping("/reload")
+    public MeetingRepository.LoadStatus reload() {
+        return repository.reload();
     }
 
     /**
      * DELETE http://localhost:8080/meetings/{name}?responsiblePerson={responsiblePerson}
      * Endpoint allows to delete the meeting.
      * The meeting will be deleted only if responsible person is specified.
+     * If the If-Match header is provided, the meeting is deleted only if it is still of that version.
      */
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @DeleteMapping("/{name}")
-    public void delete(@PathVariable String name, @RequestParam String responsiblePerson) {
-        if (!repository.delete(name, responsiblePerson)) {
+    public void delete(@PathVariable String name, @RequestParam String responsiblePerson,
+                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (!repository.delete(name, responsiblePerson, expectedVersion(ifMatch))) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Only responsible person can delete the meeting.\n" +
                     "Please make sure the responsible person is correct for this meeting.");
         }
@@ -97,13 +252,15 @@ public class MeetingController {
      * PUT http://localhost:8080/meetings/{name}/addParticipant
      * Endpoint allows to add participant(s) to the meeting.
      * The user will be warned if any user from the list is already added to the meeting.
+     * If the If-Match header is provided, participants are added only if the meeting is still of that version.
      */
     @PutMapping("/{name}/addParticipant")
-    public ResponseEntity<String> addParticipant(@PathVariable String name, @RequestBody List<String> participants) {
+    public ResponseEntity<String> addParticipant(@PathVariable String name, @RequestBody List<String> participants,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         if (participants == null || participants.isEmpty()) {
             return ResponseEntity.badRequest().body("Participants list is empty.");
         }
-        if (!repository.addParticipant(name, participants).isEmpty()) {
+        if (!repository.addParticipant(name, participants, expectedVersion(ifMatch)).isEmpty()) {
             return ResponseEntity.status(HttpStatus.CREATED).body("WARNING! " + participants +
                     " participant are already invited.\n" +
                     "Already invited participant(s) won't be added to the meeting's participants list.\n" +
@@ -116,16 +273,44 @@ public class MeetingController {
      * DELETE http://localhost:8080/meetings/{name}/removeParticipant
      * Endpoint allows to remove participant(s) from the meeting.
      * If there is a responsible person in the list, he/she won't be removed.
+     * If the If-Match header is provided, participants are removed only if the meeting is still of that version.
      */
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @DeleteMapping("/{name}/removeParticipant")
-    public ResponseEntity<String> removeParticipant(@PathVariable String name, @RequestBody List<String> participants) {
+    public ResponseEntity<String> removeParticipant(@PathVariable String name, @RequestBody List<String> participants,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         if (participants == null || participants.isEmpty()) {
             return ResponseEntity.badRequest().body("Participants list is empty.");
         }
-        repository.removeParticipant(name, participants);
+        repository.removeParticipant(name, participants, expectedVersion(ifMatch));
         return ResponseEntity.status(200).body("Participants, if they were present, are successfully deleted.\n" +
                 "NOTE: Meeting's responsible person won't be deleted from the meeting.");
     }
 
+    /**
+     * Method converts the If-Match header (the ETag of the meeting, e.g. "3") to the expected version of the meeting.
+     * Missing header, or "*", means that the version is not checked.
+     */
+    private static Long expectedVersion(String ifMatch) {
+        return version(ifMatch, HttpHeaders.IF_MATCH);
+    }
+
+    /**
+     * Method converts the ETag of the meeting given in the header to its version.
+     */
+    private static Long version(String etag, String header) {
+        if (etag == null || etag.isBlank() || etag.trim().equals("*")) {
+            return null;
+        }
+        String version = etag.trim();
+        if (version.startsWith("W/")) {
+            version = version.substring(2);
+        }
+        try {
+            return Long.valueOf(version.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, header + " header should contain the version (ETag) of the meeting.");
+        }
+    }
+
 }
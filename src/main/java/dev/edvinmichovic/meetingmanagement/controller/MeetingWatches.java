@@ -0,0 +1,153 @@
+package dev.edvinmichovic.meetingmanagement.controller;
+
+import dev.edvinmichovic.meetingmanagement.config.MeetingProperties;
+import dev.edvinmichovic.meetingmanagement.model.Meeting;
+import dev.edvinmichovic.meetingmanagement.model.MeetingEvent;
+import dev.edvinmichovic.meetingmanagement.repository.MeetingRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * MeetingWatches holds the long-poll watches of single meetings (GET /meetings/{name}/watch).
+ * A watch is a DeferredResult parked by the meeting's name - it holds no servlet thread while it waits.
+ * The watches of the meeting are completed by the events of the change feed as soon as the meeting is saved, deleted,
+ * or its participants change, or when their timeout expires.
+ */
+@Component
+public class MeetingWatches {
+
+    private final MeetingRepository repository;
+    private final MeetingProperties.Watch properties;
+    private final Map<String, Set<Watch>> watches = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private volatile boolean listening;
+
+    public MeetingWatches(MeetingRepository repository, MeetingProperties properties, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.properties = properties.getWatch();
+        Gauge.builder("meetings.watches", size, AtomicInteger::get)
+                .description("Parked long-poll watches of the meetings")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Method watches the meeting for the change from the given version.
+     * If the meeting is already of another version, the watch completes at once.
+     *
+     * @param name    - the name of the meeting.
+     * @param version - the last version of the meeting seen by the client, or null to wait for the next change.
+     * @param timeout - the time to wait for the change, or null for the default timeout.
+     * @return - returns the result completed with the changed meeting (200), 404 if the meeting does not exist (anymore),
+     * or 304 if the meeting has not changed until the timeout.
+     */
+    public DeferredResult<ResponseEntity<Meeting>> watch(String name, Long version, Duration timeout) {
+        Optional<Meeting> current = repository.findByName(name);
+        if (current.isEmpty()) {
+            DeferredResult<ResponseEntity<Meeting>> result = new DeferredResult<>();
+            result.setErrorResult(notFound());
+            return result;
+        }
+        long seenVersion = version != null ? version : current.get().version();
+        Duration wait = timeout == null ? properties.getDefaultTimeout() : min(timeout, properties.getMaxTimeout());
+        DeferredResult<ResponseEntity<Meeting>> result = new DeferredResult<>(wait.toMillis(),
+                () -> ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(String.valueOf(seenVersion)).build());
+        if (current.get().version() != seenVersion) {
+            result.setResult(changed(current.get()));
+            return result;
+        }
+
+        listen();
+        Watch watch = new Watch(result, seenVersion);
+        watches.compute(name, (key, parked) -> {
+            Set<Watch> set = parked != null ? parked : ConcurrentHashMap.newKeySet();
+            set.add(watch);
+            return set;
+        });
+        size.incrementAndGet();
+        result.onCompletion(() -> remove(name, watch));
+
+        // the meeting could have changed between the first read and the registration of the watch
+        repository.findByName(name).ifPresentOrElse(
+                meeting -> {
+                    if (meeting.version() != seenVersion) {
+                        result.setResult(changed(meeting));
+                    }
+                },
+                () -> result.setErrorResult(notFound()));
+        return result;
+    }
+
+    private void listen() {
+        if (listening) {
+            return;
+        }
+        synchronized (this) {
+            if (!listening) {
+                repository.changes().addListener(this::changed);
+                listening = true;
+            }
+        }
+    }
+
+    /**
+     * Listener of the change feed, called by the store's writer - it only hands the results over to the servlet container.
+     * The snapshot is published before its events, so a watch registered in between has already seen the version of the event,
+     * and is not completed by it.
+     */
+    private void changed(List<MeetingEvent> events) {
+        for (MeetingEvent event : events) {
+            Set<Watch> parked = watches.get(event.name());
+            if (parked == null) {
+                continue;
+            }
+            for (Watch watch : parked) {
+                if (event.type() == MeetingEvent.ChangeType.DELETED) {
+                    watch.result().setErrorResult(notFound());
+                } else if (event.version() != watch.seenVersion()) {
+                    watch.result().setResult(changed(event.meeting()));
+                }
+            }
+        }
+    }
+
+    private void remove(String name, Watch watch) {
+        watches.computeIfPresent(name, (key, parked) -> {
+            if (parked.remove(watch)) {
+                size.decrementAndGet();
+            }
+            return parked.isEmpty() ? null : parked;
+        });
+    }
+
+    private static ResponseEntity<Meeting> changed(Meeting meeting) {
+        return ResponseEntity.ok().eTag(String.valueOf(meeting.version())).body(meeting);
+    }
+
+    private static ResponseStatusException notFound() {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Meeting with that name was not found.");
+    }
+
+    private static Duration min(Duration first, Duration second) {
+        return first.compareTo(second) <= 0 ? first : second;
+    }
+
+    /**
+     * Parked watch, with the version of the meeting the client has already seen.
+     */
+    private record Watch(DeferredResult<ResponseEntity<Meeting>> result, long seenVersion) {
+    }
+
+}
@@ -1,5 +1,7 @@
 package dev.edvinmichovic.meetingmanagement.dto;
 
+import dev.edvinmichovic.meetingmanagement.model.Recurrence;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
 
 import java.time.LocalDateTime;
@@ -10,17 +12,21 @@ import java.util.HashMap;
  * In that particular case, such record allows to successfully validate the data,
  * required for the Meeting class.
  *
- * @param name
+ * @param name - cannot be one of the paths of GET /meetings/stats, /names, /changes and /export, so the meeting can be found by its name.
  * @param responsiblePerson
  * @param description
  * @param meetingCategory
  * @param meetingType
  * @param startDate
  * @param endDate
+ * @param participants
+ * @param recurrence - makes the meeting a series of occurrences, the dates are the dates of the first occurrence.
  */
 public record MeetingDTO(
 
         @NotBlank(message = "Meeting must contain a name.")
+        @Pattern(regexp = "^(?!(stats|names|changes|export)$).*$", flags = Pattern.Flag.DOTALL,
+                message = "The names stats, names, changes and export are reserved by the end-points of the meetings.")
         String name,
         @NotBlank(message = "A responsible Person for the meeting has to be set.")
         String responsiblePerson,
@@ -38,7 +44,21 @@ public record MeetingDTO(
         LocalDateTime startDate,
         @Future(message = "The end date of the meeting should be future date. ")
         LocalDateTime endDate,
-        HashMap<String, LocalDateTime> participants
+        HashMap<String, LocalDateTime> participants,
+        @Valid
+        Recurrence recurrence
 
 ) {
+
+    public MeetingDTO(String name,
+                      String responsiblePerson,
+                      String description,
+                      String meetingCategory,
+                      String meetingType,
+                      LocalDateTime startDate,
+                      LocalDateTime endDate,
+                      HashMap<String, LocalDateTime> participants) {
+        this(name, responsiblePerson, description, meetingCategory, meetingType, startDate, endDate, participants, null);
+    }
+
 }
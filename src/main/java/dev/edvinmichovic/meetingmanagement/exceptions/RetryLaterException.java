@@ -0,0 +1,28 @@
+package dev.edvinmichovic.meetingmanagement.exceptions;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+
+/**
+ * RetryLaterException rejects the request, which can succeed later (e.g. the service is overloaded, or still loading the meetings).
+ * The response carries the Retry-After header with the time in seconds, after which the client should retry
+ * (see ApplicationExceptionHandler).
+ */
+public class RetryLaterException extends ResponseStatusException {
+
+    private final HttpHeaders headers = new HttpHeaders();
+
+    public RetryLaterException(HttpStatus status, String reason, Duration retryAfter) {
+        super(status, reason);
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (retryAfter.toMillis() + 999) / 1000)));
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+}
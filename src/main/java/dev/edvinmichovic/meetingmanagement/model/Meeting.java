@@ -1,8 +1,17 @@
 package dev.edvinmichovic.meetingmanagement.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 
+/**
+ * Meeting of the store.
+ * The version is increased by every change of the meeting, and is used to detect concurrent changes.
+ * The meeting with the recurrence is the series of the meetings: its dates are the dates of the first occurrence
+ * (see Recurrence).
+ */
 public record Meeting(
 
         String name,
@@ -12,7 +21,45 @@ public record Meeting(
         Type meetingType,
         LocalDateTime startDate,
         LocalDateTime endDate,
-        HashMap<String, LocalDateTime> participants
+        HashMap<String, LocalDateTime> participants,
+        long version,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        Recurrence recurrence
 ) {
 
+    public Meeting(String name,
+                   String responsiblePerson,
+                   String description,
+                   Category meetingCategory,
+                   Type meetingType,
+                   LocalDateTime startDate,
+                   LocalDateTime endDate,
+                   HashMap<String, LocalDateTime> participants) {
+        this(name, responsiblePerson, description, meetingCategory, meetingType, startDate, endDate, participants, 0);
+    }
+
+    public Meeting(String name,
+                   String responsiblePerson,
+                   String description,
+                   Category meetingCategory,
+                   Type meetingType,
+                   LocalDateTime startDate,
+                   LocalDateTime endDate,
+                   HashMap<String, LocalDateTime> participants,
+                   long version) {
+        this(name, responsiblePerson, description, meetingCategory, meetingType, startDate, endDate, participants, version, null);
+    }
+
+    /**
+     * Method returns the occurrence of the series starting at the given time. The occurrence shares the participants
+     * and the version of the series, and keeps its recurrence, so it can be told apart from a single meeting.
+     *
+     * @param start - the start of the occurrence.
+     * @return - returns the meeting of the occurrence.
+     */
+    public Meeting occurrence(LocalDateTime start) {
+        LocalDateTime end = endDate == null ? null : start.plus(Duration.between(startDate, endDate));
+        return new Meeting(name, responsiblePerson, description, meetingCategory, meetingType, start, end, participants, version, recurrence);
+    }
+
 }
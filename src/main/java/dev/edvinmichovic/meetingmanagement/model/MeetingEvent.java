@@ -0,0 +1,32 @@
+package dev.edvinmichovic.meetingmanagement.model;
+
+import java.time.Instant;
+
+/**
+ * Event of the change feed - one change of one meeting.
+ *
+ * @param sequence - sequence number of the event, increasing by one with every event (see GET /meetings/changes).
+ * @param type     - type of the change.
+ * @param name     - name of the changed meeting.
+ * @param version  - version of the meeting after the change (the deleted version for DELETED).
+ * @param time     - time the change was published.
+ * @param meeting  - the meeting after the change, or null if it was deleted.
+ */
+public record MeetingEvent(
+
+        long sequence,
+        ChangeType type,
+        String name,
+        long version,
+        Instant time,
+        Meeting meeting
+) {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        PARTICIPANTS_CHANGED,
+        DELETED
+    }
+
+}
@@ -0,0 +1,26 @@
+package dev.edvinmichovic.meetingmanagement.model;
+
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Aggregate statistics of the meetings.
+ *
+ * @param meetings         - number of meetings.
+ * @param participants     - total number of participants of all meetings (responsible persons included).
+ * @param averageAttendees - average number of participants of a meeting.
+ * @param byCategory       - number of meetings of every category.
+ * @param byType           - number of meetings of every type.
+ * @param byMonth          - number of meetings by the month of their start date, in chronological order.
+ */
+public record MeetingStatistics(
+
+        long meetings,
+        long participants,
+        double averageAttendees,
+        Map<Category, Long> byCategory,
+        Map<Type, Long> byType,
+        SortedMap<YearMonth, Long> byMonth
+) {
+}
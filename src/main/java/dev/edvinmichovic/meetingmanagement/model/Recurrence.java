@@ -0,0 +1,110 @@
+package dev.edvinmichovic.meetingmanagement.model;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+
+/**
+ * Recurrence rule of the meeting series. The series is stored once, as the meeting of its first occurrence,
+ * and the following occurrences are generated only when a query asks for the dates they fall into.
+ * Every occurrence has the same length as the first one, the k-th one starts interval * k days (weeks, months) after it.
+ * Monthly occurrences of a day missing from the month fall on its last day.
+ *
+ * @param frequency  - the unit of the repetition.
+ * @param interval   - the number of the units between two occurrences (at most MAX_INTERVAL), 1 if not given.
+ * @param until      - the last date an occurrence can start on, or null.
+ * @param count      - the maximal number of the occurrences (including the first one, at most MAX_COUNT), or null.
+ *                   Without the until date and the count, the series repeats forever.
+ * @param exceptions - the dates of the cancelled occurrences (the dates they would start on).
+ */
+public record Recurrence(
+
+        @NotNull(message = "The frequency of the recurrence (Daily, Weekly or Monthly) has to be set.")
+        Frequency frequency,
+        @Min(value = 1, message = "The interval of the recurrence should be at least 1.")
+        @Max(value = MAX_INTERVAL, message = "The interval of the recurrence should be at most " + MAX_INTERVAL + ".")
+        Integer interval,
+        LocalDate until,
+        @Min(value = 1, message = "The count of the occurrences should be at least 1.")
+        @Max(value = MAX_COUNT, message = "The count of the occurrences should be at most " + MAX_COUNT + ".")
+        Integer count,
+        Set<LocalDate> exceptions
+) {
+
+    /**
+     * Upper bounds of the interval and the count, so the last occurrence of the series stays within the range of the dates.
+     */
+    public static final int MAX_INTERVAL = 1000;
+    public static final int MAX_COUNT = 10000;
+
+    /**
+     * Method returns the start of the occurrence.
+     *
+     * @param first - the start of the first occurrence.
+     * @param index - the index of the occurrence, 0 for the first one.
+     * @return - returns the start of the occurrence, regardless of the end of the series and the exceptions.
+     */
+    public LocalDateTime start(LocalDateTime first, long index) {
+        return first.plus(index * step(), frequency.unit);
+    }
+
+    /**
+     * Method returns the index of the last occurrence starting not later than the given time.
+     *
+     * @param first - the start of the first occurrence.
+     * @param time  - the time, not before the first occurrence.
+     * @return - returns the index of the occurrence.
+     */
+    public long indexAt(LocalDateTime first, LocalDateTime time) {
+        long index = frequency.unit.between(first, time) / step();
+        // a month shortened to its last day is not counted as a whole month
+        return start(first, index + 1).isAfter(time) ? index : index + 1;
+    }
+
+    /**
+     * Method returns the start of the last occurrence of the series.
+     *
+     * @param first - the start of the first occurrence.
+     * @return - returns the start of the last occurrence, or null if the series repeats forever.
+     */
+    public LocalDateTime lastStart(LocalDateTime first) {
+        long last = Long.MAX_VALUE;
+        if (count != null) {
+            last = count - 1;
+        }
+        if (until != null) {
+            LocalDateTime end = until.plusDays(1).atStartOfDay().minusNanos(1);
+            last = Math.min(last, end.isBefore(first) ? 0 : indexAt(first, end));
+        }
+        return last == Long.MAX_VALUE ? null : start(first, last);
+    }
+
+    /**
+     * Method checks that the occurrence starting at the given time has not been cancelled.
+     */
+    public boolean isCancelled(LocalDateTime start) {
+        return exceptions != null && exceptions.contains(start.toLocalDate());
+    }
+
+    private int step() {
+        return interval == null ? 1 : interval;
+    }
+
+    public enum Frequency {
+        Daily(ChronoUnit.DAYS),
+        Weekly(ChronoUnit.WEEKS),
+        Monthly(ChronoUnit.MONTHS);
+
+        private final ChronoUnit unit;
+
+        Frequency(ChronoUnit unit) {
+            this.unit = unit;
+        }
+    }
+
+}
@@ -0,0 +1,219 @@
+package dev.edvinmichovic.meetingmanagement.repository;
+
+import dev.edvinmichovic.meetingmanagement.model.Meeting;
+import dev.edvinmichovic.meetingmanagement.model.MeetingEvent;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * ChangeFeed numbers the changes of the store and keeps the recent ones in a bounded ring buffer.
+ * The events are appended by the store's writers, after the snapshot containing them is published. The writers of the shards
+ * append their events under the feed's lock, so the sequence numbers follow the order in which the changes became visible.
+ * Readers never copy the feed - every subscriber keeps its own position (the sequence number of the last event it received)
+ * and reads the following events from the ring at its own pace. A subscriber that falls behind by more than the capacity
+ * of the ring finds its next events overwritten (see Page.gap), so a slow subscriber never holds memory of the feed.
+ * Sequence numbers start from 1 when the application starts, so the ids of the events given to the clients (see id) also carry
+ * the epoch of the feed - the time it was created - and an id from before a restart is recognized as such (see sequenceOf).
+ * Listeners (e.g. the watches of single meetings) are notified of the appended events by the writer.
+ */
+public final class ChangeFeed implements MeetingStore.ChangeListener {
+
+    private final AtomicReferenceArray<MeetingEvent> ring;
+    private final int capacity;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private volatile long lastSequence;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final List<Consumer<List<MeetingEvent>>> listeners = new CopyOnWriteArrayList<>();
+
+    ChangeFeed(int capacity) {
+        this.capacity = capacity;
+        this.ring = new AtomicReferenceArray<>(capacity);
+    }
+
+    @Override
+    public void changed(List<MeetingStore.Change> changes) {
+        lock.lock();
+        try {
+            Instant time = Instant.now();
+            long sequence = lastSequence;
+            List<MeetingEvent> events = new ArrayList<>(changes.size());
+            for (MeetingStore.Change change : changes) {
+                MeetingEvent event = toEvent(++sequence, change, time);
+                ring.set((int) (sequence % capacity), event);
+                events.add(event);
+            }
+            lastSequence = sequence;
+            appended.signalAll();
+            for (Consumer<List<MeetingEvent>> listener : listeners) {
+                listener.accept(events);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Method registers the listener of the events. It is called by the store's writers under the feed's lock, so it should not block.
+     */
+    public void addListener(Consumer<List<MeetingEvent>> listener) {
+        listeners.add(listener);
+    }
+
+    private static MeetingEvent toEvent(long sequence, MeetingStore.Change change, Instant time) {
+        Meeting previous = change.previous();
+        Meeting current = change.current();
+        if (previous == null) {
+            return new MeetingEvent(sequence, MeetingEvent.ChangeType.CREATED, current.name(), current.version(), time, current);
+        }
+        if (current == null) {
+            return new MeetingEvent(sequence, MeetingEvent.ChangeType.DELETED, previous.name(), previous.version(), time, null);
+        }
+        MeetingEvent.ChangeType type = onlyParticipantsChanged(previous, current)
+                ? MeetingEvent.ChangeType.PARTICIPANTS_CHANGED
+                : MeetingEvent.ChangeType.UPDATED;
+        return new MeetingEvent(sequence, type, current.name(), current.version(), time, current);
+    }
+
+    private static boolean onlyParticipantsChanged(Meeting previous, Meeting current) {
+        return Objects.equals(previous.responsiblePerson(), current.responsiblePerson())
+                && Objects.equals(previous.description(), current.description())
+                && previous.meetingCategory() == current.meetingCategory()
+                && previous.meetingType() == current.meetingType()
+                && Objects.equals(previous.startDate(), current.startDate())
+                && Objects.equals(previous.endDate(), current.endDate())
+                && Objects.equals(previous.recurrence(), current.recurrence());
+    }
+
+    /**
+     * Method returns the epoch of the feed, which tells apart the sequence numbers of different runs of the application.
+     */
+    public String epoch() {
+        return epoch;
+    }
+
+    /**
+     * Method returns the id of the event for the clients: the epoch of the feed and the sequence number, e.g. "lz3k9q1c-42".
+     */
+    public String id(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    /**
+     * Method returns the sequence number of the event id received by a client (e.g. in the Last-Event-ID header).
+     * A plain sequence number, without the epoch, is taken as the sequence number of this feed.
+     *
+     * @param id - the id of the event.
+     * @return - returns the sequence number, or -1 if the id is of another epoch (e.g. from before a restart).
+     * @throws IllegalArgumentException - if the id is not valid.
+     */
+    public long sequenceOf(String id) {
+        int separator = id.lastIndexOf('-');
+        long sequence;
+        try {
+            sequence = Long.parseLong(id.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid event id: " + id, e);
+        }
+        if (sequence < 0 || separator == 0) {
+            throw new IllegalArgumentException("Invalid event id: " + id);
+        }
+        return separator < 0 || id.substring(0, separator).equals(epoch) ? sequence : -1;
+    }
+
+    /**
+     * Method returns the sequence number of the last published event, 0 if there is none yet.
+     */
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Method reads the events following the given sequence number.
+     *
+     * @param after - sequence number of the last event the reader has received.
+     * @param limit - maximal number of events returned.
+     * @return - returns the events in the order of their sequence numbers. If some of the following events were already
+     * overwritten, the page is a gap: it contains the events from the oldest one available. If the sequence number
+     * is unknown (not published yet), the page is an empty gap.
+     */
+    public Page read(long after, int limit) {
+        boolean gap = false;
+        long from = after + 1;
+        while (true) {
+            long last = lastSequence;
+            if (after > last) {
+                return new Page(List.of(), true, last);
+            }
+            long oldest = Math.max(1, last - capacity + 1);
+            if (from < oldest) {
+                gap = true;
+                from = oldest;
+            }
+            List<MeetingEvent> events = new ArrayList<>((int) Math.min(limit, last - from + 1));
+            boolean overwritten = false;
+            for (long sequence = from; sequence <= last && events.size() < limit; sequence++) {
+                MeetingEvent event = ring.get((int) (sequence % capacity));
+                if (event == null || event.sequence() != sequence) {
+                    // overwritten by the writer while reading - the events read so far are returned,
+                    // and the next read finds the gap after them
+                    overwritten = true;
+                    break;
+                }
+                events.add(event);
+            }
+            if (!overwritten || !events.isEmpty()) {
+                return new Page(events, gap, last);
+            }
+            // even the oldest event was overwritten while reading - the reader is too far behind,
+            // so it reads again from the oldest event kept now
+        }
+    }
+
+    /**
+     * Method waits until an event following the given sequence number is published.
+     *
+     * @param after   - sequence number of the last event the reader has received.
+     * @param timeout - maximal time to wait.
+     * @return - returns true if there is a following event, false if the time has elapsed.
+     */
+    public boolean await(long after, long timeout, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        if (lastSequence > after) {
+            return true;
+        }
+        lock.lock();
+        try {
+            while (lastSequence <= after) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = appended.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Events read from the feed.
+     *
+     * @param events       - the events, in the order of their sequence numbers.
+     * @param gap          - true if events were missed: overwritten in the ring, or the sequence number was not known.
+     * @param lastSequence - sequence number of the last published event at the time of reading.
+     */
+    public record Page(List<MeetingEvent> events, boolean gap, long lastSequence) {
+    }
+
+}
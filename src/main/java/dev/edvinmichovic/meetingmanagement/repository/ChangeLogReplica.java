@@ -0,0 +1,212 @@
+package dev.edvinmichovic.meetingmanagement.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.edvinmichovic.meetingmanagement.model.Meeting;
+import dev.edvinmichovic.meetingmanagement.model.MeetingEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChangeLogReplica follows the change log of the primary (see ChangeLogWriter) and applies it to the replica's store.
+ * The log is checked every meetings.replication.poll-interval: if its id has changed (the primary has compacted the log,
+ * or has been restarted), the meetings of the store are replaced with the meetings of the log. Then the events following
+ * the last applied one are read from the position the replica has stopped at, and applied to the store - every poll reads
+ * only the new part of the log. A line that is not complete yet is read again by the next poll.
+ * The changes are applied by the store's writers, so the replica's readers, change feed and statistics see them the same way
+ * as the changes of the primary.
+ */
+final class ChangeLogReplica implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeLogReplica.class);
+    private static final int MAX_READ = 16 * 1024 * 1024;
+    private static final int HEADER_SIZE = 4096;
+
+    private final Path path;
+    private final Duration pollInterval;
+    private final MeetingRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Counter reloads;
+
+    private String logId;
+    private long offset;
+    private volatile long lastSequence;
+    // the start of the last poll which read the log to its end: the changes published before it are applied
+    private volatile long caughtUpAt = System.nanoTime();
+    private Thread thread;
+
+    ChangeLogReplica(Path path, Duration pollInterval, MeetingRepository repository, ObjectMapper objectMapper,
+                     MeterRegistry registry) {
+        this.path = path;
+        this.pollInterval = pollInterval;
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.reloads = Counter.builder("meetings.replication.reloads")
+                .description("Reloads of the meetings from the compacted change log")
+                .register(registry);
+        TimeGauge.builder("meetings.replication.lag", this, TimeUnit.NANOSECONDS, ChangeLogReplica::lagNanos)
+                .description("Time since the replica last applied all changes of the primary's log")
+                .register(registry);
+        Gauge.builder("meetings.replication.sequence", this, replica -> replica.lastSequence)
+                .description("Sequence number of the last change of the primary applied by the replica")
+                .register(registry);
+    }
+
+    void start() {
+        thread = Thread.ofPlatform().name("meeting-replica").daemon().start(this::follow);
+    }
+
+    private void follow() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                poll();
+            } catch (IOException | RuntimeException e) {
+                log.warn("Unable to read the change log {}: {}", path, e.getMessage());
+            }
+            try {
+                Thread.sleep(pollInterval.toMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Method returns the lag of the replica at the time of the call: the time since the start of the last poll which read
+     * the log to its end. A replica keeping up stays within the poll interval (and the time of a poll), whether the primary
+     * changes anything or not, while the lag of a replica which stopped applying the log (e.g. it cannot read the log,
+     * or a new log is not complete yet) keeps growing.
+     */
+    long lagNanos() {
+        return Math.max(0, System.nanoTime() - caughtUpAt);
+    }
+
+    /**
+     * Method applies the changes appended to the log since the last poll.
+     */
+    void poll() throws IOException {
+        long start = System.nanoTime();
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return;
+        }
+        try (channel) {
+            long size = channel.size();
+            List<Line> headerLines = lines(channel, 0, Math.min(size, HEADER_SIZE), 1);
+            if (headerLines.isEmpty()) {
+                return;
+            }
+            ChangeLogWriter.Header header = objectMapper.readValue(headerLines.get(0).bytes(), ChangeLogWriter.Header.class);
+            if (!header.log().equals(logId) && !reload(channel, size, header, headerLines.get(0).end())) {
+                return;
+            }
+
+            List<Line> lines;
+            while (!(lines = lines(channel, offset, size, Integer.MAX_VALUE)).isEmpty()) {
+                List<MeetingEvent> events = new ArrayList<>(lines.size());
+                for (Line line : lines) {
+                    MeetingEvent event = objectMapper.readValue(line.bytes(), MeetingEvent.class);
+                    if (event.sequence() > lastSequence) {
+                        events.add(event);
+                    }
+                }
+                repository.replicateChanges(events);
+                offset = lines.get(lines.size() - 1).end();
+                if (!events.isEmpty()) {
+                    lastSequence = events.get(events.size() - 1).sequence();
+                }
+            }
+            caughtUpAt = start;
+        }
+    }
+
+    /**
+     * Method replaces the meetings of the store with the meetings of the (new) log.
+     *
+     * @return - returns false if the meetings of the log are not complete yet.
+     */
+    private boolean reload(FileChannel channel, long size, ChangeLogWriter.Header header, long from) throws IOException {
+        List<Meeting> meetings = new ArrayList<>(header.meetings());
+        long position = from;
+        while (meetings.size() < header.meetings()) {
+            List<Line> lines = lines(channel, position, size, header.meetings() - meetings.size());
+            if (lines.isEmpty()) {
+                return false;
+            }
+            for (Line line : lines) {
+                meetings.add(objectMapper.readValue(line.bytes(), MeetingEvent.class).meeting());
+            }
+            position = lines.get(lines.size() - 1).end();
+        }
+        repository.replicate(meetings);
+        logId = header.log();
+        offset = position;
+        lastSequence = header.sequence();
+        reloads.increment();
+        log.info("Loaded {} meetings from the change log {} at sequence {}", meetings.size(), path, header.sequence());
+        return true;
+    }
+
+    /**
+     * Method reads the complete lines of the range of the file.
+     *
+     * @param maxLines - maximal number of lines read.
+     * @return - returns the lines, with the position following every line.
+     */
+    private static List<Line> lines(FileChannel channel, long from, long to, int maxLines) throws IOException {
+        int length = (int) Math.min(to - from, MAX_READ);
+        List<Line> lines = new ArrayList<>();
+        if (length <= 0) {
+            return lines;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining() && channel.read(buffer, from + buffer.position()) > 0) {
+            // reads the whole range
+        }
+        byte[] bytes = buffer.array();
+        int start = 0;
+        for (int i = 0; i < buffer.position() && lines.size() < maxLines; i++) {
+            if (bytes[i] == '\n') {
+                byte[] line = new byte[i - start];
+                System.arraycopy(bytes, start, line, 0, line.length);
+                lines.add(new Line(line, from + i + 1));
+                start = i + 1;
+            }
+        }
+        if (lines.isEmpty() && length == MAX_READ && to - from > MAX_READ) {
+            throw new IOException("Line of the change log at " + from + " is longer than " + MAX_READ + " bytes.");
+        }
+        return lines;
+    }
+
+    long lastSequence() {
+        return lastSequence;
+    }
+
+    @Override
+    public void close() {
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private record Line(byte[] bytes, long end) {
+    }
+
+}
@@ -0,0 +1,184 @@
+package dev.edvinmichovic.meetingmanagement.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.edvinmichovic.meetingmanagement.model.Meeting;
+import dev.edvinmichovic.meetingmanagement.model.MeetingEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChangeLogWriter appends the changes of the primary to the change log file (meetings.replication.log), which the replicas follow.
+ * The log is a file of JSON lines: the header (see Header), the meetings of the store as of the header's sequence number
+ * (as CREATED events), and then the events of the change feed following that sequence number.
+ * The writer follows the change feed on its own thread, the same way as the subscribers of GET /meetings/changes do,
+ * so the store's writers never wait for the file.
+ * When the log grows over meetings.replication.max-log-size, or the writer falls behind the feed's buffer, the log is compacted:
+ * the current meetings are written to a new file with a new id, which atomically replaces the log. The replicas notice the new id
+ * and reload the meetings. The meetings are read after the sequence number, so they can already contain some of the following
+ * events - the replicas apply them again, which does not change anything, because every event carries the whole meeting.
+ */
+final class ChangeLogWriter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeLogWriter.class);
+    private static final int BATCH_SIZE = 1024;
+
+    private final Path path;
+    private final long maxSize;
+    private final ChangeFeed feed;
+    private final MeetingShards shards;
+    private final ObjectMapper objectMapper;
+    private final Counter compactions;
+    private volatile long size;
+    private OutputStream output;
+    private Thread thread;
+
+    ChangeLogWriter(Path path, long maxSize, ChangeFeed feed, MeetingShards shards, ObjectMapper objectMapper,
+                    MeterRegistry registry) {
+        this.path = path;
+        this.maxSize = maxSize;
+        this.feed = feed;
+        this.shards = shards;
+        this.objectMapper = objectMapper;
+        this.compactions = Counter.builder("meetings.replication.compactions")
+                .description("Compactions of the change log")
+                .register(registry);
+        Gauge.builder("meetings.replication.log.size", this, writer -> writer.size)
+                .description("Size of the change log")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+    }
+
+    void start() {
+        thread = Thread.ofPlatform().name("meeting-change-log").daemon().start(this::follow);
+    }
+
+    private void follow() {
+        long position = -1;
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                if (position < 0) {
+                    position = compact();
+                }
+                ChangeFeed.Page page = feed.read(position, BATCH_SIZE);
+                if (page.gap() || size > maxSize) {
+                    position = -1;
+                } else if (!page.events().isEmpty()) {
+                    append(page.events());
+                    position = page.events().get(page.events().size() - 1).sequence();
+                } else {
+                    feed.await(position, 1, TimeUnit.SECONDS);
+                }
+            } catch (IOException e) {
+                log.warn("Unable to write the change log {}: {}", path, e.getMessage());
+                position = -1;
+                if (!sleep()) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void append(List<MeetingEvent> events) throws IOException {
+        for (MeetingEvent event : events) {
+            write(output, event);
+        }
+        output.flush();
+    }
+
+    /**
+     * Method writes the current meetings into a new log, which replaces the old one.
+     *
+     * @return - returns the sequence number of the change feed, from which the new log continues.
+     */
+    private long compact() throws IOException {
+        long sequence = feed.lastSequence();
+        List<Meeting> meetings = shards.meetings();
+        Instant time = Instant.now();
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (OutputStream snapshot = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+            write(snapshot, new Header(UUID.randomUUID().toString(), sequence, meetings.size()));
+            for (Meeting meeting : meetings) {
+                write(snapshot, new MeetingEvent(sequence, MeetingEvent.ChangeType.CREATED, meeting.name(), meeting.version(), time, meeting));
+            }
+        }
+        closeOutput();
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        size = Files.size(path);
+        output = new BufferedOutputStream(Files.newOutputStream(path, StandardOpenOption.APPEND));
+        compactions.increment();
+        return sequence;
+    }
+
+    private void write(OutputStream stream, Object value) throws IOException {
+        byte[] line = objectMapper.writeValueAsBytes(value);
+        stream.write(line);
+        stream.write('\n');
+        size += line.length + 1;
+    }
+
+    private boolean sleep() {
+        try {
+            Thread.sleep(1000);
+            return true;
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+
+    private void closeOutput() {
+        if (output != null) {
+            try {
+                output.close();
+            } catch (IOException e) {
+                log.warn("Unable to close the change log {}: {}", path, e.getMessage());
+            }
+            output = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        closeOutput();
+    }
+
+    /**
+     * The first line of the change log.
+     *
+     * @param log      - id of the log, changed by every compaction (and restart) of the primary.
+     * @param sequence - sequence number of the change feed the meetings of the log are taken at.
+     * @param meetings - number of the meetings following the header.
+     */
+    record Header(String log, long sequence, int meetings) {
+    }
+
+}
@@ -0,0 +1,442 @@
+package dev.edvinmichovic.meetingmanagement.repository;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.edvinmichovic.meetingmanagement.model.Meeting;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * MeetingArchive is the cold store of the finished meetings, moved out of the in-memory store by MeetingArchiver.
+ * The meetings are kept in immutable segment files (JSON arrays of at most meetings.archive.segment-size meetings),
+ * listed in the manifest (segments.json) together with the range of their dates. Only the manifest and the compact name index
+ * of every segment (the sorted 64-bit hashes of its names, kept in the segment's .names.json file) are held in memory, so a new meeting
+ * cannot take the name of an archived one, and the check never touches the disk: a query reads just the segments whose dates can match its date filters, and keeps the last read segments
+ * (meetings.archive.cached-segments) loaded as columns, so the same filters are evaluated over them as over the store.
+ * New segments are written aside and moved into place before the manifest listing them replaces the old one,
+ * so a reader (also a replica sharing the directory) sees either the old or the new list of complete segments.
+ * The archive is changed and its manifest is read under a ReentrantLock, so a virtual thread waiting for the disk
+ * is not pinned to its carrier thread.
+ */
+final class MeetingArchive {
+
+    private static final String MANIFEST = "segments.json";
+    private static final String NAMES = ".names.json";
+    private static final Pattern SEGMENT_FILE = Pattern.compile("segment-(\\d+)(?:\\.(\\d+))?\\.json");
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ObjectMapper objectMapper;
+    private final Counter loads;
+    private final Map<String, MeetingColumns> loaded;
+    private final Set<String> reserved = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile List<Segment> segments = List.of();
+    private volatile Map<String, long[]> nameHashes = Map.of();
+    private volatile FileTime manifestTime;
+
+    MeetingArchive(Path directory, int segmentSize, int cachedSegments, ObjectMapper objectMapper, MeterRegistry registry) {
+        if (segmentSize < 1) {
+            throw new IllegalArgumentException("Size of the archive's segments should be at least 1, but was " + segmentSize + ".");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.objectMapper = objectMapper;
+        this.loaded = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, MeetingColumns> eldest) {
+                return size() > cachedSegments;
+            }
+        };
+        this.loads = Counter.builder("meetings.archive.loads")
+                .description("Segments of the archive read from the disk by the queries")
+                .register(registry);
+        Gauge.builder("meetings.archive.meetings", this, archive -> archive.segments.stream().mapToInt(Segment::meetings).sum())
+                .description("Meetings in the archive")
+                .register(registry);
+        Gauge.builder("meetings.archive.segments", this, archive -> archive.segments.size())
+                .description("Segments of the archive")
+                .register(registry);
+        try {
+            refresh();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read the archive " + directory + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Method appends the meetings to the archive as new segments.
+     *
+     * @param meetings - the finished meetings, in the order of the store.
+     * @throws IOException - if the segments or the manifest cannot be written, the archive stays as it was.
+     */
+    void append(List<Meeting> meetings) throws IOException {
+        lock.lock();
+        try {
+            Files.createDirectories(directory);
+            List<Segment> appended = new ArrayList<>(refresh());
+            Map<String, long[]> hashes = new HashMap<>(nameHashes);
+            int next = appended.isEmpty() ? 1 : number(appended.get(appended.size() - 1)) + 1;
+            for (int from = 0; from < meetings.size(); from += segmentSize) {
+                List<Meeting> part = meetings.subList(from, Math.min(from + segmentSize, meetings.size()));
+                String file = String.format("segment-%06d.json", next++);
+                long[] partHashes = hashes(part);
+                write(directory.resolve(file), part);
+                write(directory.resolve(file + NAMES), partHashes);
+                appended.add(Segment.of(file, part));
+                hashes.put(file, partHashes);
+            }
+            write(directory.resolve(MANIFEST), appended);
+            nameHashes = Map.copyOf(hashes);
+            segments = List.copyOf(appended);
+            manifestTime = Files.getLastModifiedTime(directory.resolve(MANIFEST));
+        } finally {
+            lock.unlock();
+        }
+        meetings.forEach(meeting -> reserved.remove(meeting.name()));
+    }
+
+    /**
+     * Method finds the archived meeting by its name. Only the segment whose name index holds the name is read.
+     *
+     * @param name - the name of the meeting.
+     * @return - returns the archived meeting, or empty if no meeting of the name is archived.
+     * @throws IOException - if the segment cannot be read.
+     */
+    Optional<Meeting> find(String name) throws IOException {
+        refresh();
+        Segment segment = segmentOf(name);
+        if (segment == null) {
+            return Optional.empty();
+        }
+        return read(segment).stream().filter(meeting -> meeting.name().equals(name)).findFirst();
+    }
+
+    /**
+     * Method removes the archived meeting, so its name can be taken again. The segment holding the meeting is immutable,
+     * so it is written again without the meeting, as a new file of the next generation (e.g. segment-000003.1.json),
+     * which replaces the old one in the manifest at the same place - the order of the archive is kept.
+     * The old files are deleted then, so a reader of the old manifest (e.g. a replica) may fail once, and read the new one.
+     *
+     * @param name      - the name of the meeting.
+     * @param removable - decides whether the found meeting can be removed (it can also refuse it by throwing).
+     * @return - returns the removed meeting, or null if none was found, or the found one was not removable.
+     * @throws IOException - if the segment or the manifest cannot be written, the archive stays as it was.
+     */
+    Meeting remove(String name, Predicate<Meeting> removable) throws IOException {
+        lock.lock();
+        try {
+            List<Segment> listed = refresh();
+            Segment segment = segmentOf(name);
+            if (segment == null) {
+                return null;
+            }
+            List<Meeting> kept = new ArrayList<>(read(segment));
+            Meeting meeting = kept.stream().filter(archived -> archived.name().equals(name)).findFirst().orElse(null);
+            if (meeting == null || !removable.test(meeting)) {
+                return null;
+            }
+            kept.remove(meeting);
+
+            String file = nextGeneration(segment);
+            long[] keptHashes = hashes(kept);
+            write(directory.resolve(file), kept);
+            write(directory.resolve(file + NAMES), keptHashes);
+            List<Segment> replaced = new ArrayList<>(listed);
+            replaced.set(listed.indexOf(segment), Segment.of(file, kept));
+            write(directory.resolve(MANIFEST), replaced);
+            Map<String, long[]> hashes = new HashMap<>(nameHashes);
+            hashes.remove(segment.file());
+            hashes.put(file, keptHashes);
+            nameHashes = Map.copyOf(hashes);
+            segments = List.copyOf(replaced);
+            manifestTime = Files.getLastModifiedTime(directory.resolve(MANIFEST));
+
+            synchronized (loaded) {
+                loaded.remove(segment.file());
+            }
+            Files.deleteIfExists(directory.resolve(segment.file()));
+            Files.deleteIfExists(directory.resolve(segment.file() + NAMES));
+            return meeting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Method finds the archived meetings matching the filters.
+     * Parameters have the same meaning as the parameters of the MeetingRepository#findAll method.
+     *
+     * @return - returns the matching meetings, in the order they were archived.
+     * @throws IOException - if a segment cannot be read.
+     */
+    List<Meeting> findAll(String description,
+                          String responsiblePerson,
+                          String category,
+                          String type,
+                          LocalDate startDate,
+                          LocalDate endDate,
+                          Integer minAttendees) throws IOException {
+        List<Meeting> meetings = new ArrayList<>();
+        for (Segment segment : refresh()) {
+            if (segment.mayMatch(startDate, endDate)) {
+                MeetingColumns columns = load(segment);
+                MeetingColumns.Filter filter = columns.filter(description, responsiblePerson, category, type, startDate, endDate, minAttendees);
+                meetings.addAll(columns.materialize(columns.scan(filter, 0, columns.size()), filter));
+            }
+        }
+        return meetings;
+    }
+
+    /**
+     * Method returns the segments of the manifest, read again if the manifest has been replaced (e.g. by the primary).
+     */
+    private List<Segment> refresh() throws IOException {
+        Path manifest = directory.resolve(MANIFEST);
+        FileTime time;
+        try {
+            time = Files.getLastModifiedTime(manifest);
+        } catch (NoSuchFileException e) {
+            return segments;
+        }
+        if (!time.equals(manifestTime)) {
+            lock.lock();
+            try {
+                if (!time.equals(manifestTime)) {
+                    List<Segment> read;
+                    try (InputStream input = Files.newInputStream(manifest)) {
+                        read = List.copyOf(objectMapper.readValue(input, new TypeReference<List<Segment>>() {
+                        }));
+                    }
+                    nameHashes = index(read);
+                    segments = read;
+                    manifestTime = time;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Method returns the name index of every listed segment - the index of a segment read before is kept, the index
+     * of a new one is read from its .names.json file (or built from the segment itself, if the file is missing).
+     */
+    private Map<String, long[]> index(List<Segment> listed) throws IOException {
+        Map<String, long[]> hashes = new HashMap<>();
+        for (Segment segment : listed) {
+            long[] segmentHashes = nameHashes.get(segment.file());
+            if (segmentHashes == null) {
+                Path names = directory.resolve(segment.file() + NAMES);
+                if (Files.exists(names)) {
+                    try (InputStream input = Files.newInputStream(names)) {
+                        segmentHashes = objectMapper.readValue(input, long[].class);
+                    }
+                } else {
+                    segmentHashes = hashes(read(segment));
+                }
+            }
+            hashes.put(segment.file(), segmentHashes);
+        }
+        return Map.copyOf(hashes);
+    }
+
+    /**
+     * Method decides whether the meeting with the given name is archived (or being archived, see reserve).
+     * Only the name indexes held in memory are looked up, so the method can be called by the store's writer.
+     * Two names of the same 64-bit hash are taken as one - with millions of archived names, the chance is still negligible.
+     *
+     * @param name - the name of the meeting.
+     * @return - returns true if the name is taken by an archived meeting.
+     */
+    boolean contains(String name) {
+        return reserved.contains(name) || segmentOf(name) != null;
+    }
+
+    /**
+     * Method returns the segment whose name index holds the name, or null.
+     */
+    private Segment segmentOf(String name) {
+        long hash = hash(name);
+        Map<String, long[]> hashes = nameHashes;
+        for (Segment segment : segments) {
+            long[] segmentHashes = hashes.get(segment.file());
+            if (segmentHashes != null && Arrays.binarySearch(segmentHashes, hash) >= 0) {
+                return segment;
+            }
+        }
+        return null;
+    }
+
+    private static long[] hashes(List<Meeting> meetings) {
+        return meetings.stream().mapToLong(meeting -> hash(meeting.name())).sorted().toArray();
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the name, mixed by the finalizer of SplitMix64.
+     */
+    static long hash(String name) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < name.length(); i++) {
+            hash ^= name.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+
+    /**
+     * Method takes the names of the meetings removed from the store to be archived, before they are written,
+     * so no meeting of the same name can be saved in the meantime.
+     *
+     * @param name - the name of the meeting being archived.
+     */
+    void reserve(String name) {
+        reserved.add(name);
+    }
+
+    /**
+     * Method gives the reserved names back, if the meetings could not be archived and are put back into the store.
+     *
+     * @param released - the names of the meetings not archived.
+     */
+    void release(Collection<String> released) {
+        reserved.removeAll(released);
+    }
+
+    /**
+     * Method returns the archived meetings, e.g. to be exported. The segments are listed when the method is called,
+     * and read one by one (not kept loaded) as the meetings are iterated, so only one segment is held in memory at a time.
+     *
+     * @return - returns the meetings of the segments, in the order they were archived.
+     *           The iteration throws UncheckedIOException if a segment cannot be read.
+     */
+    Iterable<Meeting> meetings() {
+        List<Segment> listed = segments();
+        return () -> listed.stream().flatMap(segment -> {
+            try {
+                return read(segment).stream();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).iterator();
+    }
+
+    private List<Meeting> read(Segment segment) throws IOException {
+        try (InputStream input = Files.newInputStream(directory.resolve(segment.file()))) {
+            return objectMapper.readValue(input, new TypeReference<>() {
+            });
+        }
+    }
+
+    private MeetingColumns load(Segment segment) throws IOException {
+        synchronized (loaded) {
+            MeetingColumns columns = loaded.get(segment.file());
+            if (columns != null) {
+                return columns;
+            }
+        }
+        List<Meeting> meetings = read(segment);
+        loads.increment();
+        MeetingColumns columns = MeetingColumns.of(meetings);
+        synchronized (loaded) {
+            loaded.put(segment.file(), columns);
+        }
+        return columns;
+    }
+
+    private void write(Path path, Object value) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (OutputStream output = Files.newOutputStream(temporary)) {
+            objectMapper.writeValue(output, value);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int number(Segment segment) {
+        Matcher matcher = SEGMENT_FILE.matcher(segment.file());
+        return matcher.matches() ? Integer.parseInt(matcher.group(1)) : 0;
+    }
+
+    /**
+     * Method returns the name of the file of the segment's next generation (written again without a removed meeting).
+     */
+    private static String nextGeneration(Segment segment) {
+        Matcher matcher = SEGMENT_FILE.matcher(segment.file());
+        int generation = matcher.matches() && matcher.group(2) != null ? Integer.parseInt(matcher.group(2)) + 1 : 1;
+        return String.format("segment-%06d.%d.json", number(segment), generation);
+    }
+
+    /**
+     * Method returns the segments of the archive.
+     */
+    List<Segment> segments() {
+        try {
+            return refresh();
+        } catch (IOException e) {
+            return segments;
+        }
+    }
+
+    /**
+     * The entry of the manifest.
+     *
+     * @param file      - the name of the segment's file.
+     * @param meetings  - the number of the meetings of the segment.
+     * @param lastStart - the latest start date of the segment's meetings (null if none has it).
+     * @param firstEnd  - the earliest end date of the segment's meetings.
+     */
+    record Segment(String file, int meetings, LocalDateTime lastStart, LocalDateTime firstEnd) {
+
+        static Segment of(String file, List<Meeting> meetings) {
+            LocalDateTime lastStart = meetings.stream().map(MeetingColumns::lastStart).filter(Objects::nonNull)
+                    .max(LocalDateTime::compareTo).orElse(null);
+            LocalDateTime firstEnd = meetings.stream().map(Meeting::endDate).filter(Objects::nonNull)
+                    .min(LocalDateTime::compareTo).orElse(null);
+            return new Segment(file, meetings.size(), lastStart, firstEnd);
+        }
+
+        /**
+         * Method decides whether some meeting of the segment can match the date filters (see MeetingColumns#scan),
+         * so the segments that cannot are never read.
+         */
+        boolean mayMatch(LocalDate startDate, LocalDate endDate) {
+            if (startDate != null && (lastStart == null || !lastStart.isAfter(startDate.atStartOfDay()))) {
+                return false;
+            }
+            return endDate == null || (firstEnd != null && firstEnd.isBefore(endDate.atTime(23, 59)));
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+package dev.edvinmichovic.meetingmanagement.repository;
+
+import dev.edvinmichovic.meetingmanagement.model.Meeting;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * MeetingArchiver moves the finished meetings (ended more than meetings.archive.age ago, the series with their last occurrence) from the store to the MeetingArchive,
+ * every meetings.archive.interval, on its own thread. The meetings are removed by the shards' writers first - only if they
+ * have not been changed in the meantime, their names are reserved in the archive by the same mutation, so a meeting of the same
+ * name cannot be saved in between - and then the removed ones are appended to the archive. If the archive cannot be
+ * written, the meetings are put back into the store, so no meeting is lost.
+ * The removals are published to the change feed as DELETED events, so the watches, subscribers and replicas see the meetings
+ * leave the in-memory store.
+ */
+final class MeetingArchiver implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(MeetingArchiver.class);
+
+    private final MeetingShards shards;
+    private final MeetingArchive archive;
+    private final Duration age;
+    private final Duration interval;
+    private final Counter archived;
+    private Thread thread;
+
+    MeetingArchiver(MeetingShards shards, MeetingArchive archive, Duration age, Duration interval, MeterRegistry registry) {
+        this.shards = shards;
+        this.archive = archive;
+        this.age = age;
+        this.interval = interval;
+        this.archived = Counter.builder("meetings.archive.archived")
+                .description("Finished meetings moved from the store to the archive")
+                .register(registry);
+    }
+
+    void start() {
+        thread = Thread.ofPlatform().name("meeting-archiver").daemon().start(this::run);
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                archive(LocalDateTime.now().minus(age));
+            } catch (RuntimeException e) {
+                log.warn("Unable to archive the finished meetings: {}", e.getMessage());
+            }
+            try {
+                Thread.sleep(interval.toMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Method moves the meetings ended before the cutoff to the archive.
+     *
+     * @param cutoff - the meetings with the end date before it are archived.
+     * @return - returns the number of the archived meetings.
+     */
+    int archive(LocalDateTime cutoff) {
+        List<Meeting> finished = shards.meetings().stream()
+                .filter(meeting -> isFinished(meeting, cutoff))
+                .toList();
+        if (finished.isEmpty()) {
+            return 0;
+        }
+
+        Set<Meeting> removed = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        shards.writeAll(finished, (working, partition) -> {
+            for (Meeting meeting : partition) {
+                if (working.get(meeting.name()) == meeting) {
+                    working.remove(meeting.name());
+                    archive.reserve(meeting.name());
+                    removed.add(meeting);
+                }
+            }
+        });
+        List<Meeting> moved = finished.stream().filter(removed::contains).toList();
+        if (moved.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            archive.append(moved);
+        } catch (IOException e) {
+            log.warn("Unable to write the archive, {} meetings are kept in the store: {}", moved.size(), e.getMessage());
+            archive.release(moved.stream().map(Meeting::name).toList());
+            shards.writeAll(moved, (working, partition) -> {
+                for (Meeting meeting : partition) {
+                    // saved again meanwhile, the newer meeting is kept
+                    if (!working.containsKey(meeting.name())) {
+                        working.put(meeting.name(), meeting);
+                    }
+                }
+            });
+            return 0;
+        }
+        archived.increment(moved.size());
+        log.info("Archived {} meetings ended before {}", moved.size(), cutoff);
+        return moved.size();
+    }
+
+    /**
+     * The series (see Recurrence) is finished when its last occurrence has ended - a series repeating forever never is.
+     */
+    private static boolean isFinished(Meeting meeting, LocalDateTime cutoff) {
+        LocalDateTime lastStart = MeetingColumns.lastStart(meeting);
+        if (meeting.endDate() == null || lastStart == null) {
+            return false;
+        }
+        return meeting.occurrence(lastStart).endDate().isBefore(cutoff);
+    }
+
+    @Override
+    public void close() {
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,595 @@
+package dev.edvinmichovic.meetingmanagement.repository;
+
+import dev.edvinmichovic.meetingmanagement.model.Category;
+import dev.edvinmichovic.meetingmanagement.model.Meeting;
+import dev.edvinmichovic.meetingmanagement.model.Recurrence;
+import dev.edvinmichovic.meetingmanagement.model.Type;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * MeetingColumns is a columnar (struct-of-arrays) representation of the meetings' list, used to filter the meetings.
+ * Every filterable attribute is kept in its own primitive array, so the filters are evaluated as tight loops
+ * over the columns, and only the matching rows are materialized back into the Meeting objects.
+ * Person names are dictionary-coded, descriptions are kept already lower-cased.
+ * The columns are immutable, and split into the chunks of at most CHUNK_SIZE rows. The columns of the changed list
+ * are derived from the previous ones (see the with method): only the chunks holding the changed rows are rebuilt,
+ * the others are shared, so a change costs O(CHUNK_SIZE + n / CHUNK_SIZE) instead of rebuilding all of the columns.
+ * Every row also keeps the position of the meeting in the whole store, so the matches of several shards
+ * can be merged back into the order of the store, and its sequence - the ascending number the changes find the row by.
+ * A meeting series (see Recurrence) is one row: its start column holds the start of its last occurrence, and its end column
+ * the end of the first one, so the row matches the date filters if any of its occurrences can. The occurrences falling
+ * into the filtered dates are generated only when the matching row is materialized.
+ */
+final class MeetingColumns {
+
+    static final MeetingColumns EMPTY = of(List.of());
+
+    /**
+     * Maximal number of the occurrences of one series materialized by a query - a series repeating forever
+     * has no end within a date range open to the future.
+     */
+    static final int MAX_OCCURRENCES = 1000;
+
+    /**
+     * Maximal number of the rows of one chunk.
+     */
+    static final int CHUNK_SIZE = 1024;
+
+    private final Chunk[] chunks;
+    // the first row of every chunk
+    private final int[] starts;
+    private final int size;
+    private final Persons persons;
+    private final int personCount;
+
+    private MeetingColumns(List<Chunk> chunks, Persons persons) {
+        this.chunks = chunks.toArray(Chunk[]::new);
+        this.starts = new int[this.chunks.length];
+        int size = 0;
+        for (int chunk = 0; chunk < this.chunks.length; chunk++) {
+            starts[chunk] = size;
+            size += this.chunks[chunk].size();
+        }
+        this.size = size;
+        this.persons = persons;
+        this.personCount = persons.live;
+    }
+
+    /**
+     * Method builds the columns from the list of meetings, keeping the order of the list.
+     * Start date is rounded up and end date is rounded down to the epoch minute, so that comparing them
+     * with the whole-minute filter bounds gives the same result as comparing the dates themselves.
+     * Meetings without the end date never match the end date filter.
+     *
+     * @param meetings - the list of meetings.
+     * @return - returns the columnar representation of the meetings, positioned in the order of the list.
+     */
+    static MeetingColumns of(List<Meeting> meetings) {
+        long[] positions = new long[meetings.size()];
+        Arrays.setAll(positions, row -> row);
+        return of(meetings, positions);
+    }
+
+    /**
+     * Method builds the columns from the list of meetings, the same way as the of method does.
+     *
+     * @param meetings  - the list of meetings.
+     * @param positions - positions of the meetings in the store, aligned with the list.
+     * @return - returns the columnar representation of the meetings.
+     */
+    static MeetingColumns of(List<Meeting> meetings, long[] positions) {
+        Builder builder = new Builder(new Persons());
+        for (int row = 0; row < meetings.size(); row++) {
+            builder.append(meetings.get(row), positions[row], row);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Method returns the columns with the changes of the rows. The chunks holding the changed rows are rebuilt,
+     * the appended rows are added to the last chunk (and the new ones, when it is full), and the other chunks are shared
+     * with these columns - copying the unchanged rows of a rebuilt chunk does not evaluate their meetings again.
+     * The chunks left almost empty by the removals are merged with the previous ones.
+     *
+     * @param changed  - the new meetings of the changed rows by their sequences, or null for the removed rows.
+     * @param appended - the rows appended after the rows of these columns, with the sequences above all of them.
+     * @return - returns the new columns, or these ones if there is no change.
+     */
+    MeetingColumns with(SortedMap<Long, Meeting> changed, List<Row> appended) {
+        if (changed.isEmpty() && appended.isEmpty()) {
+            return this;
+        }
+        // the empty columns (e.g. EMPTY) are the base of several others, which must not share the counts of the persons
+        Builder builder = new Builder(size == 0 ? new Persons() : persons);
+        Iterator<Map.Entry<Long, Meeting>> changes = changed.entrySet().iterator();
+        Map.Entry<Long, Meeting> change = changes.hasNext() ? changes.next() : null;
+        for (Chunk chunk : chunks) {
+            if (change == null || change.getKey() > chunk.sequences[chunk.size() - 1]) {
+                builder.add(chunk);
+                continue;
+            }
+            ChunkBuilder rebuilt = new ChunkBuilder(chunk.size());
+            for (int row = 0; row < chunk.size(); row++) {
+                while (change != null && change.getKey() < chunk.sequences[row]) {
+                    change = changes.hasNext() ? changes.next() : null;
+                }
+                if (change == null || change.getKey() != chunk.sequences[row]) {
+                    rebuilt.copy(chunk, row);
+                    continue;
+                }
+                builder.uncount(chunk.responsiblePersonIds[row]);
+                if (change.getValue() != null) {
+                    builder.append(rebuilt, change.getValue(), chunk.positions[row], chunk.sequences[row]);
+                }
+                change = changes.hasNext() ? changes.next() : null;
+            }
+            builder.addRebuilt(rebuilt.build());
+        }
+        for (Row row : appended) {
+            builder.append(row.meeting(), row.position(), row.sequence());
+        }
+        return builder.build();
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Method returns the position of the row's meeting in the store (see MeetingStore.Snapshot).
+     */
+    long position(int row) {
+        int chunk = chunkOf(row);
+        return chunks[chunk].positions[row - starts[chunk]];
+    }
+
+    /**
+     * Method returns the meeting of the row.
+     */
+    Meeting meeting(int row) {
+        int chunk = chunkOf(row);
+        return chunks[chunk].rows[row - starts[chunk]];
+    }
+
+    /**
+     * Method returns the meetings of the rows, in their order, as a read-only view of the columns.
+     */
+    List<Meeting> meetings() {
+        return new Meetings();
+    }
+
+    /**
+     * Method returns the number of the responsible persons of the meetings.
+     */
+    int persons() {
+        return personCount;
+    }
+
+    /**
+     * Method prepares the filter for the scan. Filter values are converted to the representation of the columns once,
+     * instead of converting them for every meeting.
+     * Parameters have the same meaning as the parameters of the MeetingRepository#findAll method.
+     */
+    Filter filter(String description,
+                  String responsiblePerson,
+                  String category,
+                  String type,
+                  LocalDate startDate,
+                  LocalDate endDate,
+                  Integer minAttendees) {
+        int responsiblePersonId = Filter.ANY;
+        if (responsiblePerson != null) {
+            responsiblePersonId = persons.ids.getOrDefault(responsiblePerson, Filter.NONE);
+        }
+        return new Filter(description == null ? null : description.toLowerCase(),
+                responsiblePersonId,
+                category == null ? Filter.ANY : Category.valueOf(category).ordinal(),
+                type == null ? Filter.ANY : Type.valueOf(type).ordinal(),
+                startDate == null ? Long.MIN_VALUE : floorEpochMinute(startDate.atStartOfDay()),
+                endDate == null ? Long.MAX_VALUE : floorEpochMinute(endDate.atTime(23, 59)),
+                minAttendees == null ? Integer.MIN_VALUE : minAttendees);
+    }
+
+    /**
+     * Method scans the rows of the given range and collects the indexes of the rows matching the filter.
+     *
+     * @param filter - the prepared filter.
+     * @param from   - the first row of the range (inclusive).
+     * @param to     - the last row of the range (exclusive).
+     * @return - returns the ascending indexes of the matching rows.
+     */
+    int[] scan(Filter filter, int from, int to) {
+        if (filter.responsiblePersonId() == Filter.NONE || from >= to) {
+            return new int[0];
+        }
+        int[] matches = new int[to - from];
+        int count = 0;
+        for (int chunk = chunkOf(from); chunk < chunks.length && starts[chunk] < to; chunk++) {
+            int start = starts[chunk];
+            count = chunks[chunk].scan(filter, Math.max(from - start, 0), Math.min(to - start, chunks[chunk].size()), start, matches, count);
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Method materializes the matching rows into the list of meetings.
+     */
+    List<Meeting> materialize(int[] matches) {
+        return materialize(matches, null);
+    }
+
+    /**
+     * Method materializes the matching rows into the list of meetings, the series into their occurrences matching
+     * the date filters of the filter.
+     *
+     * @param matches - the indexes of the matching rows.
+     * @param filter  - the filter of the scan, or null to materialize the series themselves.
+     */
+    List<Meeting> materialize(int[] matches, Filter filter) {
+        List<Meeting> meetings = new ArrayList<>(matches.length);
+        for (int row : matches) {
+            collect(row, filter, meetings);
+        }
+        return meetings;
+    }
+
+    /**
+     * Method adds the meeting of the matching row to the list. A series is added as its occurrences matching the date filters,
+     * if the filter has any - they are generated from the first one matching the start date filter, and only until
+     * the end date filter, so a query never walks the occurrences outside of its dates.
+     */
+    void collect(int row, Filter filter, List<Meeting> meetings) {
+        Meeting meeting = meeting(row);
+        Recurrence recurrence = meeting.recurrence();
+        if (recurrence == null || filter == null || (filter.startAfter() == Long.MIN_VALUE && filter.endBefore() == Long.MAX_VALUE)) {
+            meetings.add(meeting);
+            return;
+        }
+        LocalDateTime first = meeting.startDate();
+        LocalDateTime last = lastStart(meeting);
+        long index = 0;
+        if (filter.startAfter() != Long.MIN_VALUE) {
+            LocalDateTime after = LocalDateTime.ofEpochSecond(filter.startAfter() * 60, 0, ZoneOffset.UTC);
+            index = after.isAfter(first) ? recurrence.indexAt(first, after) : 0;
+        }
+        for (int generated = 0; generated < MAX_OCCURRENCES; index++) {
+            LocalDateTime start = recurrence.start(first, index);
+            if (last != null && start.isAfter(last)) {
+                return;
+            }
+            Meeting occurrence = meeting.occurrence(start);
+            if (filter.endBefore() != Long.MAX_VALUE
+                    && (occurrence.endDate() == null || floorEpochMinute(occurrence.endDate()) >= filter.endBefore())) {
+                return;
+            }
+            if (ceilEpochMinute(start) > filter.startAfter() && !recurrence.isCancelled(start)) {
+                meetings.add(occurrence);
+                generated++;
+            }
+        }
+    }
+
+    /**
+     * Method finds the chunk of the row.
+     */
+    private int chunkOf(int row) {
+        int chunk = Arrays.binarySearch(starts, row);
+        return chunk >= 0 ? chunk : -chunk - 2;
+    }
+
+    /**
+     * Method returns the start of the last occurrence of the meeting: its start date if it is not a series.
+     *
+     * @return - returns the start, or null for a series repeating forever.
+     */
+    static LocalDateTime lastStart(Meeting meeting) {
+        return meeting.recurrence() == null ? meeting.startDate() : meeting.recurrence().lastStart(meeting.startDate());
+    }
+
+    private static long floorEpochMinute(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private static long ceilEpochMinute(LocalDateTime dateTime) {
+        long seconds = dateTime.toEpochSecond(ZoneOffset.UTC);
+        long minute = Math.floorDiv(seconds, 60);
+        return Math.floorMod(seconds, 60) == 0 && dateTime.getNano() == 0 ? minute : minute + 1;
+    }
+
+    /**
+     * Row of the store's meeting.
+     *
+     * @param meeting  - the meeting.
+     * @param position - position of the meeting in the store.
+     * @param sequence - sequence of the row in the store, ascending in the order of the rows.
+     */
+    record Row(Meeting meeting, long position, long sequence) {
+    }
+
+    /**
+     * Chunk of the columns, immutable once built.
+     */
+    private static final class Chunk {
+
+        private final Meeting[] rows;
+        private final String[] descriptions;
+        private final int[] responsiblePersonIds;
+        private final byte[] categories;
+        private final byte[] types;
+        private final long[] startMinutes;
+        private final long[] endMinutes;
+        private final int[] attendees;
+        private final long[] positions;
+        private final long[] sequences;
+
+        private Chunk(int size) {
+            this.rows = new Meeting[size];
+            this.descriptions = new String[size];
+            this.responsiblePersonIds = new int[size];
+            this.categories = new byte[size];
+            this.types = new byte[size];
+            this.startMinutes = new long[size];
+            this.endMinutes = new long[size];
+            this.attendees = new int[size];
+            this.positions = new long[size];
+            this.sequences = new long[size];
+        }
+
+        int size() {
+            return rows.length;
+        }
+
+        /**
+         * Method scans the rows of the given range of the chunk, and adds the indexes of the matching rows
+         * (offset by the first row of the chunk) to the matches.
+         *
+         * @return - returns the number of the matches.
+         */
+        int scan(Filter filter, int from, int to, int offset, int[] matches, int count) {
+            for (int row = from; row < to; row++) {
+                if (filter.category() != Filter.ANY && categories[row] != filter.category()) continue;
+                if (filter.type() != Filter.ANY && types[row] != filter.type()) continue;
+                if (filter.responsiblePersonId() != Filter.ANY && responsiblePersonIds[row] != filter.responsiblePersonId()) continue;
+                if (startMinutes[row] <= filter.startAfter()) continue;
+                if (filter.endBefore() != Long.MAX_VALUE && endMinutes[row] >= filter.endBefore()) continue;
+                if (attendees[row] < filter.minAttendees()) continue;
+                if (filter.description() != null && !descriptions[row].contains(filter.description())) continue;
+                matches[count++] = offset + row;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Builder of one chunk, filled by the new rows and by the copies of the rows of other chunks.
+     */
+    private static final class ChunkBuilder {
+
+        private Chunk chunk;
+        private int size;
+
+        private ChunkBuilder(int capacity) {
+            this.chunk = new Chunk(capacity);
+        }
+
+        void add(Meeting meeting, long position, long sequence, int responsiblePersonId) {
+            chunk.rows[size] = meeting;
+            chunk.descriptions[size] = meeting.description() == null ? "" : meeting.description().toLowerCase();
+            chunk.responsiblePersonIds[size] = responsiblePersonId;
+            chunk.categories[size] = (byte) meeting.meetingCategory().ordinal();
+            chunk.types[size] = (byte) meeting.meetingType().ordinal();
+            LocalDateTime lastStart = lastStart(meeting);
+            chunk.startMinutes[size] = lastStart == null ? Long.MAX_VALUE : ceilEpochMinute(lastStart);
+            chunk.endMinutes[size] = meeting.endDate() == null ? Long.MAX_VALUE : floorEpochMinute(meeting.endDate());
+            chunk.attendees[size] = meeting.participants() == null ? 0 : meeting.participants().size();
+            chunk.positions[size] = position;
+            chunk.sequences[size++] = sequence;
+        }
+
+        void copy(Chunk from, int row) {
+            chunk.rows[size] = from.rows[row];
+            chunk.descriptions[size] = from.descriptions[row];
+            chunk.responsiblePersonIds[size] = from.responsiblePersonIds[row];
+            chunk.categories[size] = from.categories[row];
+            chunk.types[size] = from.types[row];
+            chunk.startMinutes[size] = from.startMinutes[row];
+            chunk.endMinutes[size] = from.endMinutes[row];
+            chunk.attendees[size] = from.attendees[row];
+            chunk.positions[size] = from.positions[row];
+            chunk.sequences[size++] = from.sequences[row];
+        }
+
+        boolean isFull() {
+            return size == chunk.size();
+        }
+
+        /**
+         * Method returns the chunk of the added rows. The builder must not be used afterwards.
+         */
+        Chunk build() {
+            Chunk built = chunk;
+            if (size < built.size()) {
+                ChunkBuilder trimmed = new ChunkBuilder(size);
+                for (int row = 0; row < size; row++) {
+                    trimmed.copy(chunk, row);
+                }
+                built = trimmed.chunk;
+            }
+            chunk = null;
+            return built;
+        }
+    }
+
+    /**
+     * Builder of the columns, which adds the chunks in their order and appends the new rows to the last one.
+     * It also counts the rows of the responsible persons - the counts are changed only when the columns are built,
+     * so a failed build leaves them as they were.
+     */
+    private static final class Builder {
+
+        private final Persons persons;
+        private final List<Chunk> chunks = new ArrayList<>();
+        private final List<Integer> counted = new ArrayList<>();
+        private final List<Integer> uncounted = new ArrayList<>();
+        private ChunkBuilder last;
+
+        private Builder(Persons persons) {
+            this.persons = persons;
+        }
+
+        void add(Chunk chunk) {
+            flush();
+            chunks.add(chunk);
+        }
+
+        /**
+         * Method adds the rebuilt chunk, merging it with the previous one if it has less than a quarter of the rows.
+         */
+        void addRebuilt(Chunk chunk) {
+            flush();
+            if (chunk.size() == 0) {
+                return;
+            }
+            Chunk previous = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+            if (previous != null && chunk.size() < CHUNK_SIZE / 4 && previous.size() + chunk.size() <= CHUNK_SIZE) {
+                ChunkBuilder merged = new ChunkBuilder(previous.size() + chunk.size());
+                for (int row = 0; row < previous.size(); row++) {
+                    merged.copy(previous, row);
+                }
+                for (int row = 0; row < chunk.size(); row++) {
+                    merged.copy(chunk, row);
+                }
+                chunks.set(chunks.size() - 1, merged.build());
+            } else {
+                chunks.add(chunk);
+            }
+        }
+
+        /**
+         * Method appends the row after the added ones - to the last chunk, unless it is full.
+         */
+        void append(Meeting meeting, long position, long sequence) {
+            if (last == null) {
+                Chunk previous = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+                last = new ChunkBuilder(CHUNK_SIZE);
+                if (previous != null && previous.size() < CHUNK_SIZE) {
+                    chunks.remove(chunks.size() - 1);
+                    for (int row = 0; row < previous.size(); row++) {
+                        last.copy(previous, row);
+                    }
+                }
+            } else if (last.isFull()) {
+                chunks.add(last.build());
+                last = new ChunkBuilder(CHUNK_SIZE);
+            }
+            append(last, meeting, position, sequence);
+        }
+
+        void append(ChunkBuilder chunk, Meeting meeting, long position, long sequence) {
+            int id = persons.id(meeting.responsiblePerson());
+            counted.add(id);
+            chunk.add(meeting, position, sequence, id);
+        }
+
+        void uncount(int responsiblePersonId) {
+            uncounted.add(responsiblePersonId);
+        }
+
+        MeetingColumns build() {
+            flush();
+            persons.count(counted, uncounted);
+            return new MeetingColumns(chunks, persons);
+        }
+
+        private void flush() {
+            if (last != null) {
+                chunks.add(last.build());
+                last = null;
+            }
+        }
+    }
+
+    /**
+     * Dictionary of the responsible persons, shared by the columns derived from each other, one after another.
+     * The ids are only added, so the columns derived earlier keep their meaning. The dictionary is read by the filters
+     * of any thread, but changed only by the one building the columns, which also keeps the number of the rows of every person.
+     */
+    private static final class Persons {
+
+        private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+        private int[] rows = new int[16];
+        private int live;
+
+        int id(String person) {
+            if (person == null) {
+                return Filter.NONE;
+            }
+            Integer id = ids.get(person);
+            if (id == null) {
+                id = ids.size();
+                if (id == rows.length) {
+                    rows = Arrays.copyOf(rows, 2 * id);
+                }
+                ids.put(person, id);
+            }
+            return id;
+        }
+
+        void count(List<Integer> counted, List<Integer> uncounted) {
+            for (int id : counted) {
+                if (id >= 0 && rows[id]++ == 0) {
+                    live++;
+                }
+            }
+            for (int id : uncounted) {
+                if (id >= 0 && --rows[id] == 0) {
+                    live--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Read-only view of the meetings of the columns.
+     */
+    private final class Meetings extends AbstractList<Meeting> implements RandomAccess {
+
+        @Override
+        public Meeting get(int index) {
+            Objects.checkIndex(index, size);
+            return meeting(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<Meeting> iterator() {
+            return Arrays.stream(chunks).flatMap(chunk -> Arrays.stream(chunk.rows)).iterator();
+        }
+    }
+
+    /**
+     * Filter prepared for the scan of the columns.
+     * ANY means that the attribute is not filtered, NONE means that no row can match (e.g. unknown responsible person).
+     */
+    record Filter(String description,
+                  int responsiblePersonId,
+                  int category,
+                  int type,
+                  long startAfter,
+                  long endBefore,
+                  int minAttendees) {
+
+        static final int ANY = -1;
+        static final int NONE = -2;
+    }
+
+}
@@ -1,46 +1,133 @@
 package dev.edvinmichovic.meetingmanagement.repository;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import dev.edvinmichovic.meetingmanagement.config.MeetingProperties;
 import dev.edvinmichovic.meetingmanagement.dto.MeetingDTO;
+import dev.edvinmichovic.meetingmanagement.exceptions.RetryLaterException;
 import dev.edvinmichovic.meetingmanagement.model.Category;
 import dev.edvinmichovic.meetingmanagement.model.Meeting;
+import dev.edvinmichovic.meetingmanagement.model.MeetingEvent;
+import dev.edvinmichovic.meetingmanagement.model.MeetingStatistics;
 import dev.edvinmichovic.meetingmanagement.model.Type;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Repository;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.io.*;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
 
 @Repository
 public class MeetingRepository {
 
-    private final List<Meeting> meetingList = new ArrayList<>();
+    private static final Logger log = LoggerFactory.getLogger(MeetingRepository.class);
+
+    private final MeetingShards shards;
     private final String jsonFilePathFromContentRoot;
     private final String jsonFilePathFromSourceRoot;
     private final ObjectMapper objectMapper;
+    private final NamePool namePool = new NamePool();
+    private final ParallelScan parallelScan;
+    private final RepositoryMetrics metrics;
+    private final ChangeFeed changeFeed;
+    private final boolean replica;
+    private final ChangeLogWriter changeLogWriter;
+    private final ChangeLogReplica changeLogReplica;
+    private final MeetingArchive archive;
+    private final MeetingArchiver archiver;
+    private final MeetingProperties.Load load;
+    private final AtomicLong loadedMeetings = new AtomicLong();
+    private volatile CompletableFuture<Void> loading = CompletableFuture.completedFuture(null);
+    private volatile boolean loadFailed;
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    private volatile long loadStarted;
+    private volatile long loadFinished;
 
     public MeetingRepository() {
+        this(new MeetingProperties());
+    }
+
+    public MeetingRepository(MeetingProperties properties) {
+        this(properties, Metrics.globalRegistry);
+    }
+
+    @Autowired
+    public MeetingRepository(MeetingProperties properties, MeterRegistry meterRegistry) {
+        this.shards = new MeetingShards(properties);
+        this.parallelScan = new ParallelScan(properties.getScan());
+        this.changeFeed = new ChangeFeed(properties.getFeed().getBufferSize());
+        this.shards.addListener(changeFeed);
         this.jsonFilePathFromContentRoot = "src/main/resources/json/meetings.json";
         this.jsonFilePathFromSourceRoot = "/json/meetings.json";
         this.objectMapper = new ObjectMapper()
                 .registerModule(new JavaTimeModule())
-                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.load = properties.getLoad();
+        this.metrics = new RepositoryMetrics(meterRegistry);
+        this.metrics.bindGauges(shards, namePool);
+
+        MeetingProperties.Replication replication = properties.getReplication();
+        this.replica = replication.getRole() == MeetingProperties.Replication.Role.REPLICA;
+        if (replica && replication.getLog().isBlank()) {
+            throw new IllegalStateException("meetings.replication.log should be set for the replica.");
+        }
+        this.changeLogReplica = replica
+                ? new ChangeLogReplica(Path.of(replication.getLog()), replication.getPollInterval(), this, objectMapper, meterRegistry)
+                : null;
+        this.changeLogWriter = !replica && !replication.getLog().isBlank()
+                ? new ChangeLogWriter(Path.of(replication.getLog()), replication.getMaxLogSize().toBytes(), changeFeed, shards,
+                objectMapper, meterRegistry)
+                : null;
+
+        MeetingProperties.Archive archiveProperties = properties.getArchive();
+        this.archive = archiveProperties.isEnabled()
+                ? new MeetingArchive(Path.of(archiveProperties.getDirectory()), archiveProperties.getSegmentSize(),
+                archiveProperties.getCachedSegments(), objectMapper, meterRegistry)
+                : null;
+        this.archiver = archive != null && !replica
+                ? new MeetingArchiver(shards, archive, archiveProperties.getAge(), archiveProperties.getInterval(), meterRegistry)
+                : null;
     }
 
     /**
      * Method allows to READ the meetings.
      * Depending on the parameter that was sent, filter to the result list is assigned.
      * E.g. it will filter meetings by description, AND e.g. type.
+     * The meetings are read from the latest snapshot of the store, without any locking.
+     * The filters are evaluated over the columnar representation of the meetings' list,
+     * and only the matching meetings are collected into the result list.
+     * Large lists are scanned in parallel chunks (see meetings.scan.* properties), the order of the meetings is kept.
+     * With several shards, the shards are scanned in parallel, and their matches are merged into the order of the store.
+     * If the archive is enabled, the store holds only the current, upcoming and recently finished meetings.
+     * A query with the startDate or the endDate reaches into history, so the matching archived meetings (see MeetingArchive)
+     * are returned before the meetings of the store - only the segments whose dates can match the range are read.
      *
      * @param description       - parameter allows to filter by description.
      *                          if the description is "Jono Java meeting", searching for
@@ -63,59 +150,244 @@ public class MeetingRepository {
                                  LocalDate startDate,
                                  LocalDate endDate,
                                  Integer minAttendees) {
-        return meetingList.stream()
-                .filter(meeting -> description == null || meeting.description().toLowerCase().contains(description.toLowerCase()))
-                .filter(meeting -> responsiblePerson == null || meeting.responsiblePerson().equals(responsiblePerson))
-                .filter(meeting -> category == null || meeting.meetingCategory().equals(Category.valueOf(category)))
-                .filter(meeting -> type == null || meeting.meetingType().equals(Type.valueOf(type)))
-                .filter(meeting -> startDate == null || meeting.startDate().isAfter(startDate.atStartOfDay()))
-                .filter(meeting -> endDate == null || meeting.endDate().isBefore(endDate.atTime(23, 59)))
-                .filter(meeting -> minAttendees == null || meeting.participants().size() >= minAttendees)
-                .collect(Collectors.toList());
+        return metrics.record("findAll", () -> {
+            checkLoaded();
+            MeetingColumns[] columns = shards.columns();
+            MeetingColumns.Filter[] filters = new MeetingColumns.Filter[columns.length];
+            for (int shard = 0; shard < columns.length; shard++) {
+                filters[shard] = columns[shard].filter(description, responsiblePerson, category, type, startDate, endDate, minAttendees);
+            }
+            List<Meeting> meetings = MeetingShards.merge(columns, filters, parallelScan.scan(columns, filters));
+            if (archive == null || (startDate == null && endDate == null)) {
+                return meetings;
+            }
+            List<Meeting> archived = findArchived(description, responsiblePerson, category, type, startDate, endDate, minAttendees);
+            if (archived.isEmpty()) {
+                return meetings;
+            }
+            archived.addAll(meetings);
+            return archived;
+        });
+    }
+
+    private List<Meeting> findArchived(String description,
+                                       String responsiblePerson,
+                                       String category,
+                                       String type,
+                                       LocalDate startDate,
+                                       LocalDate endDate,
+                                       Integer minAttendees) {
+        try {
+            return archive.findAll(description, responsiblePerson, category, type, startDate, endDate, minAttendees);
+        } catch (IOException e) {
+            throw archiveUnavailable(e);
+        }
+    }
+
+    private static ResponseStatusException archiveUnavailable(IOException e) {
+        log.warn("Unable to read the archive: {}", e.getMessage());
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Archived meetings cannot be read at the moment.");
+    }
+
+    /**
+     * Method moves the meetings ended before the cutoff from the store to the archive (see MeetingArchiver).
+     *
+     * @param cutoff - the meetings with the end date before it are archived.
+     * @return - returns the number of the archived meetings, 0 if this instance does not archive.
+     */
+    int archive(LocalDateTime cutoff) {
+        return archiver == null ? 0 : archiver.archive(cutoff);
     }
 
     /**
      * Method implemented to FIND the existing meeting by its name.
+     * If the meeting is not in the store, and the archive is enabled, the archived meeting of the name is returned
+     * (see MeetingArchive#find).
      *
      * @param name - the name of the meeting, represented in the String format.
      * @return - returns the optional list of meetings.
      */
     public Optional<Meeting> findByName(String name) {
-        return meetingList.stream()
-                .filter(meeting -> meeting.name().equals(name))
-                .findFirst();
+        return metrics.record("findByName", () -> {
+            checkLoaded();
+            Meeting meeting = shards.shard(name).snapshot().byName().get(name);
+            if (meeting != null || archive == null) {
+                return Optional.ofNullable(meeting);
+            }
+            try {
+                return archive.find(name);
+            } catch (IOException e) {
+                throw archiveUnavailable(e);
+            }
+        });
     }
 
+    /**
+     * Method implemented to COMPLETE the name of the meeting, e.g. for the meeting picker of the UI.
+     * The names are looked up in the prefix index of the latest snapshot (see NameIndex), which the store's writer
+     * maintains as the meetings are saved and deleted, so the lookup never scans the meetings.
+     *
+     * @param prefix - the beginning of the name, compared ignoring the case.
+     * @param limit  - the maximal number of the names returned.
+     * @return - returns the names of the meetings starting with the prefix, in alphabetical order ignoring the case.
+     */
+    public List<String> completeNames(String prefix, int limit) {
+        return metrics.record("completeNames", () -> {
+            checkLoaded();
+            return shards.complete(prefix, limit);
+        });
+    }
 
     /**
      * Method to SAVE/ADD new meeting(s) into the meetings list.
      * The method will necessarily add the responsible person into the participants list, even
      * if the responsible person is already added.
      * Worth to mention that meeting with the same naming will be overwritten.
+     * The name of an archived meeting cannot be taken by a new meeting (see checkNotArchived).
+     * Person names are canonicalized through the name pool, so repeating names share one instance.
      *
      * @param meetingDTO - the DTO representation of meeting class.
      *                   The data of the meetingDTO object is converted
      *                   to Meeting class object.
      */
     public void save(MeetingDTO meetingDTO) {
-        meetingList.removeIf(meeting -> meeting.name().equals(meetingDTO.name()));
+        save(meetingDTO, null);
+    }
+
+    /**
+     * Method to SAVE/ADD new meeting, the same way as the save method does, but only
+     * if the meeting is still of the expected version (see checkVersion).
+     * The new meeting gets version 1, the overwritten meeting gets the next version.
+     *
+     * @param meetingDTO      - the DTO representation of meeting class.
+     * @param expectedVersion - the version of the meeting to be overwritten, or null to save the meeting unconditionally.
+     */
+    public void save(MeetingDTO meetingDTO, Long expectedVersion) {
+        metrics.record("save", () -> {
+            checkWritable();
+            Meeting meeting = toMeeting(meetingDTO);
+            return shards.shard(meeting.name()).write(meetings -> {
+                Meeting current = meetings.get(meeting.name());
+                checkNotArchived(meeting.name());
+                checkVersion(current, expectedVersion);
+                put(meetings, meeting, current);
+                return null;
+            });
+        });
+    }
+
+    /**
+     * Method to SAVE/ADD the list of meetings at once, the same way as the save method does.
+     * All meetings of one shard are applied to the shard as one mutation, and become visible together.
+     * If a name of the shard's meetings is archived, none of them is saved (409 Conflict), but the meetings of the other shards are.
+     * The mutations of different shards are applied in parallel, and the method returns when all of them are published.
+     *
+     * @param meetingDTOList - the list of DTO representations of meeting class.
+     */
+    public void saveAll(List<MeetingDTO> meetingDTOList) {
+        metrics.record("saveAll", () -> {
+            checkWritable();
+            store(meetingDTOList, false);
+            return null;
+        });
+    }
+
+    /**
+     * Method saves the meetings by the writers of their shards.
+     *
+     * @param meetingDTOList - the meetings.
+     * @param skipArchived   - true to skip the meetings of the archived names (e.g. loaded, or imported from an export
+     *                       including the archive), false to refuse them (see checkNotArchived).
+     * @return - returns the number of the saved meetings.
+     */
+    private long store(List<MeetingDTO> meetingDTOList, boolean skipArchived) {
+        List<Meeting> meetingsToSave = meetingDTOList.stream().map(this::toMeeting).toList();
+        List<String> skipped = Collections.synchronizedList(new ArrayList<>());
+        shards.writeAll(meetingsToSave, (meetings, partition) -> {
+            if (!skipArchived) {
+                partition.forEach(meeting -> checkNotArchived(meeting.name()));
+            }
+            for (Meeting meeting : partition) {
+                if (skipArchived && isArchived(meeting.name())) {
+                    skipped.add(meeting.name());
+                } else {
+                    put(meetings, meeting, meetings.get(meeting.name()));
+                }
+            }
+        });
+        if (!skipped.isEmpty()) {
+            log.warn("{} meetings are not saved, their names are archived already: {}", skipped.size(),
+                    skipped.stream().limit(10).toList());
+        }
+        return meetingsToSave.size() - skipped.size();
+    }
+
+    /**
+     * The name of an archived meeting stays taken, so the archived meeting and the meetings of the store never share a name
+     * (until the archived meeting is deleted). It is checked only by the store's writer, together with the change itself,
+     * so a meeting being archived (see MeetingArchiver) cannot be saved again in between - the check is a lookup in memory.
+     */
+    private void checkNotArchived(String name) {
+        if (isArchived(name)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Meeting with such name is archived, please choose another name.");
+        }
+    }
+
+    private boolean isArchived(String name) {
+        return archive != null && archive.contains(name);
+    }
+
+    /**
+     * Saved (or overwritten) meeting is moved to the end of the store.
+     */
+    private static void put(Map<String, Meeting> meetings, Meeting meeting, Meeting current) {
+        long version = current == null ? 1 : current.version() + 1;
+        meetings.remove(meeting.name());
+        meetings.put(meeting.name(), withParticipants(meeting, meeting.participants(), version));
+    }
+
+    private Meeting toMeeting(MeetingDTO meetingDTO) {
         HashMap<String, LocalDateTime> participants = new HashMap<>();
 
         if (meetingDTO.participants() != null) {
-            participants = meetingDTO.participants();
+            meetingDTO.participants().forEach((participant, added) -> participants.put(namePool.intern(participant), added));
         }
 
-        participants.put(meetingDTO.responsiblePerson(), LocalDateTime.now().withSecond(0).withNano(0));
+        String responsiblePerson = namePool.intern(meetingDTO.responsiblePerson());
+        participants.put(responsiblePerson, LocalDateTime.now().withSecond(0).withNano(0));
 
         Meeting meeting = new Meeting(meetingDTO.name(),
-                meetingDTO.responsiblePerson(),
+                responsiblePerson,
                 meetingDTO.description(),
                 Category.valueOf(meetingDTO.meetingCategory()),
                 Type.valueOf(meetingDTO.meetingType()),
                 meetingDTO.startDate(),
                 meetingDTO.endDate(),
-                participants);
-        meetingList.add(meeting);
+                participants,
+                0,
+                meetingDTO.recurrence());
+        checkRecurrence(meeting);
+        return meeting;
+    }
+
+    /**
+     * The last occurrence of the series is computed by the store's writer for the columns of every snapshot (see MeetingColumns),
+     * so it is computed here first - a rule whose last occurrence is out of the range of the dates is refused
+     * before it reaches the store.
+     */
+    private static void checkRecurrence(Meeting meeting) {
+        if (meeting.recurrence() == null) {
+            return;
+        }
+        try {
+            LocalDateTime lastStart = MeetingColumns.lastStart(meeting);
+            if (lastStart != null) {
+                meeting.occurrence(lastStart);
+            }
+        } catch (DateTimeException | ArithmeticException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "The last occurrence of the meeting's recurrence is out of the range of the dates.");
+        }
     }
 
     /**
@@ -127,7 +399,51 @@ public class MeetingRepository {
      * @param responsiblePerson - name of the responsible person for particular meeting.
      */
     public boolean delete(String name, String responsiblePerson) {
-        return meetingList.removeIf(m -> m.name().equals(name) && m.responsiblePerson().equals(responsiblePerson));
+        return delete(name, responsiblePerson, null);
+    }
+
+    /**
+     * Method implemented to DELETE the meeting, the same way as the delete method does, but only
+     * if the meeting is still of the expected version (see checkVersion).
+     * If the meeting is not in the store, and the archive is enabled, the archived meeting of the name is deleted
+     * (see MeetingArchive#remove), so its name can be taken again.
+     *
+     * @param name              - name of the meeting, that is going to be deleted.
+     * @param responsiblePerson - name of the responsible person for particular meeting.
+     * @param expectedVersion   - the version of the meeting, or null to delete the meeting of any version.
+     */
+    public boolean delete(String name, String responsiblePerson, Long expectedVersion) {
+        return metrics.record("delete", () -> {
+            checkWritable();
+            String responsible = namePool.canonical(responsiblePerson);
+            Boolean deleted = shards.shard(name).write(meetings -> {
+                Meeting meeting = meetings.get(name);
+                if (meeting == null) {
+                    return null;
+                }
+                if (!meeting.responsiblePerson().equals(responsible)) {
+                    return false;
+                }
+                checkVersion(meeting, expectedVersion);
+                meetings.remove(name);
+                return true;
+            });
+            if (deleted != null || archive == null) {
+                return deleted != null && deleted;
+            }
+            try {
+                return archive.remove(name, meeting -> {
+                    if (!meeting.responsiblePerson().equals(responsiblePerson)) {
+                        return false;
+                    }
+                    checkVersion(meeting, expectedVersion);
+                    return true;
+                }) != null;
+            } catch (IOException e) {
+                log.warn("Unable to delete the archived meeting: {}", e.getMessage());
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Archived meetings cannot be changed at the moment.");
+            }
+        });
     }
 
     /**
@@ -142,22 +458,41 @@ public class MeetingRepository {
      * because they are already present)
      */
     public List<String> addParticipant(String name, List<String> participants) {
-        Meeting meeting = findByName(name)
-                .orElseThrow(() -> {
-                    throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Meeting with such name was not found");
-                });
-        Iterator<String> iterator = participants.iterator();
+        return addParticipant(name, participants, null);
+    }
+
+    /**
+     * Method implemented to ADD PARTICIPANTS to the meeting, the same way as the addParticipant method does, but only
+     * if the meeting is still of the expected version (see checkVersion).
+     *
+     * @param name            - the name of the meeting.
+     * @param participants    - list of the participant(s) names.
+     * @param expectedVersion - the version of the meeting, or null to change the meeting of any version.
+     * @return - returns the list of the duplicates attendees.
+     */
+    public List<String> addParticipant(String name, List<String> participants, Long expectedVersion) {
+        LocalDateTime added = LocalDateTime.now().withSecond(0).withNano(0);
+        return metrics.record("addParticipant", () -> writableShard(name).write(meetings -> {
+            Meeting meeting = getExisting(meetings, name);
+            checkVersion(meeting, expectedVersion);
+            HashMap<String, LocalDateTime> updatedParticipants = new HashMap<>(meeting.participants());
+            Iterator<String> iterator = participants.iterator();
 
-        while (iterator.hasNext()) {
-            String participant = iterator.next();
+            while (iterator.hasNext()) {
+                String participant = iterator.next();
 
-            if (!meeting.participants().containsKey(participant)) {
-                meeting.participants().put(participant, LocalDateTime.now().withSecond(0).withNano(0));
-                iterator.remove();
+                if (!updatedParticipants.containsKey(participant)) {
+                    updatedParticipants.put(namePool.intern(participant), added);
+                    iterator.remove();
+                }
             }
-        }
 
-        return participants;
+            if (updatedParticipants.size() != meeting.participants().size()) {
+                meetings.put(name, withParticipants(meeting, updatedParticipants, meeting.version() + 1));
+                metrics.participantsAdded(updatedParticipants.size() - meeting.participants().size());
+            }
+            return participants;
+        }));
     }
 
     /**
@@ -169,62 +504,673 @@ public class MeetingRepository {
      * @param participants - list of the participant(s) names.
      */
     public void removeParticipant(String name, List<String> participants) {
-        Meeting meeting = findByName(name)
-                .orElseThrow(() -> {
-                    throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Meeting with such name was not found");
-                });
+        removeParticipant(name, participants, null);
+    }
+
+    /**
+     * Method implemented to REMOVE PARTICIPANTS from the meeting, the same way as the removeParticipant method does, but only
+     * if the meeting is still of the expected version (see checkVersion).
+     *
+     * @param name            - the name of the meeting.
+     * @param participants    - list of the participant(s) names.
+     * @param expectedVersion - the version of the meeting, or null to change the meeting of any version.
+     */
+    public void removeParticipant(String name, List<String> participants, Long expectedVersion) {
+        metrics.record("removeParticipant", () -> writableShard(name).write(meetings -> {
+            Meeting meeting = getExisting(meetings, name);
+            checkVersion(meeting, expectedVersion);
+            HashMap<String, LocalDateTime> updatedParticipants = new HashMap<>(meeting.participants());
+
+            participants.stream()
+                    .map(namePool::canonical)
+                    .filter(p -> !meeting.responsiblePerson().equals(p))
+                    .forEach(updatedParticipants::remove);
+
+            if (updatedParticipants.size() != meeting.participants().size()) {
+                meetings.put(name, withParticipants(meeting, updatedParticipants, meeting.version() + 1));
+                metrics.participantsRemoved(meeting.participants().size() - updatedParticipants.size());
+            }
+            return null;
+        }));
+    }
+
+    /**
+     * The replica changes its meetings only by the change log of the primary, so the changes of the clients are refused.
+     * After a failed load the changes are refused too: the instance holds only a part of the meetings and does not save them
+     * on shutdown, so an accepted change would be lost - until the meetings are reloaded (see reload).
+     */
+    private void checkWritable() {
+        if (replica) {
+            throw new ResponseStatusException(HttpStatus.METHOD_NOT_ALLOWED,
+                    "This instance is a read-only replica, the meetings can be changed only on the primary.");
+        }
+        awaitLoaded();
+        if (loadFailed) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "The meetings could not be loaded completely, they cannot be changed until they are reloaded.");
+        }
+    }
+
+    /**
+     * The write arriving while the meetings are loaded in the background waits for the end of the load,
+     * so it is applied after the loaded meetings, and is not overwritten by them.
+     */
+    private void awaitLoaded() {
+        CompletableFuture<Void> loaded = loading;
+        if (loaded.isDone()) {
+            return;
+        }
+        try {
+            loaded.get(load.getMaxWriteWait().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw warmingUp();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw warmingUp();
+        } catch (ExecutionException e) {
+            // the load never completes exceptionally
+        }
+    }
+
+    /**
+     * The reads are refused until the meetings are loaded, instead of returning a part of them.
+     */
+    private void checkLoaded() {
+        if (!loading.isDone()) {
+            throw warmingUp();
+        }
+    }
+
+    private RetryLaterException warmingUp() {
+        return new RetryLaterException(HttpStatus.SERVICE_UNAVAILABLE,
+                "The meetings are being loaded (" + loadedMeetings.get() + " so far), please retry later.", Duration.ofSeconds(1));
+    }
+
+    /**
+     * Method checks that the meetings can be changed, and returns the shard of the meeting with the given name.
+     */
+    private MeetingStore writableShard(String name) {
+        checkWritable();
+        return shards.shard(name);
+    }
+
+    private static Meeting getExisting(Map<String, Meeting> meetings, String name) {
+        Meeting meeting = meetings.get(name);
+        if (meeting == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Meeting with such name was not found");
+        }
+        return meeting;
+    }
 
-        Stream<String> participantsToBeRemoved = participants.stream().filter(p -> meeting.participants().containsKey(p) && !meeting.responsiblePerson().equals(p));
-        participantsToBeRemoved.forEach(p -> meeting.participants().remove(p));
+    /**
+     * Compare-and-set check of the meeting's version. It is evaluated by the store's writer together with the change itself,
+     * so no other change of the meeting can happen in between, and no lock is needed.
+     * If the expected version is provided, the meeting has to exist and be of that version.
+     *
+     * @param meeting         - the current meeting, or null if it does not exist.
+     * @param expectedVersion - the expected version of the meeting, or null if the version is not checked.
+     */
+    private static void checkVersion(Meeting meeting, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return;
+        }
+        if (meeting == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Meeting of version " + expectedVersion + " does not exist anymore.");
+        }
+        if (meeting.version() != expectedVersion) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Meeting was changed in the meantime. Expected version " +
+                    expectedVersion + ", but the current version is " + meeting.version() + ".");
+        }
+    }
+
+    /**
+     * The meetings are shared with the published snapshots of the store, so the participants are never changed
+     * in place - the meeting is replaced with a copy holding the new participants.
+     */
+    private static Meeting withParticipants(Meeting meeting, HashMap<String, LocalDateTime> participants, long version) {
+        return new Meeting(meeting.name(),
+                meeting.responsiblePerson(),
+                meeting.description(),
+                meeting.meetingCategory(),
+                meeting.meetingType(),
+                meeting.startDate(),
+                meeting.endDate(),
+                participants,
+                version,
+                meeting.recurrence());
+    }
+
+    /**
+     * Method replaces all meetings of the replica with the meetings of the primary's change log, in the order of the primary.
+     * The store does not publish the meetings that ended up equal, so only the real differences reach the replica's change feed.
+     *
+     * @param meetings - the meetings of the primary, in the order of the primary's store.
+     */
+    void replicate(List<Meeting> meetings) {
+        List<Meeting> replicated = meetings.stream().map(this::intern).toList();
+        shards.writeAll(replicated, Meeting::name, (working, partition) -> {
+            new ArrayList<>(working.keySet()).forEach(working::remove);
+            for (Meeting meeting : partition) {
+                working.put(meeting.name(), meeting);
+            }
+        }, true);
+    }
+
+    /**
+     * Method applies the changes of the primary's change log to the replica, in their order.
+     * A meeting is moved to the end of the store the same way as on the primary: when it is saved, but not when only its participants change.
+     *
+     * @param events - the events of the primary's change feed.
+     */
+    void replicateChanges(List<MeetingEvent> events) {
+        List<MeetingEvent> replicated = events.stream()
+                .map(event -> event.meeting() == null ? event : new MeetingEvent(event.sequence(), event.type(), event.name(),
+                        event.version(), event.time(), intern(event.meeting())))
+                .toList();
+        shards.writeAll(replicated, MeetingEvent::name, (working, partition) -> {
+            for (MeetingEvent event : partition) {
+                if (event.type() == MeetingEvent.ChangeType.DELETED) {
+                    working.remove(event.name());
+                } else if (event.type() == MeetingEvent.ChangeType.PARTICIPANTS_CHANGED && working.containsKey(event.name())) {
+                    working.put(event.name(), event.meeting());
+                } else {
+                    working.remove(event.name());
+                    working.put(event.name(), event.meeting());
+                }
+            }
+        }, false);
+    }
+
+    /**
+     * Person names of the replicated meeting are canonicalized through the name pool, the same way as the saved ones.
+     */
+    private Meeting intern(Meeting meeting) {
+        HashMap<String, LocalDateTime> participants = new HashMap<>();
+        if (meeting.participants() != null) {
+            meeting.participants().forEach((participant, added) -> participants.put(namePool.intern(participant), added));
+        }
+        return new Meeting(meeting.name(),
+                namePool.intern(meeting.responsiblePerson()),
+                meeting.description(),
+                meeting.meetingCategory(),
+                meeting.meetingType(),
+                meeting.startDate(),
+                meeting.endDate(),
+                participants,
+                meeting.version(),
+                meeting.recurrence());
+    }
+
+    /**
+     * Method returns the aggregate statistics of the meetings (counts per category, type and month, average attendees).
+     * The statistics are maintained by the store's writer as the meetings are saved, deleted and their participants change,
+     * so the method only returns the statistics of the latest snapshot, and never rescans the meetings.
+     * With several shards, the statistics of the latest snapshots of the shards are added up.
+     *
+     * @return - returns the statistics, consistent with the meetings of the same snapshot (of every shard).
+     */
+    public MeetingStatistics statistics() {
+        return metrics.record("statistics", () -> {
+            checkLoaded();
+            return shards.statistics();
+        });
+    }
+
+    /**
+     * Method returns the feed of the changes of the meetings: every create, overwrite, delete and change of the participants
+     * is published to the feed as an event, after the change is visible to the readers.
+     */
+    public ChangeFeed changes() {
+        return changeFeed;
+    }
+
+    /**
+     * Method returns the statistics of the person names' pool (hit rate, approximate memory saved).
+     */
+    public NamePool.Stats namePoolStats() {
+        return namePool.stats();
+    }
+
+    /**
+     * Method returns the statistics of the store's writers (batch sizes, acknowledgement latency of the mutations),
+     * added up over all shards.
+     */
+    public MeetingStore.Stats writerStats() {
+        return shards.stats();
     }
 
     /**
      * Method that reads the data from .json and saves it into the list of the active meetings.
+     * The file is parsed without holding any lock, the meetings are then saved in batches (see readFromJson).
+     * The duration is recorded as the meetings.persistence timer (operation "load"), the progress is reported by loadStatus.
      *
      * @param sourceRoot - the source root of the file that data is taken from.
      *                   e.g. "/json/meetings.json"
      */
     public void readFromJsonFile(String sourceRoot) {
+        long start = System.nanoTime();
+        boolean success = false;
+        loadedMeetings.set(0);
+        loadStarted = start;
         try (InputStream inputStream = TypeReference.class.getResourceAsStream(sourceRoot)) {
-            List<MeetingDTO> meetingDTOList = objectMapper.readValue(inputStream, new TypeReference<>() {
-            });
-            meetingDTOList.forEach(this::save);
+            if (inputStream == null) {
+                throw new FileNotFoundException(sourceRoot);
+            }
+            readFromJson(inputStream);
+            success = true;
         } catch (IOException e) {
-            System.out.println("Unable to read any meetings: " + e.getMessage());
+            log.warn("Unable to read any meetings: {}", e.getMessage());
+        } finally {
+            loadFinished = System.nanoTime();
+            loadFailed = !success;
+            metrics.recordPersistence("load", success, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Method that reads the JSON array of meetings from the stream and saves them into the list of the active meetings.
+     * The array is parsed as a stream, and every meetings.load.batch-size meetings are saved as one batch,
+     * so only one batch of the meetings is held in memory, whatever the size of the data.
+     * The meetings whose names are archived already (e.g. left in the file by a crash after they were archived)
+     * are skipped with a warning, the archived meetings are kept.
+     *
+     * @param inputStream - the stream of the JSON data.
+     * @throws IOException - if the data cannot be read or parsed. The batches saved before are kept.
+     */
+    public void readFromJson(InputStream inputStream) throws IOException {
+        long meetings = readFromJson(inputStream, loadedMeetings::set);
+        log.info("Loaded {} meetings, name pool: {}", meetings, namePool.stats());
+    }
+
+    /**
+     * Method reads the JSON array of meetings from the stream, the same way as the readFromJson method does.
+     *
+     * @param inputStream - the stream of the JSON data.
+     * @param progress    - receives the number of the meetings saved so far, after every batch.
+     * @return - returns the number of the saved meetings.
+     */
+    long readFromJson(InputStream inputStream, LongConsumer progress) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            JsonToken token = parser.nextToken();
+            // a JSON array of the meetings, or the meetings one after another (NDJSON)
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            long read = 0;
+            long saved = 0;
+            List<MeetingDTO> batch = new ArrayList<>();
+            while (token == JsonToken.START_OBJECT) {
+                MeetingDTO meetingDTO = objectMapper.readValue(parser, MeetingDTO.class);
+                checkLoadable(meetingDTO, ++read);
+                batch.add(meetingDTO);
+                if (batch.size() >= load.getBatchSize()) {
+                    saved = storeBatch(batch, saved, progress);
+                }
+                token = parser.nextToken();
+            }
+            if (token != (array ? JsonToken.END_ARRAY : null)) {
+                throw new IOException("Unexpected " + token + " instead of the meeting number " + (read + 1) + ".");
+            }
+            return storeBatch(batch, saved, progress);
+        }
+    }
+
+    /**
+     * The loaded meetings are not validated as the created ones (e.g. they can be finished already),
+     * they are only checked to be complete enough to be stored.
+     */
+    private static void checkLoadable(MeetingDTO meetingDTO, long number) throws IOException {
+        String problem = null;
+        if (meetingDTO.name() == null || meetingDTO.name().isBlank()) {
+            problem = "has no name";
+        } else if (meetingDTO.responsiblePerson() == null || meetingDTO.responsiblePerson().isBlank()) {
+            problem = "has no responsible person";
+        } else if (meetingDTO.meetingCategory() == null
+                || Arrays.stream(Category.values()).noneMatch(category -> category.name().equals(meetingDTO.meetingCategory()))) {
+            problem = "has no valid category";
+        } else if (meetingDTO.meetingType() == null
+                || Arrays.stream(Type.values()).noneMatch(type -> type.name().equals(meetingDTO.meetingType()))) {
+            problem = "has no valid type";
+        } else if (meetingDTO.startDate() == null) {
+            problem = "has no start date";
+        }
+        if (problem != null) {
+            throw new IOException("The meeting number " + number + " " + problem + ".");
+        }
+    }
+
+    private long storeBatch(List<MeetingDTO> batch, long saved, LongConsumer progress) {
+        if (batch.isEmpty()) {
+            return saved;
+        }
+        saved += store(batch, true);
+        batch.clear();
+        progress.accept(saved);
+        return saved;
+    }
+
+    /**
+     * Method loads the meetings from the meetings.json file on its own thread. Until it ends, the reads are refused
+     * and the writes wait for it (see checkLoaded and awaitLoaded).
+     */
+    void readFromJsonFileInBackground(String sourceRoot) {
+        loadInBackground(() -> readFromJsonFile(sourceRoot));
+    }
+
+    /**
+     * Method runs the loading of the meetings on the "meeting-loader" thread, the reads and the writes wait for it meanwhile.
+     *
+     * @param load - the loading of the meetings.
+     * @return - returns the future completed when the loading ends.
+     */
+    CompletableFuture<Void> loadInBackground(Runnable load) {
+        CompletableFuture<Void> loaded = new CompletableFuture<>();
+        loading = loaded;
+        Thread.ofPlatform().name("meeting-loader").daemon().start(() -> {
+            try {
+                load.run();
+            } finally {
+                loaded.complete(null);
+            }
+        });
+        return loaded;
+    }
+
+    /**
+     * Method loads the meetings.json file again after its loading failed (e.g. once the file is readable again),
+     * so the instance can recover without a restart. The meetings of the failed load are removed first - the changes
+     * are refused after a failed load, so the store holds nothing else - and the file is loaded the same way as at the start,
+     * in the background if meetings.load.async is set. Once it is loaded, the changes are accepted, the meetings are saved
+     * on shutdown and the readiness is up again.
+     *
+     * @return - returns the progress of the loading: LOADING in the background, otherwise LOADED, or FAILED again.
+     * @throws ResponseStatusException - 405 on a replica, 409 if the loading has not failed or is being reloaded already.
+     */
+    public LoadStatus reload() {
+        return metrics.record("reload", () -> {
+            if (replica) {
+                throw new ResponseStatusException(HttpStatus.METHOD_NOT_ALLOWED,
+                        "This instance is a read-only replica, it loads the meetings from the change log of the primary.");
+            }
+            if (!reloading.compareAndSet(false, true)) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "The meetings are being reloaded already.");
+            }
+            try {
+                if (!loading.isDone() || !loadFailed) {
+                    throw new ResponseStatusException(HttpStatus.CONFLICT, "The meetings are not failed to load, so they are not reloaded.");
+                }
+                log.info("Reloading the meetings from {} after the failed load", jsonFilePathFromSourceRoot);
+                shards.writeAll(List.of(), Meeting::name, (working, partition) -> working.clear(), true);
+                if (load.isAsync()) {
+                    readFromJsonFileInBackground(jsonFilePathFromSourceRoot);
+                } else {
+                    readFromJsonFile(jsonFilePathFromSourceRoot);
+                }
+                return loadStatus();
+            } finally {
+                reloading.set(false);
+            }
+        });
+    }
+
+    /**
+     * Method returns the progress of the loading of the meetings from the JSON file.
+     */
+    public LoadStatus loadStatus() {
+        boolean done = loading.isDone();
+        LoadStatus.State state = !done ? LoadStatus.State.LOADING : loadFailed ? LoadStatus.State.FAILED : LoadStatus.State.LOADED;
+        long end = done ? loadFinished : System.nanoTime();
+        return new LoadStatus(state, loadedMeetings.get(), loadStarted == 0 ? Duration.ZERO : Duration.ofNanos(end - loadStarted));
+    }
+
+    /**
+     * Method imports the meetings from the stream while the application serves, the same way as the meetings.json file is loaded:
+     * the stream is parsed as it arrives, and every meetings.load.batch-size meetings are saved as one batch,
+     * so the memory used does not depend on the size of the upload. The meetings with the names already present are overwritten,
+     * the meetings with the archived names are skipped (e.g. those of an export including the archive).
+     * The duration is recorded as the meetings.persistence timer (operation "import").
+     *
+     * @param inputStream - the JSON array of the meetings, or the meetings one after another (NDJSON).
+     * @return - returns the number of the imported meetings and the rate of the import.
+     * @throws ResponseStatusException - if the stream cannot be parsed, or a meeting is not complete. The batches imported before are kept.
+     */
+    public ImportResult importMeetings(InputStream inputStream) {
+        return metrics.record("import", () -> {
+            checkWritable();
+            long start = System.nanoTime();
+            AtomicLong imported = new AtomicLong();
+            boolean success = false;
+            try {
+                readFromJson(inputStream, imported::set);
+                success = true;
+            } catch (IOException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "The import stopped after " + imported.get() + " meetings: " + e.getMessage());
+            } finally {
+                metrics.recordPersistence("import", success, System.nanoTime() - start);
+            }
+            ImportResult result = ImportResult.of(imported.get(), Duration.ofNanos(System.nanoTime() - start));
+            log.info("Imported {} meetings in {} ({} meetings/s)", result.meetings(), result.elapsed(), result.meetingsPerSecond());
+            return result;
+        });
+    }
+
+    /**
+     * Method returns the meetings of the latest snapshot of the store, in the order of the store, e.g. to be exported.
+     * The snapshot is immutable, so it can be written out for as long as needed while the writers go on.
+     * With several shards, it is the latest snapshot of every shard (see MeetingShards).
+     *
+     * @return - returns all meetings in memory (not the archived ones).
+     */
+    public List<Meeting> snapshot() {
+        return metrics.record("snapshot", () -> {
+            checkLoaded();
+            return shards.meetings();
+        });
+    }
+
+    /**
+     * Method returns all meetings to be exported: the meetings of the latest snapshot of the store (see snapshot),
+     * followed by the archived ones, if the archive is enabled. The archived meetings are read from the segments listed
+     * after the snapshot is taken, one segment at a time, as the meetings are written - so a meeting archived meanwhile
+     * can be exported twice (the import keeps one of them), but never is missing.
+     *
+     * @return - returns the meetings, in the order of the store, then in the order they were archived.
+     */
+    public Iterable<Meeting> exportSnapshot() {
+        return metrics.record("snapshot", () -> {
+            checkLoaded();
+            List<Meeting> meetings = shards.meetings();
+            if (archive == null) {
+                return meetings;
+            }
+            Iterable<Meeting> archived = archive.meetings();
+            return () -> new Iterator<>() {
+                private final Iterator<Meeting> store = meetings.iterator();
+                private Iterator<Meeting> segments;
+
+                @Override
+                public boolean hasNext() {
+                    if (store.hasNext()) {
+                        return true;
+                    }
+                    if (segments == null) {
+                        segments = archived.iterator();
+                    }
+                    return segments.hasNext();
+                }
+
+                @Override
+                public Meeting next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return store.hasNext() ? store.next() : segments.next();
+                }
+            };
+        });
+    }
+
+    /**
+     * Method writes the meetings to the stream one by one, so the whole output is never held in memory.
+     * The output can be imported again (see importMeetings), or used as the meetings.json file.
+     * The duration is recorded as the meetings.persistence timer (operation "export").
+     *
+     * @param meetings     - the meetings, e.g. the snapshot of the store (see exportSnapshot).
+     * @param outputStream - the stream, which is flushed but not closed.
+     * @param ndjson       - true for one meeting per line (NDJSON), false for the JSON array of the meetings.
+     * @throws IOException - if the stream cannot be written, or an archived meeting cannot be read.
+     */
+    public void export(Iterable<Meeting> meetings, OutputStream outputStream, boolean ndjson) throws IOException {
+        long start = System.nanoTime();
+        boolean success = false;
+        // the generator flushes its buffer as it fills up, not after every meeting
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            generator.setRootValueSeparator(null);
+            if (!ndjson) {
+                generator.writeStartArray();
+            }
+            for (Meeting meeting : meetings) {
+                writer.writeValue(generator, meeting);
+                if (ndjson) {
+                    generator.writeRaw('\n');
+                }
+            }
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+            success = true;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            metrics.recordPersistence("export", success, System.nanoTime() - start);
         }
     }
 
     /**
      * Method that reads the data from meetings' list and saves it into the json file.
+     * The meetings are taken from the latest snapshot of the store, so the file is written without holding any lock,
+     * and a virtual thread blocked on the file is not pinned to its carrier thread.
+     * The duration is recorded as the meetings.persistence timer (operation "persist").
      *
      * @param contentRoot - the content root of the file that data is saved to.
      *                    e.g. "src/main/resources/json/meetings.json"
      */
     public void writeToJsonFile(String contentRoot) {
+        long start = System.nanoTime();
+        boolean success = false;
         try (OutputStream outputStream = new FileOutputStream(contentRoot)) {
-            List<Meeting> meetingsToWrite = this.findAll(null, null, null, null, null, null, null);
+            List<Meeting> meetingsToWrite = shards.meetings();
             objectMapper.writerWithDefaultPrettyPrinter().writeValue(outputStream, meetingsToWrite);
+            success = true;
         } catch (IOException e) {
-            System.out.println("Unable to save meetings' information: " + e.getMessage());
+            log.warn("Unable to save meetings' information: {}", e.getMessage());
+        } finally {
+            metrics.recordPersistence("persist", success, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Method starts the replication: the replica starts following the change log of the primary,
+     * the primary (if meetings.replication.log is set) starts writing its changes to the change log.
+     */
+    void startReplication() {
+        if (changeLogReplica != null) {
+            changeLogReplica.start();
+        }
+        if (changeLogWriter != null) {
+            changeLogWriter.start();
+        }
+    }
+
+    /**
+     * Method starts archiving the finished meetings, if the archive is enabled on the primary.
+     */
+    void startArchiving() {
+        if (archiver != null) {
+            archiver.start();
+        }
+    }
+
+    void stopReplication() {
+        if (changeLogReplica != null) {
+            changeLogReplica.close();
+        }
+        if (changeLogWriter != null) {
+            changeLogWriter.close();
         }
     }
 
     /**
      * PostConstruct that loads the data from the meetings.json (by default) file as the program starts.
      * The root for Post Construct is Source Root (defined in constructor).
+     * The replica does not read the file - it loads the meetings from the change log of the primary.
      */
     @PostConstruct
     private void init() {
-        readFromJsonFile(jsonFilePathFromSourceRoot);
+        if (!replica && load.isAsync()) {
+            readFromJsonFileInBackground(jsonFilePathFromSourceRoot);
+        } else if (!replica) {
+            readFromJsonFile(jsonFilePathFromSourceRoot);
+        }
+        startReplication();
+        startArchiving();
     }
 
     /**
      * PreDestroy that saves the data from the meetings list to the meetings.json (by default) file as the program finishes.
      * The root for Pre Destroy is Content Root (defined in constructor).
+     * The file belongs to the primary, so the replica does not write it.
      */
     @PreDestroy
     private void preDestroy() {
-        writeToJsonFile(jsonFilePathFromContentRoot);
+        if (archiver != null) {
+            archiver.close();
+        }
+        stopReplication();
+        if (!replica && !loading.isDone()) {
+            log.warn("The meetings were not loaded completely, so they are not saved to the file.");
+        } else if (!replica && loadFailed) {
+            log.warn("The loading of the meetings failed, so they are not saved to the file, which is kept as it was.");
+        } else if (!replica) {
+            writeToJsonFile(jsonFilePathFromContentRoot);
+        }
+        parallelScan.close();
+        shards.close();
+    }
+
+    /**
+     * Progress of the loading of the meetings from the JSON file.
+     *
+     * @param state    - LOADING while the meetings are loaded, LOADED when all are, FAILED if the file could not be read completely.
+     * @param meetings - the number of the meetings loaded so far.
+     * @param elapsed  - the time the loading has taken so far.
+     */
+    public record LoadStatus(State state, long meetings, Duration elapsed) {
+
+        public enum State {
+            LOADING,
+            LOADED,
+            FAILED
+        }
+    }
+
+    /**
+     * Result of the import of the meetings.
+     *
+     * @param meetings          - the number of the imported meetings.
+     * @param elapsed           - the time the import has taken.
+     * @param meetingsPerSecond - the rate of the import.
+     */
+    public record ImportResult(long meetings, Duration elapsed, long meetingsPerSecond) {
+
+        static ImportResult of(long meetings, Duration elapsed) {
+            long nanos = Math.max(1, elapsed.toNanos());
+            return new ImportResult(meetings, elapsed, meetings * 1_000_000_000L / nanos);
+        }
     }
 
 }
@@ -0,0 +1,287 @@
+package dev.edvinmichovic.meetingmanagement.repository;
+
+import dev.edvinmichovic.meetingmanagement.config.MeetingProperties;
+import dev.edvinmichovic.meetingmanagement.model.Meeting;
+import dev.edvinmichovic.meetingmanagement.model.MeetingStatistics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * MeetingShards partitions the meetings by the hash of their names across the configured number of stores (meetings.store.shards).
+ * Every shard is a MeetingStore with its own writer, snapshots, columns and statistics, so the changes of the meetings
+ * of different shards are applied in parallel, and every batch copies only the meetings of its shard.
+ * A change of one meeting goes to one shard, so it is still checked and applied atomically by the shard's writer.
+ * Reads of several shards take the latest snapshot of every shard - each one is consistent on its own, but together
+ * they are not one point in time. The shards share the positions' clock, so their meetings can be merged into the order
+ * of the store (the order in which the meetings were inserted).
+ * With one shard, the store behaves exactly as a single MeetingStore.
+ */
+final class MeetingShards implements AutoCloseable {
+
+    private final MeetingStore[] stores;
+    private final AtomicLong positions = new AtomicLong();
+
+    MeetingShards(MeetingProperties properties) {
+        int count = properties.getStore().getShards();
+        if (count < 1) {
+            throw new IllegalArgumentException("Number of the store's shards should be at least 1, but was " + count + ".");
+        }
+        this.stores = new MeetingStore[count];
+        for (int shard = 0; shard < count; shard++) {
+            String name = count == 1 ? "meeting-writer" : "meeting-writer-" + shard;
+            ThreadFactory writerThreads = properties.getVirtualThreads().isEnabled()
+                    ? Thread.ofVirtual().name(name).factory()
+                    : Thread.ofPlatform().name(name).daemon().factory();
+            stores[shard] = new MeetingStore(properties.getWriter(), writerThreads, positions::incrementAndGet);
+        }
+    }
+
+    int count() {
+        return stores.length;
+    }
+
+    /**
+     * Method returns the shard of the meeting with the given name.
+     */
+    MeetingStore shard(String name) {
+        return stores[index(name)];
+    }
+
+    private int index(String name) {
+        if (stores.length == 1) {
+            return 0;
+        }
+        int hash = name.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), stores.length);
+    }
+
+    /**
+     * Method splits the meetings by their shards, and applies the mutation to the meetings of every shard as one mutation
+     * of that shard. The mutations of the shards are applied in parallel, and the method returns when all of them are published.
+     * The positions of the list are reserved before, so the meetings inserted by the mutations (one per meeting of the list)
+     * keep the order of the list, even though the shards apply them in any order.
+     *
+     * @param meetings - the meetings.
+     * @param mutation - the mutation of the working copy of the shard, receiving the meetings of the shard in the order of the list.
+     */
+    void writeAll(List<Meeting> meetings, BiConsumer<Map<String, Meeting>, List<Meeting>> mutation) {
+        writeAll(meetings, Meeting::name, mutation, false);
+    }
+
+    /**
+     * Method applies the mutation to the items of every shard, the same way as the writeAll method does.
+     * Every item inserts at most one meeting.
+     *
+     * @param items       - the items (e.g. meetings, or the changes of the meetings).
+     * @param name        - the name of the meeting of the item, which decides the shard.
+     * @param mutation    - the mutation of the working copy of the shard, receiving the items of the shard in the order of the list.
+     * @param everyShard  - true if the mutation is applied to every shard, even without any items (e.g. to remove its meetings).
+     */
+    <E> void writeAll(List<E> items, Function<E, String> name,
+                      BiConsumer<Map<String, Meeting>, List<E>> mutation, boolean everyShard) {
+        long first = positions.getAndAdd(items.size()) + 1;
+        List<List<E>> partitions = new ArrayList<>(stores.length);
+        List<List<Long>> partitionPositions = new ArrayList<>(stores.length);
+        for (int shard = 0; shard < stores.length; shard++) {
+            partitions.add(new ArrayList<>());
+            partitionPositions.add(new ArrayList<>());
+        }
+        for (int i = 0; i < items.size(); i++) {
+            int shard = index(name.apply(items.get(i)));
+            partitions.get(shard).add(items.get(i));
+            partitionPositions.get(shard).add(first + i);
+        }
+
+        List<CompletableFuture<Object>> results = new ArrayList<>();
+        for (int shard = 0; shard < stores.length; shard++) {
+            List<E> partition = partitions.get(shard);
+            if (partition.isEmpty() && !everyShard) {
+                continue;
+            }
+            Iterator<Long> reserved = partitionPositions.get(shard).iterator();
+            results.add(stores[shard].submit(working -> {
+                mutation.accept(working, partition);
+                return null;
+            }, () -> reserved.hasNext() ? reserved.next() : positions.incrementAndGet()));
+        }
+        results.forEach(MeetingStore::await);
+    }
+
+    void addListener(MeetingStore.ChangeListener listener) {
+        for (MeetingStore store : stores) {
+            store.addListener(listener);
+        }
+    }
+
+    /**
+     * Method returns the columns of the latest snapshot of every shard.
+     */
+    MeetingColumns[] columns() {
+        MeetingColumns[] columns = new MeetingColumns[stores.length];
+        for (int shard = 0; shard < stores.length; shard++) {
+            columns[shard] = stores[shard].snapshot().columns();
+        }
+        return columns;
+    }
+
+    /**
+     * Method returns the meetings of all shards, in the order of the store.
+     */
+    List<Meeting> meetings() {
+        if (stores.length == 1) {
+            return stores[0].snapshot().meetings();
+        }
+        MeetingColumns[] columns = columns();
+        int[][] rows = new int[columns.length][];
+        for (int shard = 0; shard < columns.length; shard++) {
+            rows[shard] = new int[columns[shard].size()];
+            for (int row = 0; row < rows[shard].length; row++) {
+                rows[shard][row] = row;
+            }
+        }
+        return merge(columns, null, rows);
+    }
+
+    /**
+     * Method merges the matching rows of the shards into one list, in the order of the positions of the meetings.
+     * The rows of every shard are already in that order, so the lists are merged by taking the lowest position
+     * of the next rows of the shards - O(matches * shards), and the number of shards is small.
+     *
+     * @param columns - the columns of every shard.
+     * @param filters - the filters of the scan of every shard, or null (see MeetingColumns#materialize).
+     * @param matches - the ascending indexes of the matching rows of every shard.
+     * @return - returns the meetings of the matching rows.
+     */
+    static List<Meeting> merge(MeetingColumns[] columns, MeetingColumns.Filter[] filters, int[][] matches) {
+        if (columns.length == 1) {
+            return columns[0].materialize(matches[0], filters == null ? null : filters[0]);
+        }
+        int size = 0;
+        for (int[] shardMatches : matches) {
+            size += shardMatches.length;
+        }
+        List<Meeting> meetings = new ArrayList<>(size);
+        int[] next = new int[columns.length];
+        for (int merged = 0; merged < size; merged++) {
+            int lowest = -1;
+            long lowestPosition = Long.MAX_VALUE;
+            for (int shard = 0; shard < columns.length; shard++) {
+                if (next[shard] < matches[shard].length) {
+                    long position = columns[shard].position(matches[shard][next[shard]]);
+                    if (position < lowestPosition) {
+                        lowest = shard;
+                        lowestPosition = position;
+                    }
+                }
+            }
+            columns[lowest].collect(matches[lowest][next[lowest]++], filters == null ? null : filters[lowest], meetings);
+        }
+        return meetings;
+    }
+
+    /**
+     * Method finds the names starting with the prefix in the name indexes of the latest snapshots of all shards.
+     * Every shard returns at most the limit of its first names, which are merged in the order of the index.
+     *
+     * @param prefix - the prefix, compared ignoring the case.
+     * @param limit  - the maximal number of the names returned.
+     * @return - returns the names, in the order of their case-folded form.
+     */
+    List<String> complete(String prefix, int limit) {
+        if (stores.length == 1) {
+            return stores[0].snapshot().names().complete(prefix, limit);
+        }
+        List<String> names = new ArrayList<>();
+        for (MeetingStore store : stores) {
+            names.addAll(store.snapshot().names().complete(prefix, limit));
+        }
+        return names.stream()
+                .sorted(Comparator.comparing(NameIndex::fold).thenComparing(Comparator.naturalOrder()))
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Method returns the number of meetings of all shards.
+     */
+    int size() {
+        int size = 0;
+        for (MeetingStore store : stores) {
+            size += store.snapshot().meetings().size();
+        }
+        return size;
+    }
+
+    /**
+     * Method returns the number of the entries of the name indexes (see NameIndex) of all shards.
+     */
+    int names() {
+        int names = 0;
+        for (MeetingStore store : stores) {
+            names += store.snapshot().names().size();
+        }
+        return names;
+    }
+
+    /**
+     * Method returns the number of the responsible persons of the meetings of every shard, added up over all shards.
+     */
+    int persons() {
+        int persons = 0;
+        for (MeetingStore store : stores) {
+            persons += store.snapshot().columns().persons();
+        }
+        return persons;
+    }
+
+    /**
+     * Method returns the statistics of the meetings of all shards.
+     */
+    MeetingStatistics statistics() {
+        if (stores.length == 1) {
+            return stores[0].snapshot().statistics();
+        }
+        List<MeetingStatistics> statistics = new ArrayList<>(stores.length);
+        for (MeetingStore store : stores) {
+            statistics.add(store.snapshot().statistics());
+        }
+        return StatisticsAccumulator.combine(statistics);
+    }
+
+    /**
+     * Method returns the statistics of the writers of all shards.
+     */
+    MeetingStore.Stats stats() {
+        long batches = 0;
+        long mutations = 0;
+        long maxBatchSize = 0;
+        long ackLatencyNanos = 0;
+        long maxAckLatencyNanos = 0;
+        for (MeetingStore store : stores) {
+            MeetingStore.Stats stats = store.stats();
+            batches += stats.batches();
+            mutations += stats.mutations();
+            maxBatchSize = Math.max(maxBatchSize, stats.maxBatchSize());
+            ackLatencyNanos += stats.ackLatencyNanos();
+            maxAckLatencyNanos = Math.max(maxAckLatencyNanos, stats.maxAckLatencyNanos());
+        }
+        return new MeetingStore.Stats(batches, mutations, maxBatchSize, ackLatencyNanos, maxAckLatencyNanos);
+    }
+
+    @Override
+    public void close() {
+        for (MeetingStore store : stores) {
+            store.close();
+        }
+    }
+
+}
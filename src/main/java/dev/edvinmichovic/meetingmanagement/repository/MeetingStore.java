@@ -0,0 +1,591 @@
+package dev.edvinmichovic.meetingmanagement.repository;
+
+import dev.edvinmichovic.meetingmanagement.config.MeetingProperties;
+import dev.edvinmichovic.meetingmanagement.model.Meeting;
+import dev.edvinmichovic.meetingmanagement.model.MeetingStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * MeetingStore keeps the meetings as immutable snapshots.
+ * Readers never lock - they read the latest published snapshot, which is a consistent point-in-time view of the store.
+ * All mutations are queued and applied by a single writer, which drains the queue in batches:
+ * every batch is applied to a working copy of the latest snapshot, and the new snapshot is published at once.
+ * The structures of the snapshot are persistent - the meetings by name (see PersistentMap), their columns (see MeetingColumns)
+ * and the prefix index of the names (see NameIndex) are derived from the previous snapshot's ones by changing only the parts
+ * the batch touched, so a write costs the same whatever the number of the meetings, instead of copying all of them.
+ * The callers of the mutations wait until the snapshot containing their mutation is published.
+ * The writer also keeps the aggregate statistics of the meetings up to date with every change of the working copy,
+ * and publishes them with the snapshot, together with the prefix index of the names (see NameIndex).
+ * After a snapshot is published, and before the callers are acknowledged, the changes of the meetings are passed to the
+ * change listeners (e.g. the change feed) in the order they were applied.
+ * Every meeting inserted into the store is given a position from the positions' clock, which can be shared by several stores
+ * (the shards of MeetingShards), so the meetings of all of them can be merged into one order of insertion.
+ */
+public final class MeetingStore implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(MeetingStore.class);
+
+    private final int batchLimit;
+    private final Queue<Mutation<?>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final ThreadPoolExecutor writer;
+    private final LongSupplier positions;
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    // the last sequence of the rows (see MeetingColumns.Row), changed only by the writer
+    private long sequence;
+    private final StatisticsAccumulator statistics = new StatisticsAccumulator();
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder mutations = new LongAdder();
+    private final AtomicLong maxBatchSize = new AtomicLong();
+    private final LongAdder ackLatencyNanos = new LongAdder();
+    private final AtomicLong maxAckLatencyNanos = new AtomicLong();
+
+    MeetingStore(MeetingProperties.Writer properties) {
+        this(properties, Thread.ofPlatform().name("meeting-writer").daemon().factory());
+    }
+
+    /**
+     * @param properties    - configuration of the writer.
+     * @param writerThreads - factory of the writer's thread, e.g. of virtual threads.
+     *                      The writer takes no monitors, so a virtual writer thread is never pinned to its carrier.
+     */
+    MeetingStore(MeetingProperties.Writer properties, ThreadFactory writerThreads) {
+        this(properties, writerThreads, new AtomicLong()::incrementAndGet);
+    }
+
+    /**
+     * @param properties    - configuration of the writer.
+     * @param writerThreads - factory of the writer's thread.
+     * @param positions     - clock of the positions of the inserted meetings, called only by the writer.
+     */
+    MeetingStore(MeetingProperties.Writer properties, ThreadFactory writerThreads, LongSupplier positions) {
+        this.batchLimit = properties.getMaxBatchSize();
+        this.positions = positions;
+        this.writer = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), writerThreads);
+        this.writer.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Method registers the listener of the changes. It is called by the writer, so it should not block.
+     */
+    void addListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Method returns the latest published snapshot of the store.
+     */
+    Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Method queues the mutation for the writer and waits until it is applied and published.
+     * The mutation receives the working copy of the meetings (by name, in the order of the store) and
+     * must not change anything before it throws, because the working copy is shared by the whole batch.
+     * The meetings themselves are shared with the published snapshots, so they must be replaced, not changed.
+     * The working copy is changed only by put, putAll and remove (and the methods based on them: putIfAbsent, replace, clear),
+     * which are accounted in the statistics - compute, merge and replaceAll, and the changes through its views, are rejected.
+     *
+     * @param mutation - the mutation of the working copy.
+     * @return - returns the result of the mutation.
+     */
+    <T> T write(Function<Map<String, Meeting>, T> mutation) {
+        return await(submit(mutation));
+    }
+
+    /**
+     * Method queues the mutation for the writer, the same way as the write method does, but does not wait for it.
+     *
+     * @param mutation - the mutation of the working copy.
+     * @return - returns the result of the mutation, completed after the snapshot containing it is published.
+     */
+    <T> CompletableFuture<T> submit(Function<Map<String, Meeting>, T> mutation) {
+        return submit(mutation, positions);
+    }
+
+    /**
+     * Method queues the mutation for the writer, the same way as the submit method does, with the given positions
+     * of the meetings it inserts (e.g. positions reserved for a list of meetings saved across the shards).
+     *
+     * @param mutation  - the mutation of the working copy.
+     * @param positions - positions of the meetings inserted by the mutation, in the order of their insertion.
+     * @return - returns the result of the mutation, completed after the snapshot containing it is published.
+     */
+    <T> CompletableFuture<T> submit(Function<Map<String, Meeting>, T> mutation, LongSupplier positions) {
+        Mutation<T> queued = new Mutation<>(mutation, positions, System.nanoTime());
+        queue.add(queued);
+        if (draining.compareAndSet(false, true)) {
+            try {
+                writer.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // the store is closed, so nothing drains the queue anymore
+                draining.set(false);
+                Mutation<?> rejected;
+                while ((rejected = queue.poll()) != null) {
+                    rejected.result.completeExceptionally(new IllegalStateException("The meetings' store is closed.", e));
+                }
+            }
+        }
+        return queued.result;
+    }
+
+    /**
+     * Method waits for the result of the submitted mutation, rethrowing the exception of the mutation.
+     */
+    static <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the meetings' store.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void drain() {
+        try {
+            drainQueue();
+        } catch (Throwable e) {
+            // the writer must not stop with the flag set, otherwise the queued mutations would never be applied
+            log.error("The writer of the meetings' store failed", e);
+            draining.set(false);
+            if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+                writer.execute(this::drain);
+            }
+        }
+    }
+
+    private void drainQueue() {
+        List<Mutation<?>> batch = new ArrayList<>();
+        while (true) {
+            Mutation<?> mutation;
+            while (batch.size() < batchLimit && (mutation = queue.poll()) != null) {
+                batch.add(mutation);
+            }
+            if (batch.isEmpty()) {
+                draining.set(false);
+                // a mutation queued after the last poll, but before the flag was cleared, is drained here
+                if (queue.isEmpty() || !draining.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                apply(batch);
+            } catch (Throwable e) {
+                log.error("The batch of {} mutations failed, the snapshot is not published", batch.size(), e);
+                for (Mutation<?> failed : batch) {
+                    failed.result.completeExceptionally(e);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Method applies the batch and publishes the new snapshot. If anything but a mutation fails (e.g. building the snapshot),
+     * the statistics are restored, nothing is published and the exception is thrown, so the callers of the batch are failed.
+     */
+    private void apply(List<Mutation<?>> batch) {
+        WorkingCopy working = new WorkingCopy(snapshot);
+        List<Runnable> acknowledgements = new ArrayList<>(batch.size());
+        List<Change> changes = new ArrayList<>();
+        try {
+            for (Mutation<?> mutation : batch) {
+                working.insertPositions = mutation.positions;
+                acknowledgements.add(mutation.apply(working));
+                working.collectChanges(changes);
+            }
+            snapshot = working.toSnapshot(statistics.toStatistics());
+        } catch (Throwable e) {
+            working.revertStatistics();
+            throw e;
+        } finally {
+            working.release();
+        }
+        if (!changes.isEmpty()) {
+            for (ChangeListener listener : listeners) {
+                try {
+                    listener.changed(changes);
+                } catch (RuntimeException e) {
+                    log.error("Change listener {} failed", listener, e);
+                }
+            }
+        }
+
+        long now = System.nanoTime();
+        batches.increment();
+        mutations.add(batch.size());
+        maxBatchSize.accumulateAndGet(batch.size(), Math::max);
+        for (Mutation<?> mutation : batch) {
+            long latency = now - mutation.submittedAt;
+            ackLatencyNanos.add(latency);
+            maxAckLatencyNanos.accumulateAndGet(latency, Math::max);
+        }
+        acknowledgements.forEach(Runnable::run);
+    }
+
+    public Stats stats() {
+        return new Stats(batches.sum(), mutations.sum(), maxBatchSize.get(), ackLatencyNanos.sum(), maxAckLatencyNanos.get());
+    }
+
+    @Override
+    public void close() {
+        writer.shutdown();
+    }
+
+    /**
+     * Working copy of the batch, which accounts every put and remove in the statistics, and records the changes
+     * of the current mutation. It does not copy the snapshot: the meetings by name are a persistent map derived from
+     * the snapshot's one, and the changes of the rows are tracked for deriving the columns and the name index.
+     * The copy also tracks the order of the meetings: the meetings of the snapshot keep their positions, unless they are removed,
+     * and the inserted meetings are appended with the new positions - the same way as a LinkedHashMap orders them.
+     */
+    private final class WorkingCopy extends AbstractMap<String, Meeting> {
+
+        private Snapshot base;
+        private PersistentMap<String, MeetingColumns.Row> rows;
+        private Map<String, Change> mutationChanges = new LinkedHashMap<>();
+        // the new meetings of the snapshot's rows by their sequences, null for the removed ones
+        private SortedMap<Long, Meeting> changed = new TreeMap<>();
+        private Set<String> removedFromBase = new HashSet<>();
+        private LinkedHashMap<String, MeetingColumns.Row> inserted = new LinkedHashMap<>();
+        private List<Change> accounted = new ArrayList<>();
+        private LongSupplier insertPositions;
+
+        private WorkingCopy(Snapshot base) {
+            this.base = base;
+            this.rows = base.byName().rows;
+        }
+
+        @Override
+        public Meeting get(Object name) {
+            MeetingColumns.Row row = rows.get(name);
+            return row == null ? null : row.meeting();
+        }
+
+        @Override
+        public boolean containsKey(Object name) {
+            return rows.get(name) != null;
+        }
+
+        @Override
+        public int size() {
+            return rows.size();
+        }
+
+        @Override
+        public Meeting put(String name, Meeting meeting) {
+            MeetingColumns.Row previous = rows.get(name);
+            MeetingColumns.Row row;
+            if (previous == null) {
+                row = new MeetingColumns.Row(meeting, insertPositions.getAsLong(), ++sequence);
+                inserted.put(name, row);
+            } else {
+                row = new MeetingColumns.Row(meeting, previous.position(), previous.sequence());
+                if (inserted.containsKey(name)) {
+                    inserted.put(name, row);
+                } else {
+                    changed.put(row.sequence(), meeting);
+                }
+            }
+            rows = rows.put(name, row);
+            Meeting previousMeeting = previous == null ? null : previous.meeting();
+            account(previousMeeting, meeting);
+            record(name, previousMeeting, meeting);
+            return previousMeeting;
+        }
+
+        @Override
+        public Meeting remove(Object name) {
+            MeetingColumns.Row previous = rows.get(name);
+            if (previous == null) {
+                return null;
+            }
+            String key = (String) name;
+            Meeting meeting = previous.meeting();
+            rows = rows.remove(key);
+            if (inserted.remove(key) == null) {
+                changed.put(previous.sequence(), null);
+                removedFromBase.add(key);
+            }
+            account(meeting, null);
+            record(key, meeting, null);
+            return meeting;
+        }
+
+        @Override
+        public void clear() {
+            new ArrayList<>(keySet()).forEach(this::remove);
+        }
+
+        @Override
+        public Meeting compute(String name, BiFunction<? super String, ? super Meeting, ? extends Meeting> function) {
+            throw unsupported();
+        }
+
+        @Override
+        public Meeting computeIfAbsent(String name, Function<? super String, ? extends Meeting> function) {
+            throw unsupported();
+        }
+
+        @Override
+        public Meeting computeIfPresent(String name, BiFunction<? super String, ? super Meeting, ? extends Meeting> function) {
+            throw unsupported();
+        }
+
+        @Override
+        public Meeting merge(String name, Meeting meeting, BiFunction<? super Meeting, ? super Meeting, ? extends Meeting> function) {
+            throw unsupported();
+        }
+
+        @Override
+        public void replaceAll(BiFunction<? super String, ? super Meeting, ? extends Meeting> function) {
+            throw unsupported();
+        }
+
+        /**
+         * Method returns the read-only view of the meetings, in the order of the store: the meetings of the snapshot
+         * which are not removed, followed by the inserted ones.
+         */
+        @Override
+        public Set<Map.Entry<String, Meeting>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Map.Entry<String, Meeting>> iterator() {
+                    return Stream.concat(base.meetings().stream().map(Meeting::name).filter(name -> !inserted.containsKey(name)),
+                                    inserted.keySet().stream())
+                            .filter(WorkingCopy.this::containsKey)
+                            .<Map.Entry<String, Meeting>>map(name -> new SimpleImmutableEntry<>(name, get(name)))
+                            .iterator();
+                }
+
+                @Override
+                public int size() {
+                    return WorkingCopy.this.size();
+                }
+            };
+        }
+
+        private static UnsupportedOperationException unsupported() {
+            return new UnsupportedOperationException("The working copy of the meetings is changed only by put and remove.");
+        }
+
+        private void account(Meeting previous, Meeting current) {
+            statistics.replace(previous, current);
+            accounted.add(new Change(previous, current));
+        }
+
+        /**
+         * Method takes back the changes of the batch from the statistics, if the batch is not published.
+         */
+        private void revertStatistics() {
+            for (int i = accounted.size() - 1; i >= 0; i--) {
+                statistics.replace(accounted.get(i).current(), accounted.get(i).previous());
+            }
+            accounted.clear();
+        }
+
+        /**
+         * Method drops the bookkeeping of the batch, so the published snapshot, which shares the structures
+         * derived from the base snapshot, does not keep the base itself.
+         */
+        private void release() {
+            base = null;
+            rows = null;
+            mutationChanges = null;
+            changed = null;
+            removedFromBase = null;
+            inserted = null;
+            accounted = null;
+            insertPositions = null;
+        }
+
+        /**
+         * Method derives the snapshot of the working copy from the base snapshot: only the chunks of the columns holding
+         * the changed meetings, and of the name index holding the changed names, are rebuilt.
+         */
+        private Snapshot toSnapshot(MeetingStatistics statistics) {
+            NameIndex names = base.names().with(removedFromBase, inserted.keySet());
+            // the columns count the persons of the meetings once they are built, so they are built last
+            MeetingColumns columns = base.columns().with(changed, List.copyOf(inserted.values()));
+            List<Meeting> meetings = columns.meetings();
+            return new Snapshot(new ByName(rows, meetings), meetings, columns, statistics, names);
+        }
+
+        /**
+         * Changes of one meeting within the mutation are merged into one (e.g. remove and put of the overwritten meeting).
+         */
+        private void record(String name, Meeting previous, Meeting current) {
+            Change change = mutationChanges.get(name);
+            mutationChanges.put(name, new Change(change == null ? previous : change.previous(), current));
+        }
+
+        /**
+         * Method moves the changes of the applied mutation to the list, skipping the meetings that ended up unchanged
+         * (the same, or an equal meeting, e.g. replicated again).
+         */
+        private void collectChanges(List<Change> changes) {
+            for (Change change : mutationChanges.values()) {
+                if (!Objects.equals(change.previous(), change.current())) {
+                    changes.add(change);
+                }
+            }
+            mutationChanges.clear();
+        }
+    }
+
+    /**
+     * Change of one meeting.
+     *
+     * @param previous - the meeting before the change, or null if it was created.
+     * @param current  - the meeting after the change, or null if it was deleted.
+     */
+    record Change(Meeting previous, Meeting current) {
+    }
+
+    /**
+     * Listener of the changes of the store, called by the writer with the changes of every published snapshot.
+     */
+    interface ChangeListener {
+
+        void changed(List<Change> changes);
+    }
+
+    private static final class Mutation<T> {
+
+        private final Function<Map<String, Meeting>, T> mutation;
+        private final LongSupplier positions;
+        private final long submittedAt;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private Mutation(Function<Map<String, Meeting>, T> mutation, LongSupplier positions, long submittedAt) {
+            this.mutation = mutation;
+            this.positions = positions;
+            this.submittedAt = submittedAt;
+        }
+
+        /**
+         * Applies the mutation and returns the acknowledgement to be run after the snapshot is published.
+         */
+        private Runnable apply(Map<String, Meeting> working) {
+            try {
+                T value = mutation.apply(working);
+                return () -> result.complete(value);
+            } catch (RuntimeException e) {
+                return () -> result.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Immutable point-in-time view of the store.
+     *
+     * @param byName     - meetings by name, in the order of the store.
+     * @param meetings   - meetings in the order of the store.
+     * @param columns    - columnar representation of the meetings, used by the scans, with the positions of the meetings.
+     * @param statistics - aggregate statistics of the meetings.
+     * @param names      - prefix index of the meetings' names.
+     */
+    record Snapshot(ByName byName, List<Meeting> meetings, MeetingColumns columns, MeetingStatistics statistics, NameIndex names) {
+
+        static final Snapshot EMPTY = new Snapshot(new ByName(PersistentMap.empty(), List.of()), List.of(), MeetingColumns.EMPTY,
+                new StatisticsAccumulator().toStatistics(), NameIndex.EMPTY);
+    }
+
+    /**
+     * Read-only map of the snapshot's meetings by name. The lookups go to the persistent map of the rows,
+     * the iteration follows the order of the store.
+     */
+    static final class ByName extends AbstractMap<String, Meeting> {
+
+        private final PersistentMap<String, MeetingColumns.Row> rows;
+        private final List<Meeting> meetings;
+
+        private ByName(PersistentMap<String, MeetingColumns.Row> rows, List<Meeting> meetings) {
+            this.rows = rows;
+            this.meetings = meetings;
+        }
+
+        @Override
+        public Meeting get(Object name) {
+            MeetingColumns.Row row = rows.get(name);
+            return row == null ? null : row.meeting();
+        }
+
+        @Override
+        public boolean containsKey(Object name) {
+            return rows.get(name) != null;
+        }
+
+        @Override
+        public int size() {
+            return rows.size();
+        }
+
+        @Override
+        public Meeting remove(Object name) {
+            throw new UnsupportedOperationException("The snapshot of the meetings is read-only.");
+        }
+
+        @Override
+        public void clear() {
+            throw new UnsupportedOperationException("The snapshot of the meetings is read-only.");
+        }
+
+        @Override
+        public Set<Map.Entry<String, Meeting>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Map.Entry<String, Meeting>> iterator() {
+                    return meetings.stream().<Map.Entry<String, Meeting>>map(meeting -> new SimpleImmutableEntry<>(meeting.name(), meeting))
+                            .iterator();
+                }
+
+                @Override
+                public int size() {
+                    return meetings.size();
+                }
+            };
+        }
+    }
+
+    /**
+     * Statistics of the writer.
+     *
+     * @param batches            - number of applied batches.
+     * @param mutations          - number of applied mutations.
+     * @param maxBatchSize       - size of the largest batch.
+     * @param ackLatencyNanos    - total time from queueing the mutations to their acknowledgement.
+     * @param maxAckLatencyNanos - the longest time from queueing a mutation to its acknowledgement.
+     */
+    public record Stats(long batches, long mutations, long maxBatchSize, long ackLatencyNanos, long maxAckLatencyNanos) {
+
+        public double averageBatchSize() {
+            return batches == 0 ? 0.0 : (double) mutations / batches;
+        }
+
+        public double averageAckLatencyMillis() {
+            return mutations == 0 ? 0.0 : ackLatencyNanos / 1_000_000.0 / mutations;
+        }
+    }
+
+}
@@ -0,0 +1,230 @@
+package dev.edvinmichovic.meetingmanagement.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * NameIndex is the prefix index of the meetings' names: the names sorted by their case-folded form, so the names starting
+ * with a prefix are the consecutive entries from the first one not lower than the prefix. A lookup is a binary search
+ * followed by reading at most the requested number of entries - O(log n + limit), whatever the number of meetings.
+ * The index is immutable and belongs to the store's snapshot. The sorted entries are split into the chunks of about
+ * CHUNK_SIZE entries, and the writer derives the index of the next snapshot from the previous one by merging the names
+ * removed and inserted by the batch into the chunks they fall into - the other chunks are shared by both indexes.
+ */
+final class NameIndex {
+
+    static final NameIndex EMPTY = new NameIndex(new Chunk[0], 0);
+
+    /**
+     * Number of the entries of a new chunk - a chunk is split when it grows to twice as many.
+     */
+    static final int CHUNK_SIZE = 1024;
+
+    private static final Comparator<Entry> ORDER = Comparator.comparing(Entry::key).thenComparing(Entry::name);
+
+    private final Chunk[] chunks;
+    private final int size;
+
+    private NameIndex(Chunk[] chunks, int size) {
+        this.chunks = chunks;
+        this.size = size;
+    }
+
+    /**
+     * Method returns the case-folded form of the name (or of the prefix) the index is sorted by.
+     */
+    static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Method returns the index with the changes of the names.
+     *
+     * @param removed  - the names of the index to be removed.
+     * @param inserted - the names to be inserted, not present in the index (anymore).
+     * @return - returns the new index, or this one if there is no change.
+     */
+    NameIndex with(Set<String> removed, Collection<String> inserted) {
+        if (removed.isEmpty() && inserted.isEmpty()) {
+            return this;
+        }
+        Entry[] removals = entries(removed);
+        Entry[] additions = entries(inserted);
+        List<Chunk> result = new ArrayList<>(chunks.length + 1);
+        int nextRemoval = 0;
+        int nextAddition = 0;
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            // the changes up to the first entry of the next chunk belong to this one
+            Entry bound = chunk + 1 < chunks.length ? chunks[chunk + 1].first() : null;
+            int removalsFrom = nextRemoval;
+            int additionsFrom = nextAddition;
+            while (nextRemoval < removals.length && (bound == null || ORDER.compare(removals[nextRemoval], bound) < 0)) {
+                nextRemoval++;
+            }
+            while (nextAddition < additions.length && (bound == null || ORDER.compare(additions[nextAddition], bound) < 0)) {
+                nextAddition++;
+            }
+            if (removalsFrom == nextRemoval && additionsFrom == nextAddition) {
+                result.add(chunks[chunk]);
+            } else {
+                add(result, chunks[chunk].merge(removals, removalsFrom, nextRemoval, additions, additionsFrom, nextAddition));
+            }
+        }
+        if (chunks.length == 0) {
+            add(result, new Chunk(new String[0], new String[0]).merge(removals, 0, 0, additions, 0, additions.length));
+        }
+        return new NameIndex(result.toArray(Chunk[]::new), size - removals.length + additions.length);
+    }
+
+    /**
+     * Method finds the names starting with the prefix, ignoring the case.
+     *
+     * @param prefix - the prefix.
+     * @param limit  - the maximal number of the names returned.
+     * @return - returns the names, in the order of their case-folded form.
+     */
+    List<String> complete(String prefix, int limit) {
+        String key = fold(prefix);
+        List<String> result = new ArrayList<>(Math.min(limit, 16));
+        for (int chunk = firstChunk(key); chunk < chunks.length; chunk++) {
+            String[] keys = chunks[chunk].keys();
+            String[] names = chunks[chunk].names();
+            for (int row = chunks[chunk].first(key); row < keys.length; row++) {
+                if (result.size() >= limit || !keys[row].startsWith(key)) {
+                    return result;
+                }
+                result.add(names[row]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Method finds the first chunk whose last key is not lower than the given one - no chunk before it has the key.
+     */
+    private int firstChunk(String key) {
+        int low = 0;
+        int high = chunks.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            String[] keys = chunks[middle].keys();
+            if (keys[keys.length - 1].compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static Entry[] entries(Collection<String> names) {
+        return names.stream().map(name -> new Entry(fold(name), name)).sorted(ORDER).toArray(Entry[]::new);
+    }
+
+    /**
+     * Method adds the merged chunk, split into the chunks of CHUNK_SIZE entries if it has grown to twice as many,
+     * or joined with the previous one if it has shrunk to less than a quarter of them.
+     */
+    private static void add(List<Chunk> chunks, Chunk chunk) {
+        int length = chunk.keys().length;
+        if (length == 0) {
+            return;
+        }
+        Chunk previous = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+        if (previous != null && length < CHUNK_SIZE / 4 && previous.keys().length + length < 2 * CHUNK_SIZE) {
+            chunks.set(chunks.size() - 1, previous.join(chunk));
+            return;
+        }
+        int from = 0;
+        while (from < length) {
+            int to = length - from < 2 * CHUNK_SIZE ? length : from + CHUNK_SIZE;
+            chunks.add(to - from == length ? chunk
+                    : new Chunk(Arrays.copyOfRange(chunk.keys(), from, to), Arrays.copyOfRange(chunk.names(), from, to)));
+            from = to;
+        }
+    }
+
+    /**
+     * Chunk of the sorted entries of the index.
+     *
+     * @param keys  - the case-folded names, sorted.
+     * @param names - the names, aligned with the keys.
+     */
+    private record Chunk(String[] keys, String[] names) {
+
+        Entry first() {
+            return new Entry(keys[0], names[0]);
+        }
+
+        Chunk join(Chunk next) {
+            String[] joinedKeys = Arrays.copyOf(keys, keys.length + next.keys.length);
+            String[] joinedNames = Arrays.copyOf(names, names.length + next.names.length);
+            System.arraycopy(next.keys, 0, joinedKeys, keys.length, next.keys.length);
+            System.arraycopy(next.names, 0, joinedNames, names.length, next.names.length);
+            return new Chunk(joinedKeys, joinedNames);
+        }
+
+        /**
+         * Method finds the first row with the key not lower than the given one.
+         */
+        int first(String key) {
+            int row = Arrays.binarySearch(keys, key);
+            if (row < 0) {
+                return -row - 1;
+            }
+            // equal keys of the names differing only by case - the first one of them
+            while (row > 0 && keys[row - 1].equals(key)) {
+                row--;
+            }
+            return row;
+        }
+
+        /**
+         * Method returns the chunk without the given range of the sorted removals, and with the given range
+         * of the sorted additions, in one merge pass.
+         */
+        Chunk merge(Entry[] removals, int removalsFrom, int removalsTo, Entry[] additions, int additionsFrom, int additionsTo) {
+            int size = names.length - (removalsTo - removalsFrom) + (additionsTo - additionsFrom);
+            String[] mergedKeys = new String[size];
+            String[] mergedNames = new String[size];
+            int row = 0;
+            int removal = removalsFrom;
+            int next = additionsFrom;
+            for (int i = 0; i < names.length; i++) {
+                if (removal < removalsTo && removals[removal].name().equals(names[i])) {
+                    removal++;
+                    continue;
+                }
+                while (next < additionsTo && additions[next].isBefore(keys[i], names[i])) {
+                    mergedKeys[row] = additions[next].key();
+                    mergedNames[row++] = additions[next++].name();
+                }
+                mergedKeys[row] = keys[i];
+                mergedNames[row++] = names[i];
+            }
+            for (; next < additionsTo; next++) {
+                mergedKeys[row] = additions[next].key();
+                mergedNames[row++] = additions[next].name();
+            }
+            return new Chunk(mergedKeys, mergedNames);
+        }
+    }
+
+    private record Entry(String key, String name) {
+
+        boolean isBefore(String otherKey, String otherName) {
+            int order = key.compareTo(otherKey);
+            return order < 0 || (order == 0 && name.compareTo(otherName) < 0);
+        }
+    }
+
+}
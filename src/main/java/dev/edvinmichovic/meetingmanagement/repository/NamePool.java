@@ -0,0 +1,133 @@
+package dev.edvinmichovic.meetingmanagement.repository;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * NamePool is a canonicalizing table for person names (responsible persons and participants).
+ * The same names repeat across many meetings, so every meeting that refers to a name shares
+ * one String instance instead of keeping its own copy.
+ * Entries are weakly referenced: once no meeting refers to a name anymore, it is dropped from the pool.
+ * The pool is bounded - when it is full, new names are simply not canonicalized.
+ */
+public class NamePool {
+
+    public static final int DEFAULT_MAX_SIZE = 100_000;
+
+    private final Map<String, WeakReference<String>> pool = new WeakHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final int maxSize;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+
+    public NamePool() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public NamePool(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Method returns the canonical instance of the name, adding the name to the pool if it is not present yet.
+     *
+     * @param name - the name to be canonicalized, can be null.
+     * @return - returns the pooled instance equal to the name (or the name itself, if the pool is full).
+     */
+    public String intern(String name) {
+        if (name == null) {
+            return null;
+        }
+        lock.lock();
+        try {
+            String canonical = get(name);
+            if (canonical != null) {
+                hits.increment();
+                if (canonical != name) {
+                    bytesSaved.add(estimateRetainedSize(name));
+                }
+                return canonical;
+            }
+            misses.increment();
+            if (pool.size() < maxSize) {
+                pool.put(name, new WeakReference<>(name));
+            }
+            return name;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Method returns the canonical instance of the name without adding it to the pool.
+     * Useful for the lookups (e.g. filters), so that stored names are compared by reference first.
+     *
+     * @param name - the name to be looked up, can be null.
+     * @return - returns the pooled instance, or the name itself if it is not pooled.
+     */
+    public String canonical(String name) {
+        if (name == null) {
+            return null;
+        }
+        lock.lock();
+        try {
+            String canonical = get(name);
+            return canonical != null ? canonical : name;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Stats stats() {
+        lock.lock();
+        try {
+            return new Stats(hits.sum(), misses.sum(), pool.size(), bytesSaved.sum());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String get(String name) {
+        WeakReference<String> reference = pool.get(name);
+        return reference != null ? reference.get() : null;
+    }
+
+    /**
+     * Approximate shallow size of a String and its backing array on a 64-bit JVM with compressed oops:
+     * 24 bytes of String header and fields, 16 bytes of array header, and the characters
+     * (1 byte each for Latin-1 strings, 2 bytes otherwise), aligned to 8 bytes.
+     */
+    static long estimateRetainedSize(String name) {
+        int bytesPerChar = name.chars().allMatch(c -> c < 256) ? 1 : 2;
+        long arraySize = 16 + (long) name.length() * bytesPerChar;
+        return 24 + ((arraySize + 7) & ~7L);
+    }
+
+    /**
+     * Statistics of the pool.
+     *
+     * @param hits       - number of names that were already pooled.
+     * @param misses     - number of names that were not pooled yet.
+     * @param size       - number of names currently pooled.
+     * @param bytesSaved - approximate number of bytes saved by dropping duplicate copies.
+     */
+    public record Stats(long hits, long misses, int size, long bytesSaved) {
+
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d names pooled, hit rate %.1f%%, ~%d KB saved",
+                    size, hitRate() * 100, bytesSaved / 1024);
+        }
+    }
+
+}
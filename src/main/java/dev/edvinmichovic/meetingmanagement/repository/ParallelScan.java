@@ -0,0 +1,149 @@
+package dev.edvinmichovic.meetingmanagement.repository;
+
+import dev.edvinmichovic.meetingmanagement.config.MeetingProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * ParallelScan executes the scans of the meetings' columns.
+ * Small stores are scanned sequentially on the calling thread. From the configured threshold, the rows are split
+ * into chunks which are scanned on a dedicated fork-join pool, so that the request threads do not compete
+ * for the common pool. Matches of the chunks are concatenated in the order of the rows.
+ * The shards of the store are scanned the same way: from the threshold (of all shards together), every shard is scanned
+ * by its own task on the pool, and larger shards are split into chunks too.
+ */
+final class ParallelScan implements AutoCloseable {
+
+    /**
+     * Chunks smaller than that are not split any further.
+     */
+    private static final int MIN_CHUNK_SIZE = 8_192;
+
+    private final int threshold;
+    private final int parallelism;
+    private final ForkJoinPool pool;
+
+    ParallelScan(MeetingProperties.Scan properties) {
+        this.threshold = properties.getParallelThreshold();
+        this.parallelism = properties.getParallelism();
+        this.pool = parallelism > 1 ? new ForkJoinPool(parallelism, ParallelScan::newWorker, null, false) : null;
+    }
+
+    int[] scan(MeetingColumns columns, MeetingColumns.Filter filter) {
+        int size = columns.size();
+        if (pool == null || size < threshold) {
+            return columns.scan(filter, 0, size);
+        }
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, size / (parallelism * 4));
+        return pool.invoke(new ScanTask(columns, filter, 0, size, chunkSize));
+    }
+
+    /**
+     * Method scans the columns of all shards.
+     *
+     * @param shards  - the columns of the shards.
+     * @param filters - the filters prepared for the columns of every shard.
+     * @return - returns the ascending indexes of the matching rows of every shard.
+     */
+    int[][] scan(MeetingColumns[] shards, MeetingColumns.Filter[] filters) {
+        if (shards.length == 1) {
+            return new int[][]{scan(shards[0], filters[0])};
+        }
+        int size = 0;
+        for (MeetingColumns columns : shards) {
+            size += columns.size();
+        }
+        if (pool == null || size < threshold) {
+            int[][] matches = new int[shards.length][];
+            for (int shard = 0; shard < shards.length; shard++) {
+                matches[shard] = shards[shard].scan(filters[shard], 0, shards[shard].size());
+            }
+            return matches;
+        }
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, size / (parallelism * 4));
+        return pool.invoke(new FanOutTask(shards, filters, chunkSize));
+    }
+
+    int parallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("meeting-scan-" + thread.getPoolIndex());
+        return thread;
+    }
+
+    private static final class FanOutTask extends RecursiveTask<int[][]> {
+
+        private final MeetingColumns[] shards;
+        private final MeetingColumns.Filter[] filters;
+        private final int chunkSize;
+
+        private FanOutTask(MeetingColumns[] shards, MeetingColumns.Filter[] filters, int chunkSize) {
+            this.shards = shards;
+            this.filters = filters;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected int[][] compute() {
+            List<ScanTask> tasks = new ArrayList<>(shards.length);
+            for (int shard = 0; shard < shards.length; shard++) {
+                tasks.add(new ScanTask(shards[shard], filters[shard], 0, shards[shard].size(), chunkSize));
+            }
+            invokeAll(tasks);
+            int[][] matches = new int[shards.length][];
+            for (int shard = 0; shard < shards.length; shard++) {
+                matches[shard] = tasks.get(shard).join();
+            }
+            return matches;
+        }
+    }
+
+    private static final class ScanTask extends RecursiveTask<int[]> {
+
+        private final MeetingColumns columns;
+        private final MeetingColumns.Filter filter;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        private ScanTask(MeetingColumns columns, MeetingColumns.Filter filter, int from, int to, int chunkSize) {
+            this.columns = columns;
+            this.filter = filter;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= chunkSize) {
+                return columns.scan(filter, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask left = new ScanTask(columns, filter, from, middle, chunkSize);
+            left.fork();
+            int[] rightMatches = new ScanTask(columns, filter, middle, to, chunkSize).compute();
+            int[] leftMatches = left.join();
+
+            int[] matches = new int[leftMatches.length + rightMatches.length];
+            System.arraycopy(leftMatches, 0, matches, 0, leftMatches.length);
+            System.arraycopy(rightMatches, 0, matches, leftMatches.length, rightMatches.length);
+            return matches;
+        }
+    }
+
+}
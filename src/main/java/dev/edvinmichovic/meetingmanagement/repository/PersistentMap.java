@@ -0,0 +1,272 @@
+package dev.edvinmichovic.meetingmanagement.repository;
+
+import java.util.Arrays;
+
+/**
+ * PersistentMap is an immutable hash map - a hash array mapped trie. Every change returns a new map, which shares
+ * the whole trie with the previous one except for the path to the changed key, so a change costs O(log32 n) instead of
+ * a copy of the map. The snapshots of the store keep their meetings by name in it (see MeetingStore), so the writer
+ * derives the map of the next snapshot from the previous one without copying all of the meetings.
+ * The keys and the values must not be null.
+ */
+final class PersistentMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(BitmapNode.EMPTY, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(Object key) {
+        return key == null ? null : (V) root.get(key, hash(key), 0);
+    }
+
+    /**
+     * Method returns the map with the value of the key.
+     *
+     * @param key   - the key.
+     * @param value - the value of the key.
+     * @return - returns the new map, or this one if the key already has the value.
+     */
+    PersistentMap<K, V> put(K key, V value) {
+        boolean[] added = new boolean[1];
+        Node changed = root.put(key, value, hash(key), 0, added);
+        return changed == root ? this : new PersistentMap<>(changed, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Method returns the map without the key.
+     *
+     * @param key - the key.
+     * @return - returns the new map, or this one if the map does not contain the key.
+     */
+    PersistentMap<K, V> remove(Object key) {
+        if (key == null) {
+            return this;
+        }
+        Node changed = root.remove(key, hash(key), 0);
+        if (changed == root) {
+            return this;
+        }
+        return changed == null ? empty() : new PersistentMap<>(changed, size - 1);
+    }
+
+    private static int hash(Object key) {
+        int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    private abstract static class Node {
+
+        abstract Object get(Object key, int hash, int shift);
+
+        abstract Node put(Object key, Object value, int hash, int shift, boolean[] added);
+
+        /**
+         * @return - returns the node without the key, this one if it does not contain the key, or null if it is empty.
+         */
+        abstract Node remove(Object key, int hash, int shift);
+    }
+
+    /**
+     * Node of the trie, holding at most 32 slots selected by 5 bits of the hash. Every present slot is either an entry
+     * (the key and the value) or a child node (null and the node) - the bitmap marks the present slots, so the array keeps
+     * only them.
+     */
+    private static final class BitmapNode extends Node {
+
+        private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        private final int bitmap;
+        private final Object[] slots;
+
+        private BitmapNode(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        @Override
+        Object get(Object key, int hash, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            int index = index(bit);
+            Object slotKey = slots[index];
+            Object slotValue = slots[index + 1];
+            if (slotKey == null) {
+                return ((Node) slotValue).get(key, hash, shift + BITS);
+            }
+            return key.equals(slotKey) ? slotValue : null;
+        }
+
+        @Override
+        Node put(Object key, Object value, int hash, int shift, boolean[] added) {
+            int bit = bit(hash, shift);
+            int index = index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] inserted = new Object[slots.length + 2];
+                System.arraycopy(slots, 0, inserted, 0, index);
+                inserted[index] = key;
+                inserted[index + 1] = value;
+                System.arraycopy(slots, index, inserted, index + 2, slots.length - index);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, inserted);
+            }
+            Object slotKey = slots[index];
+            Object slotValue = slots[index + 1];
+            if (slotKey == null) {
+                Node child = (Node) slotValue;
+                Node changed = child.put(key, value, hash, shift + BITS, added);
+                return changed == child ? this : with(index, null, changed);
+            }
+            if (key.equals(slotKey)) {
+                return slotValue == value ? this : with(index, slotKey, value);
+            }
+            added[0] = true;
+            return with(index, null, node(slotKey, slotValue, key, value, hash, shift + BITS));
+        }
+
+        @Override
+        Node remove(Object key, int hash, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int index = index(bit);
+            Object slotKey = slots[index];
+            Object slotValue = slots[index + 1];
+            if (slotKey == null) {
+                Node child = (Node) slotValue;
+                Node changed = child.remove(key, hash, shift + BITS);
+                if (changed == child) {
+                    return this;
+                }
+                return changed == null ? without(bit, index) : with(index, null, changed);
+            }
+            return key.equals(slotKey) ? without(bit, index) : this;
+        }
+
+        private BitmapNode with(int index, Object key, Object value) {
+            Object[] changed = slots.clone();
+            changed[index] = key;
+            changed[index + 1] = value;
+            return new BitmapNode(bitmap, changed);
+        }
+
+        private BitmapNode without(int bit, int index) {
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] removed = new Object[slots.length - 2];
+            System.arraycopy(slots, 0, removed, 0, index);
+            System.arraycopy(slots, index + 2, removed, index, slots.length - index - 2);
+            return new BitmapNode(bitmap & ~bit, removed);
+        }
+
+        private int index(int bit) {
+            return 2 * Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        private static int bit(int hash, int shift) {
+            return 1 << ((hash >>> shift) & MASK);
+        }
+
+        /**
+         * Method returns the node of two entries with the same bits of the hash above the shift.
+         */
+        private static Node node(Object key1, Object value1, Object key2, Object value2, int hash2, int shift) {
+            int hash1 = hash(key1);
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1, new Object[]{key1, value1, key2, value2});
+            }
+            boolean[] added = new boolean[1];
+            return EMPTY.put(key1, value1, hash1, shift, added).put(key2, value2, hash2, shift, added);
+        }
+    }
+
+    /**
+     * Node of the entries with the same hash, searched linearly.
+     */
+    private static final class CollisionNode extends Node {
+
+        private final int hash;
+        private final Object[] entries;
+
+        private CollisionNode(int hash, Object[] entries) {
+            this.hash = hash;
+            this.entries = entries;
+        }
+
+        @Override
+        Object get(Object key, int hash, int shift) {
+            int index = find(key);
+            return index < 0 ? null : entries[index + 1];
+        }
+
+        @Override
+        Node put(Object key, Object value, int hash, int shift, boolean[] added) {
+            if (hash != this.hash) {
+                // the node becomes the child of a bitmap node, which the different hash is put into
+                BitmapNode parent = new BitmapNode(BitmapNode.bit(this.hash, shift), new Object[]{null, this});
+                return parent.put(key, value, hash, shift, added);
+            }
+            int index = find(key);
+            if (index >= 0) {
+                if (entries[index + 1] == value) {
+                    return this;
+                }
+                Object[] changed = entries.clone();
+                changed[index + 1] = value;
+                return new CollisionNode(hash, changed);
+            }
+            Object[] inserted = Arrays.copyOf(entries, entries.length + 2);
+            inserted[entries.length] = key;
+            inserted[entries.length + 1] = value;
+            added[0] = true;
+            return new CollisionNode(hash, inserted);
+        }
+
+        @Override
+        Node remove(Object key, int hash, int shift) {
+            int index = find(key);
+            if (index < 0) {
+                return this;
+            }
+            if (entries.length == 2) {
+                return null;
+            }
+            Object[] removed = new Object[entries.length - 2];
+            System.arraycopy(entries, 0, removed, 0, index);
+            System.arraycopy(entries, index + 2, removed, index, entries.length - index - 2);
+            return new CollisionNode(hash, removed);
+        }
+
+        private int find(Object key) {
+            for (int index = 0; index < entries.length; index += 2) {
+                if (key.equals(entries[index])) {
+                    return index;
+                }
+            }
+            return -1;
+        }
+    }
+
+}
@@ -0,0 +1,145 @@
+package dev.edvinmichovic.meetingmanagement.repository;
+
+import io.micrometer.core.instrument.*;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * RepositoryMetrics records the metrics of MeetingRepository into the Micrometer registry:
+ * <ul>
+ *     <li>meetings.repository - timer (with the percentile histogram) of every operation, tagged by the operation
+ *     and its outcome (success, the HTTP status of the ResponseStatusException, or error).</li>
+ *     <li>meetings.participants.changed - counter of the added and removed participants.</li>
+ *     <li>meetings.persistence - timer of loading and persisting the JSON file.</li>
+ *     <li>gauges of the store (meetings, participants, index sizes), the name pool and the store's writer.</li>
+ * </ul>
+ * Timers are cached per operation and outcome, so recording an operation does not look up the registry.
+ */
+final class RepositoryMetrics {
+
+    static final String OPERATION_TIMER = "meetings.repository";
+    static final String PERSISTENCE_TIMER = "meetings.persistence";
+    static final String PARTICIPANTS_COUNTER = "meetings.participants.changed";
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Counter participantsAdded;
+    private final Counter participantsRemoved;
+
+    RepositoryMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.participantsAdded = Counter.builder(PARTICIPANTS_COUNTER)
+                .description("Participants added to the meetings")
+                .tag("change", "added")
+                .register(registry);
+        this.participantsRemoved = Counter.builder(PARTICIPANTS_COUNTER)
+                .description("Participants removed from the meetings")
+                .tag("change", "removed")
+                .register(registry);
+    }
+
+    /**
+     * Method times the operation of the repository, the outcome is taken from the exception thrown (if any).
+     *
+     * @param operation - the name of the operation, e.g. "findAll".
+     * @param action    - the operation itself.
+     * @return - returns the result of the operation.
+     */
+    <T> T record(String operation, Supplier<T> action) {
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            return action.get();
+        } catch (ResponseStatusException e) {
+            outcome = String.valueOf(e.getStatusCode().value());
+            throw e;
+        } catch (RuntimeException | Error e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            timer(OPERATION_TIMER, operation, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Method records the duration of loading ("load") or persisting ("persist") the meetings.
+     */
+    void recordPersistence(String operation, boolean success, long nanos) {
+        timer(PERSISTENCE_TIMER, operation, success ? "success" : "error").record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void participantsAdded(int count) {
+        participantsAdded.increment(count);
+    }
+
+    void participantsRemoved(int count) {
+        participantsRemoved.increment(count);
+    }
+
+    private Timer timer(String name, String operation, String outcome) {
+        return timers.computeIfAbsent(name + '|' + operation + '|' + outcome, key -> Timer.builder(name)
+                .description(OPERATION_TIMER.equals(name) ? "Operations of the meetings' repository" : "Loading and persisting of the meetings")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    /**
+     * Method registers the gauges of the store, the name pool and the store's writers.
+     * The values are read from the latest snapshots (and statistics) of the shards when the registry is scraped.
+     */
+    void bindGauges(MeetingShards store, NamePool namePool) {
+        Gauge.builder("meetings.store.size", store, MeetingShards::size)
+                .description("Number of meetings in the store")
+                .register(registry);
+        Gauge.builder("meetings.store.participants", store, s -> s.statistics().participants())
+                .description("Total number of participants of all meetings")
+                .register(registry);
+        Gauge.builder("meetings.index.size", store, MeetingShards::names)
+                .description("Number of entries of the store's indexes")
+                .tag("index", "name")
+                .register(registry);
+        Gauge.builder("meetings.index.size", store, MeetingShards::persons)
+                .description("Number of entries of the store's indexes")
+                .tag("index", "responsiblePerson")
+                .register(registry);
+        Gauge.builder("meetings.index.size", namePool, p -> p.stats().size())
+                .description("Number of entries of the store's indexes")
+                .tag("index", "namePool")
+                .register(registry);
+
+        FunctionCounter.builder("meetings.namepool.lookups", namePool, p -> p.stats().hits())
+                .description("Lookups of the person names' pool")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("meetings.namepool.lookups", namePool, p -> p.stats().misses())
+                .description("Lookups of the person names' pool")
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("meetings.namepool.saved", namePool, p -> p.stats().bytesSaved())
+                .description("Approximate memory saved by the person names' pool")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+
+        FunctionCounter.builder("meetings.writer.batches", store, s -> s.stats().batches())
+                .description("Batches of mutations applied by the store's writer")
+                .register(registry);
+        Gauge.builder("meetings.writer.batch.max", store, s -> s.stats().maxBatchSize())
+                .description("Largest batch of mutations applied by the store's writer")
+                .register(registry);
+        FunctionTimer.builder("meetings.writer.ack", store,
+                        s -> s.stats().mutations(), s -> s.stats().ackLatencyNanos(), TimeUnit.NANOSECONDS)
+                .description("Time from the submission of a mutation to its acknowledgement")
+                .register(registry);
+        TimeGauge.builder("meetings.writer.ack.max", store, TimeUnit.NANOSECONDS, s -> s.stats().maxAckLatencyNanos())
+                .description("Longest time from the submission of a mutation to its acknowledgement")
+                .register(registry);
+    }
+
+}
@@ -0,0 +1,99 @@
+package dev.edvinmichovic.meetingmanagement.repository;
+
+import dev.edvinmichovic.meetingmanagement.model.Category;
+import dev.edvinmichovic.meetingmanagement.model.Meeting;
+import dev.edvinmichovic.meetingmanagement.model.MeetingStatistics;
+import dev.edvinmichovic.meetingmanagement.model.Type;
+
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * StatisticsAccumulator keeps the aggregate statistics of the meetings up to date as the meetings are added,
+ * replaced and removed, so the statistics are never computed by rescanning the meetings.
+ * It is changed only by the store's writer, and published with every snapshot as an immutable MeetingStatistics,
+ * which costs O(number of buckets).
+ */
+final class StatisticsAccumulator {
+
+    private static final Category[] CATEGORIES = Category.values();
+    private static final Type[] TYPES = Type.values();
+
+    private long meetings;
+    private long participants;
+    private final long[] byCategory = new long[CATEGORIES.length];
+    private final long[] byType = new long[TYPES.length];
+    private final TreeMap<YearMonth, Long> byMonth = new TreeMap<>();
+
+    /**
+     * Method accounts the change of one meeting.
+     *
+     * @param previous - the meeting before the change, or null if it was added.
+     * @param current  - the meeting after the change, or null if it was removed.
+     */
+    void replace(Meeting previous, Meeting current) {
+        if (previous == current) {
+            return;
+        }
+        if (previous != null) {
+            add(previous, -1);
+        }
+        if (current != null) {
+            add(current, 1);
+        }
+    }
+
+    private void add(Meeting meeting, int sign) {
+        meetings += sign;
+        participants += sign * attendees(meeting);
+        byCategory[meeting.meetingCategory().ordinal()] += sign;
+        byType[meeting.meetingType().ordinal()] += sign;
+        if (meeting.startDate() != null) {
+            byMonth.merge(YearMonth.from(meeting.startDate()), (long) sign, (count, change) -> count + change == 0 ? null : count + change);
+        }
+    }
+
+    private static int attendees(Meeting meeting) {
+        return meeting.participants() == null ? 0 : meeting.participants().size();
+    }
+
+    /**
+     * Method returns the immutable copy of the statistics.
+     */
+    MeetingStatistics toStatistics() {
+        Map<Category, Long> categories = new EnumMap<>(Category.class);
+        for (Category category : CATEGORIES) {
+            categories.put(category, byCategory[category.ordinal()]);
+        }
+        Map<Type, Long> types = new EnumMap<>(Type.class);
+        for (Type type : TYPES) {
+            types.put(type, byType[type.ordinal()]);
+        }
+        return new MeetingStatistics(meetings,
+                participants,
+                meetings == 0 ? 0.0 : (double) participants / meetings,
+                Collections.unmodifiableMap(categories),
+                Collections.unmodifiableMap(types),
+                Collections.unmodifiableSortedMap(new TreeMap<>(byMonth)));
+    }
+
+    /**
+     * Method combines the statistics of disjoint sets of meetings (e.g. of the shards of the store) into one.
+     */
+    static MeetingStatistics combine(List<MeetingStatistics> statistics) {
+        StatisticsAccumulator accumulator = new StatisticsAccumulator();
+        for (MeetingStatistics part : statistics) {
+            accumulator.meetings += part.meetings();
+            accumulator.participants += part.participants();
+            part.byCategory().forEach((category, count) -> accumulator.byCategory[category.ordinal()] += count);
+            part.byType().forEach((type, count) -> accumulator.byType[type.ordinal()] += count);
+            part.byMonth().forEach((month, count) -> accumulator.byMonth.merge(month, count, Long::sum));
+        }
+        return accumulator.toStatistics();
+    }
+
+}
@@ -0,0 +1,165 @@
+package dev.edvinmichovic.meetingmanagement.controller;
+
+import dev.edvinmichovic.meetingmanagement.config.MeetingProperties;
+import dev.edvinmichovic.meetingmanagement.exceptions.ApplicationExceptionHandler;
+import dev.edvinmichovic.meetingmanagement.exceptions.RetryLaterException;
+import dev.edvinmichovic.meetingmanagement.repository.MeetingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class AdmissionControlTest {
+
+    private static AdmissionControl admissionControl(int maxConcurrentWrites, int maxQueuedWrites, Duration maxWait,
+                                                     SimpleMeterRegistry registry) {
+        return admissionControl(maxConcurrentWrites, maxQueuedWrites, maxWait, true, registry);
+    }
+
+    private static AdmissionControl admissionControl(int maxConcurrentWrites, int maxQueuedWrites, Duration maxWait,
+                                                     boolean virtualThreads, SimpleMeterRegistry registry) {
+        MeetingProperties properties = new MeetingProperties();
+        properties.getVirtualThreads().setEnabled(virtualThreads);
+        properties.getAdmission().getWrites().setMaxConcurrent(maxConcurrentWrites);
+        properties.getAdmission().getWrites().setMaxQueue(maxQueuedWrites);
+        properties.getAdmission().getWrites().setMaxWait(maxWait);
+        properties.getAdmission().getReads().setMaxConcurrent(1);
+        properties.getAdmission().getReads().setMaxQueue(0);
+        properties.getAdmission().setRetryAfter(Duration.ofMillis(1500));
+        return new AdmissionControl(properties, registry);
+    }
+
+    private static MockHttpServletRequest request(String method) {
+        return new MockHttpServletRequest(method, "/meetings");
+    }
+
+    private static boolean admit(AdmissionControl admissionControl, MockHttpServletRequest request) {
+        return admissionControl.preHandle(request, new MockHttpServletResponse(), new Object());
+    }
+
+    private static void complete(AdmissionControl admissionControl, MockHttpServletRequest request) {
+        admissionControl.afterCompletion(request, new MockHttpServletResponse(), new Object(), null);
+    }
+
+    @Test
+    @Order(1)
+    void testWritesRejectedWhenQueueIsFull() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdmissionControl admissionControl = admissionControl(1, 0, Duration.ofSeconds(1), registry);
+        MockHttpServletRequest first = request("POST");
+        assertTrue(admit(admissionControl, first));
+
+        RetryLaterException rejected = assertThrows(RetryLaterException.class, () -> admit(admissionControl, request("PUT")));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getStatusCode());
+        assertEquals("2", rejected.getHeaders().getFirst("Retry-After"));
+        // the reads have their own budget
+        MockHttpServletRequest read = request("GET");
+        assertTrue(admit(admissionControl, read));
+        complete(admissionControl, read);
+
+        complete(admissionControl, first);
+        assertTrue(admit(admissionControl, request("DELETE")));
+        assertEquals(1, registry.get("meetings.admission.rejected").tags("kind", "write", "reason", "queue_full").counter().count());
+        assertEquals(1, registry.get("meetings.admission.active").tags("kind", "write").gauge().value());
+    }
+
+    @Test
+    @Order(2)
+    void testQueuedWriteAdmittedOrTimedOut() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdmissionControl admissionControl = admissionControl(1, 1, Duration.ofMillis(50), registry);
+        MockHttpServletRequest first = request("POST");
+        admit(admissionControl, first);
+
+        RetryLaterException rejected = assertThrows(RetryLaterException.class, () -> admit(admissionControl, request("POST")));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatusCode());
+        assertEquals(1, registry.get("meetings.admission.rejected").tags("kind", "write", "reason", "timeout").counter().count());
+
+        AdmissionControl waiting = admissionControl(1, 1, Duration.ofSeconds(10), new SimpleMeterRegistry());
+        MockHttpServletRequest holder = request("POST");
+        admit(waiting, holder);
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> admit(waiting, request("POST")));
+        Thread.sleep(50);
+        assertFalse(queued.isDone());
+        complete(waiting, holder);
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @Order(3)
+    void testAsynchronousRequestGivesTurnBack() {
+        AdmissionControl admissionControl = admissionControl(1, 0, Duration.ofSeconds(1), new SimpleMeterRegistry());
+        MockHttpServletRequest watch = request("GET");
+        admit(admissionControl, watch);
+        admissionControl.afterConcurrentHandlingStarted(watch, new MockHttpServletResponse(), new Object());
+
+        MockHttpServletRequest read = request("GET");
+        assertTrue(admit(admissionControl, read));
+        // the dispatch completing the watch is not admitted again, and does not give back the turn of the read
+        assertTrue(admit(admissionControl, watch));
+        complete(admissionControl, watch);
+        assertThrows(RetryLaterException.class, () -> admit(admissionControl, request("GET")));
+    }
+
+    @Test
+    @Order(4)
+    void testRejectionReturnedWithRetryAfter() throws Exception {
+        MeetingRepository repository = mock(MeetingRepository.class);
+        MeetingController controller = new MeetingController(repository, mock(ChangeFeedSubscriptions.class), mock(MeetingWatches.class));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new ApplicationExceptionHandler())
+                .addInterceptors(admissionControl(0, 0, Duration.ofMillis(10), new SimpleMeterRegistry()))
+                .build();
+
+        mockMvc.perform(delete("/meetings/Meeting 1").param("responsiblePerson", "John Doe"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"));
+        mockMvc.perform(get("/meetings"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @Order(5)
+    void testNewWriteDoesNotTakeTurnOfQueuedOne() throws Exception {
+        AdmissionControl admissionControl = admissionControl(1, 2, Duration.ofSeconds(10), new SimpleMeterRegistry());
+        MockHttpServletRequest holder = request("POST");
+        admit(admissionControl, holder);
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> admit(admissionControl, request("POST")));
+        Thread.sleep(50);
+
+        complete(admissionControl, holder);
+        CompletableFuture<Boolean> later = CompletableFuture.supplyAsync(() -> admit(admissionControl, request("POST")));
+        // the queued write gets the turn, the later one waits for it
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertFalse(later.isDone());
+    }
+
+    @Test
+    @Order(6)
+    void testWritesNotQueuedWithoutVirtualThreads() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdmissionControl admissionControl = admissionControl(1, 100, Duration.ofSeconds(10), false, registry);
+        admit(admissionControl, request("POST"));
+
+        RetryLaterException rejected = assertThrows(RetryLaterException.class, () -> admit(admissionControl, request("POST")));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getStatusCode());
+        assertEquals(0, registry.get("meetings.admission.queued").tags("kind", "write").gauge().value());
+    }
+
+}
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import dev.edvinmichovic.meetingmanagement.dto.MeetingDTO;
 import dev.edvinmichovic.meetingmanagement.model.Category;
 import dev.edvinmichovic.meetingmanagement.model.Meeting;
+import dev.edvinmichovic.meetingmanagement.model.MeetingStatistics;
 import dev.edvinmichovic.meetingmanagement.model.Type;
 import dev.edvinmichovic.meetingmanagement.repository.MeetingRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,19 +15,36 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
-
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -260,6 +278,7 @@ public class MeetingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").exists())
                 .andExpect(jsonPath("$.name").value("Meeting 1"))
+                .andExpect(header().string("ETag", "\"0\""))
                 .andReturn();
 
         verify(repository, times(1)).findByName("Meeting 1");
@@ -307,7 +326,7 @@ public class MeetingControllerTest {
                 .andExpect(status().isCreated())
                 .andReturn();
 
-        verify(repository, times(1)).save(eq(meetingDTO));
+        verify(repository, times(1)).save(eq(meetingDTO), isNull());
 
         String response = result.getResponse().getContentAsString();
         System.out.println(response);
@@ -316,19 +335,19 @@ public class MeetingControllerTest {
     @Test
     @Order(13)
     void testRemoveMeetingValid() throws Exception {
-        when(repository.delete("Meeting 1", "Gabriel Rogers")).thenReturn(true);
+        when(repository.delete("Meeting 1", "Gabriel Rogers", null)).thenReturn(true);
 
         mockMvc.perform(delete("/meetings/{name}", "Meeting 1")
                         .param("responsiblePerson", "Gabriel Rogers"))
                 .andExpect(status().isNoContent());
 
-        verify(repository, times(1)).delete("Meeting 1", "Gabriel Rogers");
+        verify(repository, times(1)).delete("Meeting 1", "Gabriel Rogers", null);
     }
 
     @Test
     @Order(14)
     void testRemoveMeetingInvalid() throws Exception {
-        when(repository.delete("Meeting 1", "Gabriel Rogers")).thenReturn(false);
+        when(repository.delete("Meeting 1", "Gabriel Rogers", null)).thenReturn(false);
 
         mockMvc.perform(delete("/meetings/{name}", "Meeting 1")
                         .param("responsiblePerson", "Gabriel Rogers"))
@@ -336,7 +355,7 @@ public class MeetingControllerTest {
                 .andExpect(jsonPath("$").value("Only responsible person can delete the meeting.\n" +
                         "Please make sure the responsible person is correct for this meeting."));
 
-        verify(repository, times(1)).delete("Meeting 1", "Gabriel Rogers");
+        verify(repository, times(1)).delete("Meeting 1", "Gabriel Rogers", null);
     }
 
     @Test
@@ -357,7 +376,7 @@ public class MeetingControllerTest {
     void testAddParticipantsHasAlreadyInvited() throws Exception {
         List<String> participants = Arrays.asList("Bill", "Gabe", "John");
         String jsonRequest = new ObjectMapper().writeValueAsString(participants);
-        when(repository.addParticipant("Meeting 1", participants)).thenReturn(participants);
+        when(repository.addParticipant("Meeting 1", participants, null)).thenReturn(participants);
 
         mockMvc.perform(put("/meetings/{name}/addParticipant", "Meeting 1")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -374,7 +393,7 @@ public class MeetingControllerTest {
     void testAddParticipantsValid() throws Exception {
         List<String> participants = Arrays.asList("Bill", "Gabe", "John");
         String jsonRequest = new ObjectMapper().writeValueAsString(participants);
-        when(repository.addParticipant("Meeting 1", participants)).thenReturn(Collections.emptyList());
+        when(repository.addParticipant("Meeting 1", participants, null)).thenReturn(Collections.emptyList());
 
         mockMvc.perform(put("/meetings/{name}/addParticipant", "Meeting 1")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -410,4 +429,213 @@ public class MeetingControllerTest {
                         "NOTE: Meeting's responsible person won't be deleted from the meeting."));
     }
 
+    @Test
+    @Order(20)
+    void testRemoveMeetingVersionConflict() throws Exception {
+        when(repository.delete("Meeting 1", "Gabriel Rogers", 2L))
+                .thenThrow(new ResponseStatusException(HttpStatus.CONFLICT, "Meeting was changed in the meantime."));
+
+        mockMvc.perform(delete("/meetings/{name}", "Meeting 1")
+                        .param("responsiblePerson", "Gabriel Rogers")
+                        .header("If-Match", "\"2\""))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$").value("Meeting was changed in the meantime."));
+
+        verify(repository, times(1)).delete("Meeting 1", "Gabriel Rogers", 2L);
+    }
+
+    @Test
+    @Order(21)
+    void testAddParticipantsInvalidIfMatch() throws Exception {
+        List<String> participants = Arrays.asList("Bill", "Gabe", "John");
+        String jsonRequest = new ObjectMapper().writeValueAsString(participants);
+
+        mockMvc.perform(put("/meetings/{name}/addParticipant", "Meeting 1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-Match", "version")
+                        .content(jsonRequest))
+                .andExpect(status().isBadRequest());
+
+        verify(repository, never()).addParticipant(any(), any(), any());
+    }
+
+    @Test
+    @Order(22)
+    void testStatistics() throws Exception {
+        MeetingStatistics statistics = new MeetingStatistics(2, 5, 2.5,
+                Map.of(Category.Hub, 1L, Category.TeamBuilding, 1L),
+                Map.of(Type.Live, 1L, Type.InPerson, 1L),
+                new TreeMap<>(Map.of(YearMonth.of(2020, 5), 2L)));
+        when(repository.statistics()).thenReturn(statistics);
+
+        mockMvc.perform(get("/meetings/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.meetings").value(2))
+                .andExpect(jsonPath("$.averageAttendees").value(2.5))
+                .andExpect(jsonPath("$.byCategory.Hub").value(1))
+                .andExpect(jsonPath("$.byType.InPerson").value(1))
+                .andExpect(jsonPath("$.byMonth['2020-05']").value(2));
+
+        verify(repository, never()).findByName(any());
+    }
+
+    @Test
+    @Order(23)
+    void testChangesStream() throws Exception {
+        MeetingRepository changedRepository = new MeetingRepository();
+        changedRepository.save(new MeetingDTO("Meeting 3", "Gabriel Saguaro", "Main meeting.", "CodeMonkey", "Live",
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), null));
+        when(repository.changes()).thenReturn(changedRepository.changes());
+
+        MvcResult result = mockMvc.perform(get("/meetings/changes").param("since", "0"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        for (int i = 0; i < 100 && !result.getResponse().getContentAsString().contains("Meeting 3"); i++) {
+            Thread.sleep(50);
+        }
+        String stream = result.getResponse().getContentAsString();
+        assertTrue(stream.contains("id:" + changedRepository.changes().id(1) + "\nevent:CREATED\ndata:"));
+        assertTrue(stream.contains("\"name\":\"Meeting 3\""));
+
+        verify(repository, times(1)).changes();
+
+        mockMvc.perform(get("/meetings/changes").param("since", "abc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Order(24)
+    void testChangesStreamResyncedAfterRestart() throws Exception {
+        MeetingRepository changedRepository = new MeetingRepository();
+        changedRepository.save(new MeetingDTO("Meeting 3", "Gabriel Saguaro", "Main meeting.", "CodeMonkey", "Live",
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), null));
+        when(repository.changes()).thenReturn(changedRepository.changes());
+        when(repository.snapshot()).thenReturn(meetings);
+
+        // the id of the event sent before a restart, whose sequence numbers started again
+        MvcResult result = mockMvc.perform(get("/meetings/changes").header("Last-Event-ID", "previous-5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        for (int i = 0; i < 100 && !result.getResponse().getContentAsString().contains("resynced"); i++) {
+            Thread.sleep(50);
+        }
+        String stream = result.getResponse().getContentAsString();
+        assertTrue(stream.contains("event:resync\n"));
+        assertEquals(meetings.size(), stream.split("event:SNAPSHOT\n", -1).length - 1);
+        assertTrue(stream.contains("id:" + changedRepository.changes().id(1) + "\nevent:resynced\n"));
+        assertFalse(stream.contains("event:CREATED"));
+    }
+
+    @Test
+    @Order(25)
+    void testWatchCompletedAtOnce() throws Exception {
+        when(repository.findByName("Meeting 1")).thenReturn(Optional.of(meetings.get(0)));
+        when(repository.findByName("Meeting 5")).thenReturn(Optional.empty());
+
+        MvcResult changed = mockMvc.perform(get("/meetings/Meeting 1/watch").header("If-None-Match", "\"7\""))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(changed))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + meetings.get(0).version() + "\""))
+                .andExpect(jsonPath("$.name").value("Meeting 1"));
+
+        MvcResult missing = mockMvc.perform(get("/meetings/Meeting 5/watch").param("version", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(missing))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/meetings/Meeting 1/watch").param("timeout", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Order(26)
+    void testCompleteNames() throws Exception {
+        when(repository.completeNames("meet", 2)).thenReturn(List.of("Meeting 1", "Meeting 2"));
+
+        mockMvc.perform(get("/meetings/names").param("prefix", "meet").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value("Meeting 1"))
+                .andExpect(jsonPath("$[1]").value("Meeting 2"));
+        mockMvc.perform(get("/meetings/names").param("prefix", "meet").param("limit", "101"))
+                .andExpect(status().isBadRequest());
+
+        verify(repository, never()).findAll(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @Order(27)
+    void testExportCompressed() throws Exception {
+        when(repository.exportSnapshot()).thenReturn(meetings);
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(1);
+            outputStream.write("{\"name\":\"Meeting 1\"}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(repository).export(eq(meetings), any(), eq(true));
+
+        MvcResult export = mockMvc.perform(get("/meetings/export").param("format", "ndjson").header("Accept-Encoding", "gzip"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult exported = mockMvc.perform(asyncDispatch(export))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn();
+        try (InputStream decompressed = new GZIPInputStream(new ByteArrayInputStream(exported.getResponse().getContentAsByteArray()))) {
+            assertEquals("{\"name\":\"Meeting 1\"}\n", new String(decompressed.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        mockMvc.perform(get("/meetings/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Order(28)
+    void testImport() throws Exception {
+        when(repository.importMeetings(any())).thenAnswer(invocation -> {
+            InputStream inputStream = invocation.getArgument(0);
+            long meetings = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8).lines().count();
+            return new MeetingRepository.ImportResult(meetings, Duration.ofSeconds(1), meetings);
+        });
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream outputStream = new GZIPOutputStream(compressed)) {
+            outputStream.write("{\"name\":\"A\"}\n{\"name\":\"B\"}\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        mockMvc.perform(post("/meetings/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .header("Content-Encoding", "gzip")
+                        .content(compressed.toByteArray()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.meetings").value(2))
+                .andExpect(jsonPath("$.meetingsPerSecond").value(2));
+        mockMvc.perform(post("/meetings/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Content-Encoding", "gzip")
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Order(29)
+    void testCreateMeetingWithReservedName() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        for (String name : List.of("stats", "names", "changes", "export")) {
+            MeetingDTO meetingDTO = new MeetingDTO(name, "Gabriel Saguaro", "Main meeting.", "CodeMonkey", "Live",
+                    LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), null);
+
+            mockMvc.perform(post("/meetings")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(meetingDTO)))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.name").value("The names stats, names, changes and export are reserved by the end-points of the meetings."));
+        }
+        verify(repository, never()).save(any(), any());
+    }
+
 }
@@ -0,0 +1,109 @@
+package dev.edvinmichovic.meetingmanagement.controller;
+
+import dev.edvinmichovic.meetingmanagement.config.MeetingProperties;
+import dev.edvinmichovic.meetingmanagement.dto.MeetingDTO;
+import dev.edvinmichovic.meetingmanagement.model.Meeting;
+import dev.edvinmichovic.meetingmanagement.repository.MeetingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MeetingWatchesTest {
+
+    private final MeetingRepository repository = new MeetingRepository();
+    private final MeetingWatches watches = new MeetingWatches(repository, new MeetingProperties(), new SimpleMeterRegistry());
+
+    private static MeetingDTO meeting(String name, String description) {
+        return new MeetingDTO(name, "John Doe", description, "Hub", "Live",
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), new HashMap<>());
+    }
+
+    @Test
+    @Order(1)
+    void testCompletedAtOnceWhenVersionDiffers() {
+        repository.save(meeting("Meeting 1", "Description"));
+        repository.save(meeting("Meeting 1", "Overwritten description"));
+
+        DeferredResult<ResponseEntity<Meeting>> changed = watches.watch("Meeting 1", 1L, null);
+        DeferredResult<ResponseEntity<Meeting>> missing = watches.watch("Meeting 2", 1L, null);
+
+        assertTrue(changed.hasResult());
+        ResponseEntity<?> response = (ResponseEntity<?>) changed.getResult();
+        assertEquals("\"2\"", response.getHeaders().getETag());
+        assertEquals("Overwritten description", ((Meeting) response.getBody()).description());
+        assertTrue(missing.hasResult());
+        assertEquals(HttpStatus.NOT_FOUND, ((ResponseStatusException) missing.getResult()).getStatusCode());
+    }
+
+    @Test
+    @Order(2)
+    void testCompletedByChange() {
+        repository.save(meeting("Meeting 1", "Description"));
+
+        DeferredResult<ResponseEntity<Meeting>> current = watches.watch("Meeting 1", 1L, Duration.ofSeconds(5));
+        DeferredResult<ResponseEntity<Meeting>> next = watches.watch("Meeting 1", null, Duration.ofSeconds(5));
+        assertFalse(current.hasResult());
+        assertFalse(next.hasResult());
+
+        List<String> participants = new ArrayList<>();
+        participants.add("Jane Smith");
+        repository.addParticipant("Meeting 1", participants);
+
+        assertTrue(current.hasResult());
+        assertTrue(next.hasResult());
+        ResponseEntity<?> response = (ResponseEntity<?>) current.getResult();
+        assertEquals("\"2\"", response.getHeaders().getETag());
+        assertTrue(((Meeting) response.getBody()).participants().containsKey("Jane Smith"));
+    }
+
+    @Test
+    @Order(3)
+    void testCompletedByDelete() {
+        repository.save(meeting("Meeting 1", "Description"));
+        repository.save(meeting("Meeting 2", "Description"));
+
+        DeferredResult<ResponseEntity<Meeting>> deleted = watches.watch("Meeting 1", 1L, null);
+        DeferredResult<ResponseEntity<Meeting>> other = watches.watch("Meeting 2", 1L, null);
+        repository.delete("Meeting 1", "John Doe");
+
+        assertTrue(deleted.hasResult());
+        assertEquals(HttpStatus.NOT_FOUND, ((ResponseStatusException) deleted.getResult()).getStatusCode());
+        assertFalse(other.hasResult());
+    }
+
+    @Test
+    @Order(4)
+    void testNotCompletedByEventOfSeenVersion() {
+        repository.save(meeting("Meeting 1", "Description"));
+        repository.save(meeting("Meeting 2", "Description"));
+        List<DeferredResult<ResponseEntity<Meeting>>> registered = new ArrayList<>();
+        // registers the watch after the snapshot is published, but before the watches receive its event
+        repository.changes().addListener(events -> {
+            if (events.stream().anyMatch(event -> event.name().equals("Meeting 1") && event.version() == 2)) {
+                registered.add(watches.watch("Meeting 1", null, Duration.ofSeconds(5)));
+            }
+        });
+        watches.watch("Meeting 2", 1L, null);
+
+        repository.save(meeting("Meeting 1", "Overwritten description"));
+
+        assertEquals(1, registered.size());
+        assertFalse(registered.get(0).hasResult());
+        repository.save(meeting("Meeting 1", "Overwritten again"));
+        assertTrue(registered.get(0).hasResult());
+        assertEquals("\"3\"", ((ResponseEntity<?>) registered.get(0).getResult()).getHeaders().getETag());
+    }
+
+}
@@ -0,0 +1,127 @@
+package dev.edvinmichovic.meetingmanagement.repository;
+
+import dev.edvinmichovic.meetingmanagement.config.MeetingProperties;
+import dev.edvinmichovic.meetingmanagement.dto.MeetingDTO;
+import dev.edvinmichovic.meetingmanagement.model.MeetingEvent;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChangeFeedTest {
+
+    private static MeetingDTO meeting(String name, String description) {
+        return new MeetingDTO(name, "John Doe", description, "Hub", "Live",
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), new HashMap<>());
+    }
+
+    @Test
+    @Order(1)
+    void testEventOfEveryChange() {
+        MeetingRepository repository = new MeetingRepository();
+        ChangeFeed feed = repository.changes();
+
+        repository.save(meeting("Meeting 1", "Description"));
+        repository.save(meeting("Meeting 1", "Overwritten description"));
+        List<String> participants = new ArrayList<>();
+        participants.add("Jane Smith");
+        repository.addParticipant("Meeting 1", participants);
+        repository.removeParticipant("Meeting 1", List.of("Jane Smith"));
+        repository.delete("Meeting 1", "John Doe");
+
+        ChangeFeed.Page page = feed.read(0, 100);
+        List<MeetingEvent.ChangeType> types = page.events().stream().map(MeetingEvent::type).toList();
+
+        assertFalse(page.gap());
+        assertEquals(5, page.lastSequence());
+        assertEquals(List.of(MeetingEvent.ChangeType.CREATED,
+                MeetingEvent.ChangeType.UPDATED,
+                MeetingEvent.ChangeType.PARTICIPANTS_CHANGED,
+                MeetingEvent.ChangeType.PARTICIPANTS_CHANGED,
+                MeetingEvent.ChangeType.DELETED), types);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), page.events().stream().map(MeetingEvent::sequence).toList());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 4L), page.events().stream().map(MeetingEvent::version).toList());
+        assertNull(page.events().get(4).meeting());
+        assertEquals(List.of(4L, 5L), feed.read(3, 100).events().stream().map(MeetingEvent::sequence).toList());
+    }
+
+    @Test
+    @Order(2)
+    void testGapWhenBehindTheBuffer() {
+        MeetingProperties properties = new MeetingProperties();
+        properties.getFeed().setBufferSize(4);
+        MeetingRepository repository = new MeetingRepository(properties);
+        for (int i = 0; i < 10; i++) {
+            repository.save(meeting("Meeting " + i, "Description"));
+        }
+
+        ChangeFeed.Page behind = repository.changes().read(2, 100);
+        ChangeFeed.Page unknown = repository.changes().read(50, 100);
+
+        assertTrue(behind.gap());
+        assertEquals(List.of(7L, 8L, 9L, 10L), behind.events().stream().map(MeetingEvent::sequence).toList());
+        assertTrue(unknown.gap());
+        assertTrue(unknown.events().isEmpty());
+        assertEquals(10, unknown.lastSequence());
+    }
+
+    @Test
+    @Order(3)
+    void testAwaitNextEvent() throws Exception {
+        MeetingRepository repository = new MeetingRepository();
+        ChangeFeed feed = repository.changes();
+
+        assertFalse(feed.await(0, 10, TimeUnit.MILLISECONDS));
+        Thread writer = Thread.ofVirtual().start(() -> repository.save(meeting("Meeting 1", "Description")));
+
+        assertTrue(feed.await(0, 5, TimeUnit.SECONDS));
+        writer.join();
+        assertEquals(1, feed.lastSequence());
+    }
+
+    @Test
+    @Order(4)
+    void testEventIdsCarryEpoch() {
+        ChangeFeed feed = new MeetingRepository().changes();
+
+        assertEquals(42, feed.sequenceOf(feed.id(42)));
+        assertEquals(42, feed.sequenceOf("42"));
+        assertEquals(-1, feed.sequenceOf("previous-42"));
+        assertThrows(IllegalArgumentException.class, () -> feed.sequenceOf(feed.epoch() + "-"));
+        assertThrows(IllegalArgumentException.class, () -> feed.sequenceOf("-1"));
+    }
+
+    @Test
+    @Order(5)
+    void testReadOverwrittenWhileReadingStartsFromOldest() throws Exception {
+        MeetingProperties properties = new MeetingProperties();
+        properties.getFeed().setBufferSize(4);
+        MeetingRepository repository = new MeetingRepository(properties);
+        ChangeFeed feed = repository.changes();
+        Thread writer = Thread.ofPlatform().start(() -> {
+            for (int i = 0; i < 2000; i++) {
+                repository.save(meeting("Meeting " + i, "Description"));
+            }
+        });
+
+        while (writer.isAlive()) {
+            ChangeFeed.Page page = feed.read(0, 100);
+            if (page.lastSequence() > 4) {
+                // the reader behind the buffer always gets the oldest events kept, never an empty gap
+                assertTrue(page.gap());
+                assertFalse(page.events().isEmpty());
+                for (int i = 1; i < page.events().size(); i++) {
+                    assertEquals(page.events().get(i - 1).sequence() + 1, page.events().get(i).sequence());
+                }
+            }
+        }
+        writer.join();
+    }
+
+}
@@ -0,0 +1,216 @@
+package dev.edvinmichovic.meetingmanagement.repository;
+
+import dev.edvinmichovic.meetingmanagement.config.MeetingProperties;
+import dev.edvinmichovic.meetingmanagement.dto.MeetingDTO;
+import dev.edvinmichovic.meetingmanagement.model.Meeting;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MeetingArchiveTest {
+
+    @TempDir
+    Path directory;
+
+    private MeetingRepository repository(SimpleMeterRegistry registry) {
+        MeetingProperties properties = new MeetingProperties();
+        properties.getArchive().setEnabled(true);
+        properties.getArchive().setDirectory(directory.toString());
+        properties.getArchive().setSegmentSize(2);
+        properties.getArchive().setCachedSegments(1);
+        properties.getStore().setShards(2);
+        return new MeetingRepository(properties, registry);
+    }
+
+    private static MeetingDTO meeting(String name, String category, LocalDateTime start) {
+        return new MeetingDTO(name, "John Doe", "Description", category, "Live", start, start.plusHours(1), new HashMap<>());
+    }
+
+    private static List<String> names(List<Meeting> meetings) {
+        return meetings.stream().map(Meeting::name).toList();
+    }
+
+    @Test
+    @Order(1)
+    void testFinishedMeetingsAreMovedToArchive() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MeetingRepository repository = repository(registry);
+        LocalDateTime now = LocalDateTime.now();
+        repository.saveAll(List.of(
+                meeting("Old 1", "Hub", LocalDateTime.of(2020, 1, 10, 10, 0)),
+                meeting("Upcoming", "Hub", now.plusDays(1)),
+                meeting("Old 2", "Short", LocalDateTime.of(2020, 2, 10, 10, 0)),
+                meeting("Old 3", "Hub", LocalDateTime.of(2021, 3, 10, 10, 0)),
+                meeting("Recent", "Hub", now.minusDays(1))));
+
+        assertEquals(3, repository.archive(now.minusDays(30)));
+
+        assertEquals(List.of("Upcoming", "Recent"), names(repository.findAll(null, null, null, null, null, null, null)));
+        assertEquals("Old 1", repository.findByName("Old 1").orElseThrow().name());
+        assertTrue(repository.findByName("Old 4").isEmpty());
+        assertEquals(List.of("Old 1", "Old 2", "Old 3", "Upcoming", "Recent"),
+                names(repository.findAll(null, null, null, null, LocalDate.of(2019, 1, 1), null, null)));
+        assertEquals(List.of("Old 1", "Old 3"),
+                names(repository.findAll(null, null, "Hub", null, LocalDate.of(2019, 1, 1), LocalDate.of(2022, 1, 1), null)));
+        assertEquals(List.of("Old 1", "Old 2"),
+                names(repository.findAll(null, null, null, null, null, LocalDate.of(2020, 12, 31), null)));
+        assertEquals(3, registry.get("meetings.archive.meetings").gauge().value());
+        assertEquals(2, registry.get("meetings.archive.segments").gauge().value());
+        assertEquals(0, repository.archive(now.minusDays(30)));
+    }
+
+    @Test
+    @Order(2)
+    void testQueriesReadOnlyMatchingSegments() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MeetingRepository repository = repository(registry);
+        repository.saveAll(List.of(
+                meeting("Old 1", "Hub", LocalDateTime.of(2020, 1, 10, 10, 0)),
+                meeting("Old 2", "Hub", LocalDateTime.of(2020, 2, 10, 10, 0)),
+                meeting("Old 3", "Hub", LocalDateTime.of(2021, 3, 10, 10, 0))));
+        repository.archive(LocalDateTime.now());
+
+        // a new instance reads the segments left by the previous one
+        SimpleMeterRegistry reopenedRegistry = new SimpleMeterRegistry();
+        MeetingRepository reopened = repository(reopenedRegistry);
+        assertEquals(List.of("Old 3"), names(reopened.findAll(null, null, null, null, LocalDate.of(2021, 1, 1), null, null)));
+        assertEquals(List.of("Old 3"), names(reopened.findAll(null, null, null, null, LocalDate.of(2021, 1, 1), null, null)));
+        assertEquals(1, reopenedRegistry.get("meetings.archive.loads").counter().count());
+        assertEquals(List.of("Old 1", "Old 2", "Old 3"),
+                names(reopened.findAll(null, null, null, null, LocalDate.of(2019, 1, 1), null, null)));
+        assertEquals(3, reopenedRegistry.get("meetings.archive.loads").counter().count());
+    }
+
+    @Test
+    @Order(3)
+    void testArchivedNameCannotBeSavedAgain() {
+        MeetingRepository repository = repository(new SimpleMeterRegistry());
+        repository.saveAll(List.of(
+                meeting("Old 1", "Hub", LocalDateTime.of(2020, 1, 10, 10, 0)),
+                meeting("Old 2", "Hub", LocalDateTime.of(2020, 2, 10, 10, 0))));
+        repository.archive(LocalDateTime.now());
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> repository.save(meeting("Old 1", "Short", LocalDateTime.now().plusDays(1))));
+        assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+        assertThrows(ResponseStatusException.class, () -> repository.saveAll(List.of(
+                meeting("New", "Hub", LocalDateTime.now().plusDays(1)),
+                meeting("Old 2", "Hub", LocalDateTime.now().plusDays(1)))));
+
+        // the names are read from the segments by a new instance too
+        MeetingRepository reopened = repository(new SimpleMeterRegistry());
+        assertThrows(ResponseStatusException.class, () -> reopened.save(meeting("Old 2", "Hub", LocalDateTime.now().plusDays(1))));
+        reopened.save(meeting("New", "Hub", LocalDateTime.now().plusDays(1)));
+        assertTrue(reopened.findByName("New").isPresent());
+    }
+
+    @Test
+    @Order(4)
+    void testExportIncludesArchivedMeetings() throws IOException {
+        MeetingRepository repository = repository(new SimpleMeterRegistry());
+        LocalDateTime now = LocalDateTime.now();
+        repository.saveAll(List.of(
+                meeting("Old 1", "Hub", LocalDateTime.of(2020, 1, 10, 10, 0)),
+                meeting("Upcoming", "Hub", now.plusDays(1)),
+                meeting("Old 2", "Hub", LocalDateTime.of(2020, 2, 10, 10, 0)),
+                meeting("Old 3", "Hub", LocalDateTime.of(2021, 3, 10, 10, 0))));
+        repository.archive(now.minusDays(30));
+
+        ByteArrayOutputStream exported = new ByteArrayOutputStream();
+        repository.export(repository.exportSnapshot(), exported, true);
+
+        MeetingRepository target = new MeetingRepository(new MeetingProperties(), new SimpleMeterRegistry());
+        assertEquals(4, target.importMeetings(new ByteArrayInputStream(exported.toByteArray())).meetings());
+        assertEquals(List.of("Upcoming", "Old 1", "Old 2", "Old 3"), names(target.snapshot()));
+    }
+
+    @Test
+    @Order(5)
+    void testArchivedNamesAreIndexedInMemory() throws IOException {
+        MeetingRepository repository = repository(new SimpleMeterRegistry());
+        repository.saveAll(List.of(
+                meeting("Old 1", "Hub", LocalDateTime.of(2020, 1, 10, 10, 0)),
+                meeting("Old 2", "Hub", LocalDateTime.of(2020, 2, 10, 10, 0)),
+                meeting("Old 3", "Hub", LocalDateTime.of(2021, 3, 10, 10, 0))));
+        repository.archive(LocalDateTime.now());
+        assertTrue(Files.exists(directory.resolve("segment-000001.json.names.json")));
+
+        // the index of a segment without its .names.json file is built from the segment
+        Files.delete(directory.resolve("segment-000002.json.names.json"));
+        MeetingRepository reopened = repository(new SimpleMeterRegistry());
+        // the names are looked up in memory only, the segments are not read again
+        Files.delete(directory.resolve("segment-000001.json"));
+        Files.delete(directory.resolve("segment-000002.json"));
+        for (String name : List.of("Old 1", "Old 3")) {
+            assertThrows(ResponseStatusException.class, () -> reopened.save(meeting(name, "Hub", LocalDateTime.now().plusDays(1))));
+        }
+        reopened.save(meeting("Old 4", "Hub", LocalDateTime.now().plusDays(1)));
+    }
+
+    @Test
+    @Order(6)
+    void testArchivedNamesSkippedByLoadAndImport() throws IOException {
+        MeetingRepository repository = repository(new SimpleMeterRegistry());
+        repository.saveAll(List.of(
+                meeting("Old 1", "Hub", LocalDateTime.of(2020, 1, 10, 10, 0)),
+                meeting("Upcoming", "Hub", LocalDateTime.now().plusDays(1))));
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        repository.export(repository.snapshot(), file, false);
+        repository.archive(LocalDateTime.now());
+
+        // meetings.json written before the meeting was archived (e.g. by a crash in between)
+        MeetingRepository restarted = repository(new SimpleMeterRegistry());
+        restarted.readFromJson(new ByteArrayInputStream(file.toByteArray()));
+        assertEquals(List.of("Upcoming"), names(restarted.snapshot()));
+        assertEquals(LocalDateTime.of(2020, 1, 10, 10, 0), restarted.findByName("Old 1").orElseThrow().startDate());
+
+        ByteArrayOutputStream exported = new ByteArrayOutputStream();
+        restarted.export(restarted.exportSnapshot(), exported, true);
+        assertEquals(1, restarted.importMeetings(new ByteArrayInputStream(exported.toByteArray())).meetings());
+        assertEquals(List.of("Upcoming"), names(restarted.snapshot()));
+    }
+
+    @Test
+    @Order(7)
+    void testArchivedMeetingDeleted() {
+        MeetingRepository repository = repository(new SimpleMeterRegistry());
+        repository.saveAll(List.of(
+                meeting("Old 1", "Hub", LocalDateTime.of(2020, 1, 10, 10, 0)),
+                meeting("Old 2", "Hub", LocalDateTime.of(2020, 2, 10, 10, 0)),
+                meeting("Old 3", "Hub", LocalDateTime.of(2021, 3, 10, 10, 0))));
+        repository.archive(LocalDateTime.now());
+
+        assertFalse(repository.delete("Old 2", "Jane Smith"));
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> repository.delete("Old 2", "John Doe", 7L));
+        assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+        assertTrue(repository.delete("Old 2", "John Doe", 1L));
+        assertFalse(repository.delete("Old 2", "John Doe"));
+
+        assertTrue(repository.findByName("Old 2").isEmpty());
+        assertEquals(List.of("Old 1", "Old 3"), names(repository.findAll(null, null, null, null, LocalDate.of(2019, 1, 1), null, null)));
+        repository.save(meeting("Old 2", "Hub", LocalDateTime.now().plusDays(1)));
+        assertEquals("Old 2", repository.findByName("Old 2").orElseThrow().name());
+
+        // the next archiving continues after the segment written again
+        repository.save(meeting("Old 4", "Hub", LocalDateTime.of(2021, 4, 10, 10, 0)));
+        assertEquals(1, repository.archive(LocalDateTime.now()));
+        assertEquals(List.of("Old 1", "Old 3", "Old 4"),
+                names(repository(new SimpleMeterRegistry()).findAll(null, null, null, null, LocalDate.of(2019, 1, 1), null, null)));
+    }
+
+}
@@ -0,0 +1,129 @@
+package dev.edvinmichovic.meetingmanagement.repository;
+
+import dev.edvinmichovic.meetingmanagement.model.Category;
+import dev.edvinmichovic.meetingmanagement.model.Meeting;
+import dev.edvinmichovic.meetingmanagement.model.Type;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MeetingColumnsTest {
+
+    private MeetingColumns columns;
+
+    @BeforeEach
+    void setUp() {
+        HashMap<String, LocalDateTime> participants = new HashMap<>();
+        participants.put("John Doe", LocalDateTime.parse("2023-05-20T10:00"));
+        participants.put("Jane Smith", LocalDateTime.parse("2023-05-20T10:00"));
+
+        Meeting meeting1 = new Meeting("Meeting 1", "John Doe", "Java meeting", Category.Hub, Type.Live,
+                LocalDateTime.parse("2023-05-24T00:00"), LocalDateTime.parse("2023-05-26T23:59"), participants);
+        Meeting meeting2 = new Meeting("Meeting 2", "Jane Smith", null, Category.Short, Type.InPerson,
+                LocalDateTime.parse("2023-05-24T00:00:01"), null, new HashMap<>());
+        Meeting meeting3 = new Meeting("Meeting 3", "John Doe", "Another JAVA meeting", Category.Hub, Type.InPerson,
+                LocalDateTime.parse("2023-05-25T10:00"), LocalDateTime.parse("2023-05-26T23:58:59.5"), new HashMap<>());
+
+        columns = MeetingColumns.of(List.of(meeting1, meeting2, meeting3));
+    }
+
+    private List<String> names(String description, String responsiblePerson, String category, String type,
+                               LocalDate startDate, LocalDate endDate, Integer minAttendees) {
+        MeetingColumns.Filter filter = columns.filter(description, responsiblePerson, category, type, startDate, endDate, minAttendees);
+        return columns.materialize(columns.scan(filter, 0, columns.size())).stream().map(Meeting::name).toList();
+    }
+
+    @Test
+    @Order(1)
+    void testNoFiltersKeepsOrder() {
+        assertEquals(List.of("Meeting 1", "Meeting 2", "Meeting 3"), names(null, null, null, null, null, null, null));
+    }
+
+    @Test
+    @Order(2)
+    void testAttributeFilters() {
+        assertEquals(List.of("Meeting 1", "Meeting 3"), names("java", null, null, null, null, null, null));
+        assertEquals(List.of("Meeting 1", "Meeting 3"), names(null, "John Doe", "Hub", null, null, null, null));
+        assertEquals(List.of("Meeting 2", "Meeting 3"), names(null, null, null, "InPerson", null, null, 0));
+        assertEquals(List.of("Meeting 1"), names(null, null, null, null, null, null, 2));
+        assertTrue(names(null, "Unknown Person", null, null, null, null, null).isEmpty());
+    }
+
+    @Test
+    @Order(3)
+    void testDateFiltersMatchDateComparison() {
+        // start date has to be strictly after the start of the day
+        assertEquals(List.of("Meeting 2", "Meeting 3"), names(null, null, null, null, LocalDate.parse("2023-05-24"), null, null));
+        // end date has to be strictly before 23:59 of the day, meetings without end date never match
+        assertEquals(List.of("Meeting 3"), names(null, null, null, null, null, LocalDate.parse("2023-05-26"), null));
+    }
+
+    @Test
+    @Order(4)
+    void testChangedColumnsMatchRebuiltColumns() {
+        Random random = new Random(11);
+        List<MeetingColumns.Row> expected = new ArrayList<>();
+        MeetingColumns changedColumns = MeetingColumns.EMPTY;
+        long sequence = 0;
+        for (int batch = 0; batch < 40; batch++) {
+            SortedMap<Long, Meeting> changed = new TreeMap<>();
+            for (int i = 0; i < 50 && !expected.isEmpty(); i++) {
+                int row = random.nextInt(expected.size());
+                MeetingColumns.Row previous = expected.get(row);
+                Meeting meeting = random.nextBoolean() ? null : meeting(random, previous.meeting().name());
+                changed.put(previous.sequence(), meeting);
+                if (meeting == null) {
+                    expected.remove(row);
+                } else {
+                    expected.set(row, new MeetingColumns.Row(meeting, previous.position(), previous.sequence()));
+                }
+            }
+            List<MeetingColumns.Row> appended = new ArrayList<>();
+            for (int i = random.nextInt(600); i > 0; i--) {
+                sequence++;
+                appended.add(new MeetingColumns.Row(meeting(random, "Meeting " + sequence), 1000 + sequence, sequence));
+            }
+            expected.addAll(appended);
+            changedColumns = changedColumns.with(changed, appended);
+        }
+
+        MeetingColumns rebuilt = MeetingColumns.of(expected.stream().map(MeetingColumns.Row::meeting).toList(),
+                expected.stream().mapToLong(MeetingColumns.Row::position).toArray());
+        assertEquals(rebuilt.size(), changedColumns.size());
+        assertEquals(rebuilt.meetings(), changedColumns.meetings());
+        assertEquals(rebuilt.persons(), changedColumns.persons());
+        for (int row = 0; row < rebuilt.size(); row++) {
+            assertEquals(rebuilt.position(row), changedColumns.position(row));
+        }
+        for (String person : List.of("Person 1", "Person 7")) {
+            MeetingColumns.Filter filter = changedColumns.filter("java", person, "Hub", null, LocalDate.parse("2023-05-10"), null, 1);
+            MeetingColumns.Filter rebuiltFilter = rebuilt.filter("java", person, "Hub", null, LocalDate.parse("2023-05-10"), null, 1);
+            assertArrayEquals(rebuilt.scan(rebuiltFilter, 0, rebuilt.size()), changedColumns.scan(filter, 0, changedColumns.size()));
+            assertArrayEquals(rebuilt.scan(rebuiltFilter, 100, 3000), changedColumns.scan(filter, 100, 3000));
+        }
+        assertSame(changedColumns, changedColumns.with(new TreeMap<>(), List.of()));
+    }
+
+    private static Meeting meeting(Random random, String name) {
+        HashMap<String, LocalDateTime> participants = new HashMap<>();
+        for (int i = random.nextInt(3); i > 0; i--) {
+            participants.put("Participant " + i, LocalDateTime.parse("2023-05-01T10:00"));
+        }
+        LocalDateTime start = LocalDateTime.parse("2023-05-01T10:00").plusHours(random.nextInt(24 * 30));
+        return new Meeting(name, "Person " + random.nextInt(10), random.nextBoolean() ? "Java meeting" : "Meeting",
+                Category.values()[random.nextInt(Category.values().length)], Type.values()[random.nextInt(Type.values().length)],
+                start, start.plusHours(1), participants);
+    }
+
+}
@@ -1,23 +1,43 @@
 package dev.edvinmichovic.meetingmanagement.repository;
 
+import dev.edvinmichovic.meetingmanagement.config.MeetingProperties;
+import dev.edvinmichovic.meetingmanagement.config.MeetingsLoadHealthIndicator;
 import dev.edvinmichovic.meetingmanagement.dto.MeetingDTO;
+import dev.edvinmichovic.meetingmanagement.exceptions.RetryLaterException;
 import dev.edvinmichovic.meetingmanagement.model.Category;
 import dev.edvinmichovic.meetingmanagement.model.Meeting;
+import dev.edvinmichovic.meetingmanagement.model.MeetingStatistics;
+import dev.edvinmichovic.meetingmanagement.model.Recurrence;
 import dev.edvinmichovic.meetingmanagement.model.Type;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.actuate.health.Status;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -209,4 +229,361 @@ public class MeetingRepositoryTest {
         assertFalse(repository.findByName("Meeting 1").get().participants().containsKey("Participant 1"));
         assertFalse(repository.findByName("Meeting 1").get().participants().containsKey("Participant 3"));
     }
+
+    @Test
+    @Order(12)
+    void testSaveSharesPersonNames() {
+        List<String> participantsToAdd = new ArrayList<>();
+        participantsToAdd.add(new String("Jane Smith"));
+
+        repository.addParticipant("Meeting 1", participantsToAdd);
+
+        Meeting meeting1 = repository.findByName("Meeting 1").get();
+        Meeting meeting2 = repository.findByName("Meeting 2").get();
+        Meeting meeting3 = repository.findByName("Meeting 3").get();
+        String participant = meeting1.participants().keySet().stream().filter("Jane Smith"::equals).findFirst().get();
+
+        assertSame(meeting1.responsiblePerson(), meeting3.responsiblePerson());
+        assertSame(meeting2.responsiblePerson(), participant);
+        assertTrue(repository.namePoolStats().hits() > 0);
+    }
+
+    @Test
+    @Order(13)
+    void testVersionIncreasedByChanges() {
+        assertEquals(1, repository.findByName("Meeting 1").get().version());
+
+        List<String> participantsToAdd = new ArrayList<>();
+        participantsToAdd.add("Participant 1");
+        repository.addParticipant("Meeting 1", participantsToAdd, 1L);
+        assertEquals(2, repository.findByName("Meeting 1").get().version());
+
+        repository.removeParticipant("Meeting 1", List.of("Participant 1"), 2L);
+        assertEquals(3, repository.findByName("Meeting 1").get().version());
+
+        repository.save(new MeetingDTO("Meeting 1", "John Doe", "Meeting description",
+                "CodeMonkey", "Live", LocalDateTime.now(), LocalDateTime.now().plusDays(1),
+                new HashMap<>()), 3L);
+        assertEquals(4, repository.findByName("Meeting 1").get().version());
+        assertTrue(repository.delete("Meeting 1", "John Doe", 4L));
+    }
+
+    @Test
+    @Order(14)
+    void testVersionConflict() {
+        List<String> participantsToAdd = new ArrayList<>();
+        participantsToAdd.add("Participant 1");
+
+        ResponseStatusException addException = assertThrows(ResponseStatusException.class,
+                () -> repository.addParticipant("Meeting 1", participantsToAdd, 5L));
+        ResponseStatusException deleteException = assertThrows(ResponseStatusException.class,
+                () -> repository.delete("Meeting 2", "Jane Smith", 2L));
+        ResponseStatusException saveException = assertThrows(ResponseStatusException.class,
+                () -> repository.save(new MeetingDTO("Meeting 5", "John Doe", "Meeting description",
+                        "CodeMonkey", "Live", LocalDateTime.now(), LocalDateTime.now().plusDays(1),
+                        new HashMap<>()), 1L));
+
+        assertEquals(HttpStatus.CONFLICT, addException.getStatusCode());
+        assertEquals(HttpStatus.CONFLICT, deleteException.getStatusCode());
+        assertEquals(HttpStatus.CONFLICT, saveException.getStatusCode());
+        assertEquals(1, repository.findByName("Meeting 1").get().participants().size());
+        assertTrue(repository.findByName("Meeting 2").isPresent());
+        assertTrue(repository.findByName("Meeting 5").isEmpty());
+    }
+
+    @Test
+    @Order(15)
+    void testOperationsRecordedInMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MeetingRepository meteredRepository = new MeetingRepository(new MeetingProperties(), registry);
+        meteredRepository.save(new MeetingDTO("Meeting 1", "John Doe", "Meeting description",
+                "CodeMonkey", "Live", LocalDateTime.now(), LocalDateTime.now().plusDays(1),
+                new HashMap<>()));
+        List<String> participantsToAdd = new ArrayList<>();
+        participantsToAdd.add("Participant 1");
+        participantsToAdd.add("Participant 2");
+        meteredRepository.addParticipant("Meeting 1", participantsToAdd);
+        meteredRepository.findAll(null, null, null, null, null, null, null);
+        assertThrows(ResponseStatusException.class, () -> meteredRepository.removeParticipant("Meeting 9", List.of("Participant 1")));
+
+        assertEquals(1, registry.get("meetings.repository").tags("operation", "save", "outcome", "success").timer().count());
+        assertEquals(1, registry.get("meetings.repository").tags("operation", "findAll", "outcome", "success").timer().count());
+        assertEquals(1, registry.get("meetings.repository").tags("operation", "removeParticipant", "outcome", "404").timer().count());
+        assertEquals(2, registry.get("meetings.participants.changed").tag("change", "added").counter().count());
+        assertEquals(1, registry.get("meetings.store.size").gauge().value());
+        assertEquals(3, registry.get("meetings.store.participants").gauge().value());
+        assertEquals(1, registry.get("meetings.index.size").tag("index", "name").gauge().value());
+        assertEquals(1, registry.get("meetings.index.size").tag("index", "responsiblePerson").gauge().value());
+
+        meteredRepository.delete("Meeting 1", "John Doe");
+        assertEquals(0, registry.get("meetings.index.size").tag("index", "name").gauge().value());
+        assertEquals(0, registry.get("meetings.index.size").tag("index", "responsiblePerson").gauge().value());
+    }
+
+    @Test
+    @Order(16)
+    void testStatisticsMaintainedByChanges() {
+        List<String> participantsToAdd = new ArrayList<>();
+        participantsToAdd.add("Participant 1");
+        participantsToAdd.add("Participant 2");
+        repository.addParticipant("Meeting 1", participantsToAdd);
+        repository.removeParticipant("Meeting 1", List.of("Participant 2"));
+        repository.save(new MeetingDTO("Meeting 2", "Jane Smith", "Overwritten meeting",
+                "Short", "Live", LocalDateTime.now().plusMonths(2), LocalDateTime.now().plusMonths(2).plusHours(1),
+                new HashMap<>()));
+        repository.delete("Meeting 3", "John Doe");
+
+        MeetingStatistics statistics = repository.statistics();
+        List<Meeting> meetings = repository.findAll(null, null, null, null, null, null, null);
+
+        assertEquals(meetings.size(), statistics.meetings());
+        assertEquals(meetings.stream().mapToLong(m -> m.participants().size()).sum(), statistics.participants());
+        assertEquals(1.5, statistics.averageAttendees());
+        assertEquals(1, statistics.byCategory().get(Category.CodeMonkey));
+        assertEquals(0, statistics.byCategory().get(Category.Hub));
+        assertEquals(1, statistics.byCategory().get(Category.Short));
+        assertEquals(2, statistics.byType().get(Type.Live));
+        assertEquals(0, statistics.byType().get(Type.InPerson));
+        assertEquals(meetings.stream().collect(Collectors.groupingBy(m -> YearMonth.from(m.startDate()), TreeMap::new, Collectors.counting())),
+                statistics.byMonth());
+    }
+
+    @Test
+    @Order(17)
+    void testShardedRepositoryKeepsOrderOfStore() {
+        MeetingProperties properties = new MeetingProperties();
+        properties.getStore().setShards(4);
+        properties.getScan().setParallelThreshold(0);
+        MeetingRepository sharded = new MeetingRepository(properties, new SimpleMeterRegistry());
+        List<MeetingDTO> meetings = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            meetings.add(new MeetingDTO("Meeting " + i, i % 2 == 0 ? "John Doe" : "Jane Smith", "Description " + i,
+                    "Hub", "Live", LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), new HashMap<>()));
+        }
+        sharded.saveAll(meetings.subList(0, 50));
+        meetings.subList(50, 100).forEach(sharded::save);
+        sharded.save(meetings.get(10));
+        sharded.delete("Meeting 20", "John Doe");
+        List<String> participants = new ArrayList<>();
+        participants.add("Participant 1");
+        sharded.addParticipant("Meeting 30", participants);
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            if (i != 10 && i != 20) {
+                expected.add("Meeting " + i);
+            }
+        }
+        expected.add("Meeting 10");
+
+        assertEquals(expected, sharded.findAll(null, null, null, null, null, null, null).stream().map(Meeting::name).toList());
+        assertEquals(expected.stream().filter(name -> Integer.parseInt(name.substring(8)) % 2 == 0).toList(),
+                sharded.findAll(null, "John Doe", null, null, null, null, null).stream().map(Meeting::name).toList());
+        assertEquals(2, sharded.findByName("Meeting 10").orElseThrow().version());
+        assertTrue(sharded.findByName("Meeting 20").isEmpty());
+        assertEquals(99, sharded.statistics().meetings());
+        assertEquals(100, sharded.statistics().participants());
+        assertEquals(103, sharded.changes().lastSequence());
+        assertTrue(sharded.writerStats().batches() >= 4);
+    }
+
+    @Test
+    @Order(18)
+    void testRecurringMeetingExpandedWithinDates() {
+        MeetingRepository recurring = new MeetingRepository(new MeetingProperties(), new SimpleMeterRegistry());
+        LocalDateTime first = LocalDateTime.of(2030, 1, 7, 10, 0);
+        recurring.save(new MeetingDTO("Weekly sync", "John Doe", "Sync", "Hub", "Live", first, first.plusHours(1),
+                new HashMap<>(), new Recurrence(Recurrence.Frequency.Weekly, 1, null, null, Set.of(LocalDate.of(2030, 1, 21)))));
+        recurring.save(new MeetingDTO("Monthly review", "John Doe", "Review", "Short", "Live",
+                LocalDateTime.of(2030, 1, 31, 9, 0), LocalDateTime.of(2030, 1, 31, 10, 0),
+                new HashMap<>(), new Recurrence(Recurrence.Frequency.Monthly, 1, null, 3, null)));
+
+        assertEquals(List.of("Weekly sync", "Monthly review"),
+                recurring.findAll(null, null, null, null, null, null, null).stream().map(Meeting::name).toList());
+        assertEquals(List.of(LocalDateTime.of(2030, 1, 14, 10, 0), LocalDateTime.of(2030, 1, 28, 10, 0),
+                        LocalDateTime.of(2030, 2, 4, 10, 0)),
+                recurring.findAll(null, null, "Hub", null, LocalDate.of(2030, 1, 8), LocalDate.of(2030, 2, 4), null)
+                        .stream().map(Meeting::startDate).toList());
+        assertEquals(List.of(LocalDateTime.of(2030, 2, 28, 9, 0), LocalDateTime.of(2030, 3, 31, 9, 0)),
+                recurring.findAll(null, null, "Short", null, LocalDate.of(2030, 2, 1), null, null)
+                        .stream().map(Meeting::startDate).toList());
+        assertTrue(recurring.findAll(null, null, "Short", null, LocalDate.of(2030, 4, 1), null, null).isEmpty());
+        assertEquals(MeetingColumns.MAX_OCCURRENCES,
+                recurring.findAll(null, null, "Hub", null, LocalDate.of(2031, 1, 1), null, null).size());
+        assertEquals(2, recurring.statistics().meetings());
+    }
+
+    @Test
+    @Order(19)
+    void testCompleteNamesFollowsChanges() {
+        MeetingProperties properties = new MeetingProperties();
+        properties.getStore().setShards(3);
+        MeetingRepository sharded = new MeetingRepository(properties, new SimpleMeterRegistry());
+        for (String name : List.of("Java sync", "javelin", "JAVA review", "Kotlin sync", "Jam session")) {
+            sharded.save(new MeetingDTO(name, "John Doe", "Description", "Hub", "Live",
+                    LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), new HashMap<>()));
+        }
+
+        assertEquals(List.of("JAVA review", "Java sync", "javelin"), sharded.completeNames("jav", 10));
+        assertEquals(List.of("Jam session", "JAVA review"), sharded.completeNames("JA", 2));
+        assertTrue(sharded.completeNames("x", 10).isEmpty());
+
+        sharded.delete("Java sync", "John Doe");
+        sharded.save(new MeetingDTO("javelin", "John Doe", "Overwritten", "Hub", "Live",
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), new HashMap<>()));
+        assertEquals(List.of("JAVA review", "javelin"), sharded.completeNames("jav", 10));
+        assertEquals(4, sharded.completeNames("", 10).size());
+    }
+
+    private static String meetingJson(String name) {
+        return "{\"name\":\"" + name + "\",\"responsiblePerson\":\"John Doe\",\"description\":\"Description\","
+                + "\"meetingCategory\":\"Hub\",\"meetingType\":\"Live\",\"startDate\":\"2030-01-01T10:00:00\","
+                + "\"endDate\":\"2030-01-01T11:00:00\",\"participants\":{}}";
+    }
+
+    @Test
+    @Order(20)
+    void testReadFromJsonInBatches() throws IOException {
+        MeetingProperties properties = new MeetingProperties();
+        properties.getLoad().setBatchSize(2);
+        MeetingRepository loaded = new MeetingRepository(properties, new SimpleMeterRegistry());
+        String json = "[" + meetingJson("A") + "," + meetingJson("B") + "," + meetingJson("C") + "]";
+        List<Long> progress = new ArrayList<>();
+
+        assertEquals(3, loaded.readFromJson(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), progress::add));
+        assertEquals(List.of(2L, 3L), progress);
+        assertEquals(List.of("A", "B", "C"), loaded.findAll(null, null, null, null, null, null, null).stream().map(Meeting::name).toList());
+        assertThrows(IOException.class, () -> loaded.readFromJson(new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    @Order(21)
+    void testRequestsWaitForBackgroundLoad() throws Exception {
+        MeetingProperties properties = new MeetingProperties();
+        properties.getLoad().setBatchSize(1);
+        MeetingRepository loaded = new MeetingRepository(properties, new SimpleMeterRegistry());
+        PipedOutputStream file = new PipedOutputStream();
+        PipedInputStream input = new PipedInputStream(file);
+        CompletableFuture<Void> loading = loaded.loadInBackground(() -> {
+            try {
+                loaded.readFromJson(input);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        file.write(("[" + meetingJson("A") + "," + meetingJson("B") + ",").getBytes(StandardCharsets.UTF_8));
+        file.flush();
+
+        RetryLaterException rejected = assertThrows(RetryLaterException.class, () -> loaded.findByName("A"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatusCode());
+        assertEquals(MeetingRepository.LoadStatus.State.LOADING, loaded.loadStatus().state());
+        // the write waits for the load, so the meeting loaded later does not overwrite it
+        CompletableFuture<Void> write = CompletableFuture.runAsync(() -> loaded.save(new MeetingDTO("C", "Jane Smith", "Newer", "Hub", "Live",
+                LocalDateTime.now(), LocalDateTime.now().plusDays(1), new HashMap<>())));
+        Thread.sleep(50);
+        assertFalse(write.isDone());
+
+        file.write((meetingJson("C") + "]").getBytes(StandardCharsets.UTF_8));
+        file.close();
+        loading.get(5, TimeUnit.SECONDS);
+        write.get(5, TimeUnit.SECONDS);
+        assertEquals(new MeetingRepository.LoadStatus(MeetingRepository.LoadStatus.State.LOADED, 3, loaded.loadStatus().elapsed()),
+                loaded.loadStatus());
+        assertEquals("Jane Smith", loaded.findByName("C").orElseThrow().responsiblePerson());
+    }
+
+    @Test
+    @Order(22)
+    void testExportImportedByAnotherRepository() throws IOException {
+        MeetingProperties properties = new MeetingProperties();
+        properties.getLoad().setBatchSize(2);
+        MeetingRepository target = new MeetingRepository(properties, new SimpleMeterRegistry());
+        repository.save(new MeetingDTO("Finished", "Jane Smith", "Already over", "Short", "InPerson",
+                LocalDateTime.of(2020, 1, 1, 10, 0), LocalDateTime.of(2020, 1, 1, 11, 0), new HashMap<>(),
+                new Recurrence(Recurrence.Frequency.Weekly, 2, null, 3, null)));
+        List<Meeting> snapshot = repository.snapshot();
+
+        for (boolean ndjson : List.of(false, true)) {
+            ByteArrayOutputStream exported = new ByteArrayOutputStream();
+            repository.export(snapshot, exported, ndjson);
+            assertEquals(ndjson ? 4 : 1, exported.toString(StandardCharsets.UTF_8).split("\n").length);
+
+            MeetingRepository.ImportResult result = target.importMeetings(new ByteArrayInputStream(exported.toByteArray()));
+            assertEquals(4, result.meetings());
+            assertEquals(4, target.statistics().meetings());
+        }
+        assertEquals(snapshot.stream().map(Meeting::name).toList(), target.snapshot().stream().map(Meeting::name).toList());
+        assertEquals(repository.findByName("Finished").orElseThrow().recurrence(), target.findByName("Finished").orElseThrow().recurrence());
+    }
+
+    @Test
+    @Order(23)
+    void testImportStoppedByIncompleteMeeting() {
+        MeetingProperties properties = new MeetingProperties();
+        properties.getLoad().setBatchSize(1);
+        MeetingRepository target = new MeetingRepository(properties, new SimpleMeterRegistry());
+        String ndjson = meetingJson("A") + "\n" + meetingJson("B").replace("\"Hub\"", "\"Lunch\"") + "\n" + meetingJson("C") + "\n";
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> target.importMeetings(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8))));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        assertEquals("The import stopped after 1 meetings: The meeting number 2 has no valid category.", exception.getReason());
+        assertEquals(List.of("A"), target.snapshot().stream().map(Meeting::name).toList());
+    }
+
+    @Test
+    @Order(24)
+    void testRecurrenceOutOfDatesRefused() {
+        MeetingRepository recurring = new MeetingRepository(new MeetingProperties(), new SimpleMeterRegistry());
+        LocalDateTime first = LocalDateTime.of(2030, 1, 7, 10, 0);
+        for (Recurrence recurrence : List.of(
+                new Recurrence(Recurrence.Frequency.Monthly, Integer.MAX_VALUE, null, Integer.MAX_VALUE, null),
+                new Recurrence(Recurrence.Frequency.Daily, 1, LocalDate.MAX, null, null))) {
+            ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                    () -> recurring.save(new MeetingDTO("Endless", "John Doe", "Sync", "Hub", "Live", first, first.plusHours(1),
+                            new HashMap<>(), recurrence)));
+            assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        }
+
+        recurring.save(new MeetingDTO("Monthly review", "John Doe", "Review", "Short", "Live", first, first.plusHours(1),
+                new HashMap<>(), new Recurrence(Recurrence.Frequency.Monthly, Recurrence.MAX_INTERVAL, null, Recurrence.MAX_COUNT, null)));
+        assertEquals(List.of("Monthly review"), recurring.snapshot().stream().map(Meeting::name).toList());
+    }
+
+    @Test
+    @Order(25)
+    void testFailedLoadReportedDown() {
+        MeetingRepository failed = new MeetingRepository(new MeetingProperties(), new SimpleMeterRegistry());
+        MeetingsLoadHealthIndicator health = new MeetingsLoadHealthIndicator(failed);
+        assertEquals(Status.UP, health.health().getStatus());
+
+        failed.readFromJsonFile("/json/missing.json");
+
+        assertEquals(MeetingRepository.LoadStatus.State.FAILED, failed.loadStatus().state());
+        assertEquals(Status.DOWN, health.health().getStatus());
+
+        MeetingDTO meetingDTO = new MeetingDTO("New", "John Doe", "Description", "Hub", "Live",
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), new HashMap<>());
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> failed.save(meetingDTO));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+    }
+
+    @Test
+    @Order(26)
+    void testFailedLoadReloaded() {
+        MeetingRepository failed = new MeetingRepository(new MeetingProperties(), new SimpleMeterRegistry());
+        MeetingsLoadHealthIndicator health = new MeetingsLoadHealthIndicator(failed);
+        assertEquals(HttpStatus.CONFLICT, assertThrows(ResponseStatusException.class, failed::reload).getStatusCode());
+        failed.readFromJsonFile("/json/missing.json");
+
+        MeetingRepository.LoadStatus status = failed.reload();
+
+        assertEquals(MeetingRepository.LoadStatus.State.LOADED, status.state());
+        assertEquals(Status.UP, health.health().getStatus());
+        assertEquals(status.meetings(), failed.snapshot().size());
+        failed.save(new MeetingDTO("New", "John Doe", "Description", "Hub", "Live",
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), new HashMap<>()));
+        assertEquals(HttpStatus.CONFLICT, assertThrows(ResponseStatusException.class, failed::reload).getStatusCode());
+    }
+
 }
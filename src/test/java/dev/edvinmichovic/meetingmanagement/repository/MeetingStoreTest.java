@@ -0,0 +1,137 @@
+package dev.edvinmichovic.meetingmanagement.repository;
+
+import dev.edvinmichovic.meetingmanagement.config.MeetingProperties;
+import dev.edvinmichovic.meetingmanagement.model.Category;
+import dev.edvinmichovic.meetingmanagement.model.Meeting;
+import dev.edvinmichovic.meetingmanagement.model.Type;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MeetingStoreTest {
+
+    private final MeetingStore store = new MeetingStore(new MeetingProperties().getWriter());
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    private static Meeting meeting(String name) {
+        return new Meeting(name, "John Doe", "Description", Category.Hub, Type.Live,
+                LocalDateTime.parse("2023-05-24T10:00"), LocalDateTime.parse("2023-05-24T11:00"), new HashMap<>());
+    }
+
+    @Test
+    @Order(1)
+    void testConcurrentWritesArePublished() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            int prefix = thread;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    String name = "Meeting " + prefix + "-" + i;
+                    store.write(meetings -> meetings.put(name, meeting(name)));
+                    assertTrue(store.snapshot().byName().containsKey(name));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        MeetingStore.Snapshot snapshot = store.snapshot();
+        assertEquals(1600, snapshot.meetings().size());
+        assertEquals(1600, snapshot.columns().size());
+        assertEquals(1600, store.stats().mutations());
+        assertTrue(store.stats().batches() <= 1600);
+        assertTrue(store.stats().maxBatchSize() >= 1);
+    }
+
+    @Test
+    @Order(2)
+    void testFailedMutationDoesNotAffectStore() {
+        store.write(meetings -> meetings.put("Meeting 1", meeting("Meeting 1")));
+        MeetingStore.Snapshot before = store.snapshot();
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> store.write(meetings -> {
+                    throw new IllegalArgumentException("Invalid mutation");
+                }));
+
+        assertEquals("Invalid mutation", exception.getMessage());
+        assertEquals(before.byName(), store.snapshot().byName());
+        assertThrows(UnsupportedOperationException.class, () -> store.snapshot().byName().remove("Meeting 1"));
+    }
+
+    @Test
+    @Order(3)
+    void testFailedBatchDoesNotStopWriter() {
+        store.write(meetings -> meetings.put("Meeting 1", meeting("Meeting 1")));
+
+        assertThrows(IllegalStateException.class, () -> store.write(meetings -> {
+            meetings.put("Meeting 2", meeting("Meeting 2"));
+            throw new AssertionError("Writer failure");
+        }));
+        assertEquals(1, store.snapshot().statistics().meetings());
+
+        store.write(meetings -> meetings.put("Meeting 3", meeting("Meeting 3")));
+        assertEquals(List.of("Meeting 1", "Meeting 3"), store.snapshot().meetings().stream().map(Meeting::name).toList());
+        assertEquals(2, store.snapshot().statistics().meetings());
+
+        MeetingStore closed = new MeetingStore(new MeetingProperties().getWriter());
+        closed.close();
+        assertThrows(IllegalStateException.class, () -> closed.write(meetings -> meetings.put("Meeting 4", meeting("Meeting 4"))));
+    }
+
+    @Test
+    @Order(4)
+    void testReplacedSnapshotIsCollected() throws InterruptedException {
+        store.write(meetings -> meetings.put("Meeting 1", meeting("Meeting 1")));
+        WeakReference<MeetingStore.Snapshot> replaced = new WeakReference<>(store.snapshot());
+        store.write(meetings -> meetings.put("Meeting 2", meeting("Meeting 2")));
+
+        for (int i = 0; i < 50 && replaced.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(replaced.get());
+        assertEquals(List.of("Meeting 1", "Meeting 2"), new ArrayList<>(store.snapshot().byName().keySet()));
+    }
+
+    @Test
+    @Order(5)
+    void testWorkingCopyMutatorsAreAccounted() {
+        store.write(meetings -> meetings.put("Meeting 1", meeting("Meeting 1")));
+        store.write(meetings -> {
+            meetings.putIfAbsent("Meeting 1", meeting("Meeting 3"));
+            meetings.putIfAbsent("Meeting 2", meeting("Meeting 2"));
+            return meetings.remove("Meeting 1", meetings.get("Meeting 1"));
+        });
+
+        assertEquals(List.of("Meeting 2"), store.snapshot().meetings().stream().map(Meeting::name).toList());
+        assertEquals(1, store.snapshot().statistics().meetings());
+
+        assertThrows(UnsupportedOperationException.class,
+                () -> store.write(meetings -> meetings.computeIfAbsent("Meeting 3", MeetingStoreTest::meeting)));
+        assertThrows(UnsupportedOperationException.class,
+                () -> store.write(meetings -> meetings.keySet().remove("Meeting 2")));
+        assertThrows(UnsupportedOperationException.class,
+                () -> store.write(meetings -> meetings.values().removeIf(meeting -> true)));
+        assertEquals(1, store.snapshot().statistics().meetings());
+    }
+
+}
@@ -0,0 +1,89 @@
+package dev.edvinmichovic.meetingmanagement.repository;
+
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NameIndexTest {
+
+    @Test
+    @Order(1)
+    void testIndexKeepsNamesSortedIgnoringCase() {
+        NameIndex index = NameIndex.EMPTY.with(Set.of(), List.of("beta", "Alpha", "alpine", "ALPHA"));
+        index = index.with(Set.of("beta"), List.of("Alps", "Bravo"));
+
+        assertEquals(5, index.size());
+        assertEquals(List.of("ALPHA", "Alpha", "alpine", "Alps"), index.complete("alp", 10));
+        assertEquals(List.of("ALPHA", "Alpha"), index.complete("ALPHA", 10));
+        assertEquals(List.of("Bravo"), index.complete("b", 10));
+        assertEquals(List.of("ALPHA", "Alpha", "alpine"), index.complete("", 3));
+        assertTrue(index.complete("c", 10).isEmpty());
+        assertSame(index, index.with(Set.of(), List.of()));
+    }
+
+    @Test
+    @Order(2)
+    void testIndexMatchesSortedNamesAfterChanges() {
+        Random random = new Random(7);
+        TreeSet<String> expected = new TreeSet<>();
+        NameIndex index = NameIndex.EMPTY;
+        for (int batch = 0; batch < 50; batch++) {
+            Set<String> removed = new TreeSet<>();
+            for (String name : expected) {
+                if (random.nextInt(4) == 0) {
+                    removed.add(name);
+                }
+            }
+            Set<String> inserted = new TreeSet<>();
+            for (int i = 0; i < 20; i++) {
+                String name = "meeting " + random.nextInt(1000);
+                if (!expected.contains(name) || removed.contains(name)) {
+                    inserted.add(name);
+                }
+            }
+            index = index.with(removed, inserted);
+            expected.removeAll(removed);
+            expected.addAll(inserted);
+        }
+
+        assertEquals(List.copyOf(expected), index.complete("meeting", Integer.MAX_VALUE));
+        assertEquals(expected.stream().filter(name -> name.startsWith("meeting 12")).toList(), index.complete("Meeting 12", 1000));
+    }
+
+    @Test
+    @Order(3)
+    void testLargeIndexMatchesSortedNamesAfterChanges() {
+        Random random = new Random(13);
+        TreeSet<String> expected = new TreeSet<>();
+        NameIndex index = NameIndex.EMPTY;
+        for (int batch = 0; batch < 30; batch++) {
+            Set<String> removed = new TreeSet<>();
+            for (String name : expected) {
+                if (random.nextInt(batch % 10 == 9 ? 2 : 20) == 0) {
+                    removed.add(name);
+                }
+            }
+            Set<String> inserted = new TreeSet<>();
+            for (int i = random.nextInt(3000); i > 0; i--) {
+                String name = "meeting " + random.nextInt(100_000);
+                if (!expected.contains(name) || removed.contains(name)) {
+                    inserted.add(name);
+                }
+            }
+            index = index.with(removed, inserted);
+            expected.removeAll(removed);
+            expected.addAll(inserted);
+        }
+
+        assertEquals(expected.size(), index.size());
+        assertEquals(List.copyOf(expected), index.complete("", Integer.MAX_VALUE));
+        assertEquals(expected.stream().filter(name -> name.startsWith("meeting 5")).limit(700).toList(), index.complete("MEETING 5", 700));
+    }
+
+}
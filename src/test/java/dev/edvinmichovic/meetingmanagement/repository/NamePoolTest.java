@@ -0,0 +1,49 @@
+package dev.edvinmichovic.meetingmanagement.repository;
+
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NamePoolTest {
+
+    @Test
+    @Order(1)
+    void testInternReturnsCanonicalInstance() {
+        NamePool pool = new NamePool();
+        String first = pool.intern(new String("John Doe"));
+        String second = pool.intern(new String("John Doe"));
+
+        assertSame(first, second);
+        assertEquals(1, pool.stats().hits());
+        assertEquals(1, pool.stats().misses());
+        assertEquals(0.5, pool.stats().hitRate());
+        assertTrue(pool.stats().bytesSaved() > 0);
+    }
+
+    @Test
+    @Order(2)
+    void testCanonicalDoesNotAddToPool() {
+        NamePool pool = new NamePool();
+        String name = new String("Jane Smith");
+
+        assertSame(name, pool.canonical(name));
+        assertEquals(0, pool.stats().size());
+
+        String pooled = pool.intern(name);
+        assertSame(pooled, pool.canonical(new String("Jane Smith")));
+    }
+
+    @Test
+    @Order(3)
+    void testFullPoolDoesNotCanonicalize() {
+        NamePool pool = new NamePool(1);
+        pool.intern("John Doe");
+        String name = new String("Jane Smith");
+
+        assertSame(name, pool.intern(name));
+        assertEquals(1, pool.stats().size());
+        assertNull(pool.intern(null));
+    }
+
+}
@@ -0,0 +1,82 @@
+package dev.edvinmichovic.meetingmanagement.repository;
+
+import dev.edvinmichovic.meetingmanagement.config.MeetingProperties;
+import dev.edvinmichovic.meetingmanagement.model.Category;
+import dev.edvinmichovic.meetingmanagement.model.Meeting;
+import dev.edvinmichovic.meetingmanagement.model.Type;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelScanTest {
+
+    private static MeetingColumns columns(int size) {
+        List<Meeting> meetings = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            meetings.add(new Meeting("Meeting " + i, "Person " + (i % 7), "Description " + i,
+                    Category.values()[i % 4], Type.values()[i % 2],
+                    LocalDateTime.parse("2023-05-24T10:00").plusMinutes(i), null, new HashMap<>()));
+        }
+        return MeetingColumns.of(meetings);
+    }
+
+    @Test
+    @Order(1)
+    void testParallelScanKeepsOrderOfRows() {
+        MeetingProperties.Scan properties = new MeetingProperties.Scan();
+        properties.setParallelThreshold(0);
+        properties.setParallelism(4);
+        MeetingColumns columns = columns(100_000);
+        MeetingColumns.Filter filter = columns.filter("1", "Person 3", "Hub", null, null, null, null);
+
+        try (ParallelScan parallelScan = new ParallelScan(properties)) {
+            int[] matches = parallelScan.scan(columns, filter);
+
+            assertTrue(matches.length > 0);
+            assertArrayEquals(columns.scan(filter, 0, columns.size()), matches);
+        }
+    }
+
+    @Test
+    @Order(2)
+    void testSingleThreadScansSequentially() {
+        MeetingProperties.Scan properties = new MeetingProperties.Scan();
+        properties.setParallelism(1);
+        MeetingColumns columns = columns(10);
+        MeetingColumns.Filter filter = columns.filter(null, null, null, null, null, null, null);
+
+        try (ParallelScan parallelScan = new ParallelScan(properties)) {
+            assertEquals(1, parallelScan.parallelism());
+            assertEquals(10, parallelScan.scan(columns, filter).length);
+        }
+    }
+
+    @Test
+    @Order(3)
+    void testShardsScannedInParallel() {
+        MeetingProperties.Scan properties = new MeetingProperties.Scan();
+        properties.setParallelThreshold(0);
+        properties.setParallelism(4);
+        MeetingColumns[] shards = {columns(30_000), columns(10), columns(0)};
+        MeetingColumns.Filter[] filters = new MeetingColumns.Filter[shards.length];
+        for (int shard = 0; shard < shards.length; shard++) {
+            filters[shard] = shards[shard].filter("1", null, "Hub", null, null, null, null);
+        }
+
+        try (ParallelScan parallelScan = new ParallelScan(properties)) {
+            int[][] matches = parallelScan.scan(shards, filters);
+
+            assertEquals(shards.length, matches.length);
+            for (int shard = 0; shard < shards.length; shard++) {
+                assertArrayEquals(shards[shard].scan(filters[shard], 0, shards[shard].size()), matches[shard]);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,60 @@
+package dev.edvinmichovic.meetingmanagement.repository;
+
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistentMapTest {
+
+    @Test
+    @Order(1)
+    void testChangesDoNotAffectPreviousMaps() {
+        PersistentMap<String, Integer> empty = PersistentMap.empty();
+        PersistentMap<String, Integer> one = empty.put("Meeting 1", 1);
+        PersistentMap<String, Integer> two = one.put("Meeting 2", 2).put("Meeting 1", 10);
+
+        assertEquals(0, empty.size());
+        assertNull(empty.get("Meeting 1"));
+        assertEquals(1, one.size());
+        assertEquals(1, one.get("Meeting 1"));
+        assertNull(one.get("Meeting 2"));
+        assertEquals(2, two.size());
+        assertEquals(10, two.get("Meeting 1"));
+        assertEquals(1, two.remove("Meeting 1").size());
+        assertEquals(10, two.get("Meeting 1"));
+        assertSame(two, two.remove("Meeting 3"));
+        assertSame(one, one.put("Meeting 1", 1));
+        assertNull(two.get(null));
+    }
+
+    @Test
+    @Order(2)
+    void testMapMatchesHashMapAfterChanges() {
+        Random random = new Random(5);
+        Map<String, Integer> expected = new HashMap<>();
+        PersistentMap<String, Integer> map = PersistentMap.empty();
+        for (int i = 0; i < 100_000; i++) {
+            // "Aa" and "BB" have the same hash code, so the keys ending with them collide
+            String key = random.nextInt(5_000) + (random.nextBoolean() ? "Aa" : "BB");
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.remove(key);
+            } else {
+                expected.put(key, i);
+                map = map.put(key, i);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (int key = 0; key < 5_000; key++) {
+            assertEquals(expected.get(key + "Aa"), map.get(key + "Aa"));
+            assertEquals(expected.get(key + "BB"), map.get(key + "BB"));
+        }
+    }
+
+}
@@ -0,0 +1,125 @@
+package dev.edvinmichovic.meetingmanagement.repository;
+
+import dev.edvinmichovic.meetingmanagement.config.MeetingProperties;
+import dev.edvinmichovic.meetingmanagement.dto.MeetingDTO;
+import dev.edvinmichovic.meetingmanagement.model.Meeting;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplicationTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<MeetingRepository> repositories = new ArrayList<>();
+
+    private MeetingRepository repository(MeetingProperties.Replication.Role role, DataSize maxLogSize, SimpleMeterRegistry registry) {
+        MeetingProperties properties = new MeetingProperties();
+        properties.getReplication().setRole(role);
+        properties.getReplication().setLog(directory.resolve("changes.log").toString());
+        properties.getReplication().setPollInterval(Duration.ofMillis(10));
+        properties.getReplication().setMaxLogSize(maxLogSize);
+        MeetingRepository repository = new MeetingRepository(properties, registry);
+        repositories.add(repository);
+        return repository;
+    }
+
+    private static MeetingDTO meeting(String name, String description) {
+        return new MeetingDTO(name, "John Doe", description, "Hub", "Live",
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), new HashMap<>());
+    }
+
+    private static List<String> names(MeetingRepository repository) {
+        return repository.findAll(null, null, null, null, null, null, null).stream().map(Meeting::name).toList();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 500 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @AfterEach
+    void tearDown() {
+        repositories.forEach(MeetingRepository::stopReplication);
+    }
+
+    @Test
+    @Order(1)
+    void testReplicaFollowsPrimary() throws Exception {
+        MeetingRepository primary = repository(MeetingProperties.Replication.Role.PRIMARY, DataSize.ofMegabytes(64), new SimpleMeterRegistry());
+        primary.save(meeting("Meeting 1", "Saved before the replication"));
+        primary.startReplication();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MeetingRepository replica = repository(MeetingProperties.Replication.Role.REPLICA, DataSize.ofMegabytes(64), registry);
+        replica.startReplication();
+
+        primary.save(meeting("Meeting 2", "Description"));
+        primary.save(meeting("Meeting 3", "Description"));
+        List<String> participants = new ArrayList<>();
+        participants.add("Jane Smith");
+        primary.addParticipant("Meeting 2", participants);
+        primary.save(meeting("Meeting 1", "Overwritten description"));
+        primary.delete("Meeting 3", "John Doe");
+
+        await(() -> names(replica).equals(names(primary)));
+        assertEquals(List.of("Meeting 2", "Meeting 1"), names(replica));
+        assertEquals(primary.findByName("Meeting 2"), replica.findByName("Meeting 2"));
+        assertEquals("Overwritten description", replica.findByName("Meeting 1").orElseThrow().description());
+        assertEquals(primary.statistics(), replica.statistics());
+        assertEquals(primary.changes().lastSequence(), registry.get("meetings.replication.sequence").gauge().value());
+        double lag = registry.get("meetings.replication.lag").timeGauge().value(TimeUnit.MILLISECONDS);
+        assertTrue(lag >= 0 && lag < 5000);
+
+        // the lag of the stalled replica grows, although nothing is applied
+        replica.stopReplication();
+        Thread.sleep(200);
+        assertTrue(registry.get("meetings.replication.lag").timeGauge().value(TimeUnit.MILLISECONDS) >= 200);
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> replica.save(meeting("Meeting 4", "Description")));
+        assertEquals(HttpStatus.METHOD_NOT_ALLOWED, exception.getStatusCode());
+        assertThrows(ResponseStatusException.class, () -> replica.removeParticipant("Meeting 2", List.of("Jane Smith")));
+    }
+
+    @Test
+    @Order(2)
+    void testReplicaReloadsCompactedLog() throws Exception {
+        MeetingRepository primary = repository(MeetingProperties.Replication.Role.PRIMARY, DataSize.ofKilobytes(2), new SimpleMeterRegistry());
+        primary.startReplication();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MeetingRepository replica = repository(MeetingProperties.Replication.Role.REPLICA, DataSize.ofMegabytes(64), registry);
+        replica.startReplication();
+        // the replica has loaded the first log, so it has to reload the compacted ones
+        await(() -> registry.get("meetings.replication.reloads").counter().count() == 1);
+
+        for (int i = 0; i < 50; i++) {
+            primary.save(meeting("Meeting " + (i % 10), "Description " + i));
+        }
+        primary.delete("Meeting 5", "John Doe");
+
+        // the replica can catch up with the changes before it notices the last compaction of the log
+        await(() -> registry.get("meetings.replication.reloads").counter().count() > 1
+                && names(replica).size() == 9
+                && replica.findByName("Meeting 9").map(meeting -> meeting.description().equals("Description 49")).orElse(false));
+        assertEquals(names(primary), names(replica));
+    }
+
+}